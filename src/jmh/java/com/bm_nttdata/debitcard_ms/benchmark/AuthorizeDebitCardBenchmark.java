@@ -0,0 +1,90 @@
+package com.bm_nttdata.debitcard_ms.benchmark;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationRequestDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationResponseDto;
+import com.bm_nttdata.debitcard_ms.service.impl.DebitCardServiceImpl;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Benchmark de latencia de authorizeDebitCard con una tarjeta cuya cuenta principal y
+ * primera cuenta asociada no cubren el importe, de modo que se aprueba con la tercera
+ * cuenta en prioridad. Cada consulta de saldo tarda {@code balanceLatencyMs}; con una
+ * sola consulta especulativa las consultas son secuenciales.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorizeDebitCardBenchmark {
+
+    private static final String COVERING_ACCOUNT = "acc-3";
+
+    @Param({"1", "4"})
+    private int speculativeLookups;
+
+    @Param({"5"})
+    private int balanceLatencyMs;
+
+    private DebitCardServiceImpl debitCardService;
+
+    private String cardId;
+
+    private AuthorizationRequestDto request;
+
+    /**
+     * Construye el servicio con un account-ms simulado en el que solo la cuenta acc-3
+     * tiene saldo suficiente.
+     */
+    @Setup
+    public void setUp() {
+        DebitCardServiceProperties serviceProperties = new DebitCardServiceProperties();
+        serviceProperties.getBatchLoader().setEnabled(false);
+        serviceProperties.getAuthorization().setSpeculativeLookups(speculativeLookups);
+        debitCardService = BenchmarkFixtures.debitCardService(
+                true, serviceProperties, balanceWebClient(Duration.ofMillis(balanceLatencyMs)));
+        cardId = BenchmarkFixtures.debitCard().getId();
+        request = new AuthorizationRequestDto().amount(500.0);
+    }
+
+    @Benchmark
+    public AuthorizationResponseDto authorizeDebitCard() {
+        return debitCardService.authorizeDebitCard(cardId, Mono.just(request)).block();
+    }
+
+    private static WebClient balanceWebClient(Duration latency) {
+        return WebClient.builder()
+                .baseUrl("http://downstream")
+                .exchangeFunction(request -> {
+                    String path = request.url().getPath();
+                    String accountId = path.split("/")[4];
+                    double balance = COVERING_ACCOUNT.equals(accountId) ? 2000.0 : 100.0;
+                    return Mono.delay(latency).thenReturn(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"accountId\":\"" + accountId + "\",\"balance\":" + balance
+                                    + ",\"lastUpdateDate\":\"2024-11-20T10:15:30Z\"}")
+                            .build());
+                })
+                .build();
+    }
+}
@@ -0,0 +1,214 @@
+package com.bm_nttdata.debitcard_ms.benchmark;
+
+import com.bm_nttdata.debitcard_ms.cache.AccountCardIndex;
+import com.bm_nttdata.debitcard_ms.cache.BalanceCache;
+import com.bm_nttdata.debitcard_ms.cache.DebitCardBatchLoader;
+import com.bm_nttdata.debitcard_ms.cache.DebitCardCache;
+import com.bm_nttdata.debitcard_ms.cache.LastKnownGoodStore;
+import com.bm_nttdata.debitcard_ms.cache.ValidationCache;
+import com.bm_nttdata.debitcard_ms.config.CardEventProperties;
+import com.bm_nttdata.debitcard_ms.config.CardSecretConfig;
+import com.bm_nttdata.debitcard_ms.config.CardSecretProperties;
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceConfig;
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import com.bm_nttdata.debitcard_ms.event.CardOutbox;
+import com.bm_nttdata.debitcard_ms.generator.CardNumberGenerator;
+import com.bm_nttdata.debitcard_ms.mapper.DebitCardMapper;
+import com.bm_nttdata.debitcard_ms.mapper.DebitCardMapperImpl;
+import com.bm_nttdata.debitcard_ms.repository.DebitCardRepository;
+import com.bm_nttdata.debitcard_ms.security.CardSecretCodec;
+import com.bm_nttdata.debitcard_ms.service.impl.DebitCardServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Objetos de apoyo para los benchmarks: servicio de tarjetas de débito construido
+ * sobre un repositorio y clientes web simulados en memoria.
+ */
+final class BenchmarkFixtures {
+
+    static final String CUSTOMER_JSON = "{\"id\":\"cus-1\",\"customerType\":\"PERSONAL\"}";
+
+    static final String ACCOUNT_JSON = "{\"id\":\"acc-1\",\"customerId\":\"cus-1\","
+            + "\"accountType\":\"SAVINGS\",\"accountNumber\":\"19112345678\",\"balance\":1500.0}";
+
+    static final String BALANCE_JSON = "{\"accountId\":\"acc-1\",\"balance\":1500.0,"
+            + "\"lastUpdateDate\":\"2024-11-20T10:15:30Z\"}";
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Construye el servicio de tarjetas de débito con sus dependencias simuladas.
+     *
+     * @param cachesEnabled Indica si las cachés locales están habilitadas
+     * @return Servicio de tarjetas de débito listo para usarse
+     */
+    static DebitCardServiceImpl debitCardService(boolean cachesEnabled) {
+        DebitCardServiceProperties serviceProperties = new DebitCardServiceProperties();
+        serviceProperties.getBatchLoader().setEnabled(false);
+        return debitCardService(cachesEnabled, serviceProperties, downstreamWebClient());
+    }
+
+    /**
+     * Construye el servicio de tarjetas de débito con la configuración y el cliente web
+     * indicados.
+     *
+     * @param cachesEnabled Indica si las cachés locales están habilitadas
+     * @param serviceProperties Propiedades de las operaciones de negocio
+     * @param webClient Cliente web simulado de los microservicios externos
+     * @return Servicio de tarjetas de débito listo para usarse
+     */
+    static DebitCardServiceImpl debitCardService(boolean cachesEnabled,
+            DebitCardServiceProperties serviceProperties, WebClient webClient) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DebitCardCacheProperties cacheProperties = new DebitCardCacheProperties();
+        cacheProperties.getCard().setEnabled(cachesEnabled);
+        cacheProperties.getBalance().setEnabled(cachesEnabled);
+        cacheProperties.getValidation().setEnabled(cachesEnabled);
+        cacheProperties.getAccountIndex().setEnabled(cachesEnabled);
+
+        DebitCardRepository repository = debitCardRepository(debitCard());
+        DebitCardCache debitCardCache = new DebitCardCache(repository,
+                new DebitCardBatchLoader(repository, serviceProperties, meterRegistry),
+                cacheProperties, meterRegistry);
+
+        return new DebitCardServiceImpl(
+                repository,
+                debitCardCache,
+                new AccountCardIndex(cacheProperties, meterRegistry),
+                new BalanceCache(cacheProperties, meterRegistry),
+                new ValidationCache(cacheProperties, meterRegistry),
+                new LastKnownGoodStore(cacheProperties, meterRegistry),
+                serviceProperties,
+                new CardNumberGenerator(serviceProperties),
+                cardSecretCodec(CardSecretProperties.Engine.AES_GCM),
+                new CardOutbox(new CardEventProperties()),
+                new DebitCardServiceConfig().accountBalanceClient(webClient, serviceProperties),
+                debitCardMapper(),
+                ObservationRegistry.NOOP,
+                webClient,
+                webClient,
+                webClient);
+    }
+
+    /**
+     * Construye el codificador de datos secretos con un almacén de claves temporal.
+     *
+     * @param engine Motor de codificación
+     * @return Codificador de datos secretos
+     */
+    static CardSecretCodec cardSecretCodec(CardSecretProperties.Engine engine) {
+        CardSecretProperties properties = new CardSecretProperties();
+        properties.setEngine(engine);
+        properties.getKeystore().setPath(temporaryKeystore().toString());
+        properties.getKeystore().setPassword("benchmark");
+        properties.getKeystore().setGenerateIfMissing(true);
+        CardSecretConfig config = new CardSecretConfig();
+        return config.cardSecretCodec(properties, config.cardSecretKeyProvider(properties));
+    }
+
+    private static Path temporaryKeystore() {
+        try {
+            Path directory = Files.createTempDirectory("card-secrets");
+            directory.toFile().deleteOnExit();
+            Path keystore = directory.resolve("card-secrets.p12");
+            keystore.toFile().deleteOnExit();
+            return keystore;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static DebitCardMapper debitCardMapper() {
+        return new DebitCardMapperImpl();
+    }
+
+    static DebitCard debitCard() {
+        return DebitCard.builder()
+                .id(new ObjectId().toHexString())
+                .cardNumber("4557-8812-3456-7890")
+                .customerId("cus-1")
+                .primaryAccountId("acc-1")
+                .associatedAccountIds(List.of("acc-2", "acc-3"))
+                .expirationDate("2029-11")
+                .ccvCode("123")
+                .cardPin("4321")
+                .creationDate(LocalDateTime.now())
+                .active(CardStatusEnum.ACTIVE)
+                .build();
+    }
+
+    /**
+     * Repositorio simulado: las escrituras devuelven la entidad recibida y las lecturas
+     * devuelven una copia de la tarjeta indicada.
+     */
+    static DebitCardRepository debitCardRepository(DebitCard stored) {
+        return (DebitCardRepository) Proxy.newProxyInstance(
+                DebitCardRepository.class.getClassLoader(),
+                new Class<?>[] {DebitCardRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save", "insert" -> {
+                        DebitCard debitCard = (DebitCard) args[0];
+                        if (debitCard.getId() == null) {
+                            debitCard.setId(new ObjectId().toHexString());
+                        }
+                        yield Mono.just(debitCard);
+                    }
+                    case "insertAll" -> Flux.fromIterable((Collection<?>) args[0]);
+                    case "findById" -> Mono.just(stored.toBuilder().build());
+                    case "findAllByIdIn", "findSummariesByIdIn", "findAllByAccountId" ->
+                            Flux.just(stored.toBuilder().build());
+                    case "toString" -> "StubDebitCardRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Cliente web simulado que responde como account-ms, customer-ms y credit-ms.
+     */
+    static WebClient downstreamWebClient() {
+        return WebClient.builder()
+                .baseUrl("http://downstream")
+                .exchangeFunction(request -> {
+                    String path = request.url().getPath();
+                    String body;
+                    if (path.endsWith("/debts")) {
+                        body = "false";
+                    } else if (path.endsWith("/balance")) {
+                        body = BALANCE_JSON;
+                    } else if (path.startsWith("/api/v1/customers")) {
+                        body = CUSTOMER_JSON;
+                    } else {
+                        body = ACCOUNT_JSON;
+                    }
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(body)
+                            .build());
+                })
+                .build();
+    }
+}
@@ -0,0 +1,101 @@
+package com.bm_nttdata.debitcard_ms.benchmark;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties;
+import com.bm_nttdata.debitcard_ms.model.CardBalancesResponseDto;
+import com.bm_nttdata.debitcard_ms.service.impl.DebitCardServiceImpl;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Benchmark de latencia de getDebitCardBalances para una tarjeta con tres cuentas, con
+ * una llamada a account-ms por cuenta (secuencial o en paralelo) o con una sola llamada
+ * al endpoint de consulta por lotes. Cada llamada tarda {@code callLatencyMs}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CardBalancesBenchmark {
+
+    private static final Pattern ACCOUNT_ID = Pattern.compile("acc-\\d+");
+
+    @Param({"PER_ACCOUNT:1", "PER_ACCOUNT:8", "BATCH:50"})
+    private String strategy;
+
+    @Param({"5"})
+    private int callLatencyMs;
+
+    private DebitCardServiceImpl debitCardService;
+
+    private String cardId;
+
+    /**
+     * Construye el servicio con la estrategia de consulta de saldos a evaluar, indicada
+     * como {@code estrategia:concurrencia} o {@code estrategia:tamañoDeLote}.
+     */
+    @Setup
+    public void setUp() {
+        String[] parts = strategy.split(":");
+        DebitCardServiceProperties serviceProperties = new DebitCardServiceProperties();
+        serviceProperties.getBatchLoader().setEnabled(false);
+        DebitCardServiceProperties.Balances balances = serviceProperties.getBalances();
+        balances.setStrategy(DebitCardServiceProperties.BalanceStrategy.valueOf(parts[0]));
+        balances.setMaxConcurrency(Integer.parseInt(parts[1]));
+        balances.setMaxBatchSize(Integer.parseInt(parts[1]));
+        debitCardService = BenchmarkFixtures.debitCardService(
+                true, serviceProperties, accountWebClient(Duration.ofMillis(callLatencyMs)));
+        cardId = BenchmarkFixtures.debitCard().getId();
+    }
+
+    @Benchmark
+    public CardBalancesResponseDto getDebitCardBalances() {
+        return debitCardService.getDebitCardBalances(cardId).block();
+    }
+
+    private static WebClient accountWebClient(Duration latency) {
+        return WebClient.builder()
+                .baseUrl("http://downstream")
+                .exchangeFunction(request -> {
+                    String body;
+                    if (request.method() == HttpMethod.POST) {
+                        body = "[" + balanceJson("acc-1") + "," + balanceJson("acc-2") + ","
+                                + balanceJson("acc-3") + "]";
+                    } else {
+                        Matcher matcher = ACCOUNT_ID.matcher(request.url().getPath());
+                        body = balanceJson(matcher.find() ? matcher.group() : "acc-1");
+                    }
+                    return Mono.delay(latency).thenReturn(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(body)
+                            .build());
+                })
+                .build();
+    }
+
+    private static String balanceJson(String accountId) {
+        return "{\"accountId\":\"" + accountId + "\",\"balance\":1500.0,"
+                + "\"lastUpdateDate\":\"2024-11-20T10:15:30Z\"}";
+    }
+}
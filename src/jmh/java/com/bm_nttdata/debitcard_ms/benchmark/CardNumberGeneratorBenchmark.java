@@ -0,0 +1,67 @@
+package com.bm_nttdata.debitcard_ms.benchmark;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties;
+import com.bm_nttdata.debitcard_ms.generator.CardNumberGenerator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark del generador de números de tarjeta frente a la generación original
+ * basada en {@code new Random()} y {@code String.format}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class CardNumberGeneratorBenchmark {
+
+    @Param({"SECURE", "SPLITTABLE"})
+    private DebitCardServiceProperties.RandomStrategy random;
+
+    private CardNumberGenerator generator;
+
+    /**
+     * Inicializa el generador con la estrategia de números aleatorios a evaluar.
+     */
+    @Setup
+    public void setUp() {
+        DebitCardServiceProperties properties = new DebitCardServiceProperties();
+        properties.getCardNumber().setRandom(random);
+        generator = new CardNumberGenerator(properties);
+    }
+
+    @Benchmark
+    public String cardNumberGenerator() {
+        return generator.generate();
+    }
+
+    /**
+     * Generación original, sin dígito de control Luhn, como referencia.
+     *
+     * @return Número de tarjeta generado
+     */
+    @Benchmark
+    public String legacyRandomFormat() {
+        Random legacy = new Random();
+        return String.format("%04d-%04d-%04d-%04d",
+                legacy.nextInt(10000),
+                legacy.nextInt(10000),
+                legacy.nextInt(10000),
+                legacy.nextInt(10000));
+    }
+}
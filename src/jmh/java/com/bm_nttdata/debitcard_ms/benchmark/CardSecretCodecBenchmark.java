@@ -0,0 +1,65 @@
+package com.bm_nttdata.debitcard_ms.benchmark;
+
+import com.bm_nttdata.debitcard_ms.config.CardSecretProperties;
+import com.bm_nttdata.debitcard_ms.security.CardSecretCodec;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark de la codificación y verificación del PIN y del código CCV con cada motor.
+ * Cada tarjeta emitida codifica dos valores, por lo que el coste por emisión es el doble
+ * del de {@code encode}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class CardSecretCodecBenchmark {
+
+    private static final String CARD_NUMBER = "4557-8812-3456-7890";
+
+    @Param({"AES_GCM", "HMAC_SHA256"})
+    private CardSecretProperties.Engine engine;
+
+    private CardSecretCodec codec;
+
+    private String encodedPin;
+
+    /**
+     * Inicializa el codificador del motor a evaluar con un almacén de claves temporal.
+     */
+    @Setup
+    public void setUp() {
+        codec = BenchmarkFixtures.cardSecretCodec(engine);
+        encodedPin = codec.encode("0421", CARD_NUMBER);
+    }
+
+    @Benchmark
+    public String encode() {
+        return codec.encode("0421", CARD_NUMBER);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return codec.matches("0421", encodedPin, CARD_NUMBER);
+    }
+
+    @Benchmark
+    public boolean mismatch() {
+        return codec.matches("0422", encodedPin, CARD_NUMBER);
+    }
+}
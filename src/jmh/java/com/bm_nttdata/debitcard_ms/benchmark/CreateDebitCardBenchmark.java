@@ -0,0 +1,53 @@
+package com.bm_nttdata.debitcard_ms.benchmark;
+
+import com.bm_nttdata.debitcard_ms.model.DebitCardRequestDto;
+import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
+import com.bm_nttdata.debitcard_ms.service.impl.DebitCardServiceImpl;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+/**
+ * Benchmark de la cadena reactiva completa de createDebitCard (validaciones remotas,
+ * generación de número, PIN y CCV, guardado y mapeo) sobre repositorio y clientes
+ * web simulados en memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateDebitCardBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cachesEnabled;
+
+    private DebitCardServiceImpl debitCardService;
+
+    private DebitCardRequestDto request;
+
+    /**
+     * Construye el servicio con sus dependencias simuladas.
+     */
+    @Setup
+    public void setUp() {
+        debitCardService = BenchmarkFixtures.debitCardService(cachesEnabled);
+        request = new DebitCardRequestDto().customerId("cus-1").primaryAccountId("acc-1");
+    }
+
+    @Benchmark
+    public DebitCardResponseDto createDebitCard() {
+        return debitCardService.createDebitCard(Mono.just(request)).block();
+    }
+}
@@ -0,0 +1,73 @@
+package com.bm_nttdata.debitcard_ms.benchmark;
+
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.mapper.DebitCardMapper;
+import com.bm_nttdata.debitcard_ms.model.DebitCardRequestDto;
+import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark de las conversiones entre entidad y DTO de DebitCardMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DebitCardMapperBenchmark {
+
+    private DebitCardMapper mapper;
+
+    private DebitCard debitCard;
+
+    private DebitCardRequestDto request;
+
+    private LocalDateTime localDateTime;
+
+    private OffsetDateTime offsetDateTime;
+
+    /**
+     * Inicializa el mapper generado y los objetos de entrada.
+     */
+    @Setup
+    public void setUp() {
+        mapper = BenchmarkFixtures.debitCardMapper();
+        debitCard = BenchmarkFixtures.debitCard();
+        request = new DebitCardRequestDto().customerId("cus-1").primaryAccountId("acc-1");
+        localDateTime = debitCard.getCreationDate();
+        offsetDateTime = mapper.map(localDateTime);
+    }
+
+    @Benchmark
+    public DebitCardResponseDto entityToResponseDto() {
+        return mapper.debitCardEntityToDebitCardDto(debitCard);
+    }
+
+    @Benchmark
+    public DebitCard requestDtoToEntity() {
+        return mapper.debitCardRequestToDebitCardEntity(request);
+    }
+
+    @Benchmark
+    public OffsetDateTime localToOffsetDateTime() {
+        return mapper.map(localDateTime);
+    }
+
+    @Benchmark
+    public LocalDateTime offsetToLocalDateTime() {
+        return mapper.map(offsetDateTime);
+    }
+}
@@ -0,0 +1,79 @@
+package com.bm_nttdata.debitcard_ms.benchmark;
+
+import com.bm_nttdata.debitcard_ms.mapper.DebitCardMapper;
+import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Benchmark de la serialización JSON de listas de DebitCardResponseDto con un
+ * ObjectMapper configurado como el de Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DebitCardSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectWriter listWriter;
+
+    private ObjectWriter itemWriter;
+
+    private List<DebitCardResponseDto> cards;
+
+    /**
+     * Inicializa el ObjectMapper y la lista de tarjetas a serializar.
+     */
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructCollectionType(List.class, DebitCardResponseDto.class));
+        itemWriter = objectMapper.writerFor(DebitCardResponseDto.class);
+        DebitCardMapper mapper = BenchmarkFixtures.debitCardMapper();
+        cards = IntStream.range(0, size)
+                .mapToObj(i -> mapper.debitCardEntityToDebitCardDto(BenchmarkFixtures.debitCard()))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] jsonArray() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(cards);
+    }
+
+    /**
+     * Serialización elemento a elemento, como en el modo de streaming NDJSON.
+     *
+     * @return Número total de bytes escritos
+     * @throws JsonProcessingException si falla la serialización
+     */
+    @Benchmark
+    public int ndjsonItems() throws JsonProcessingException {
+        int bytes = 0;
+        for (DebitCardResponseDto card : cards) {
+            bytes += itemWriter.writeValueAsBytes(card).length + 1;
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,156 @@
+package com.bm_nttdata.debitcard_ms.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.bm_nttdata.debitcard_ms.model.DebitCardRequestDto;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+
+/**
+ * Benchmark del coste de logging por solicitud en el hilo que atiende la petición.
+ * Compara las dos líneas INFO que el controlador escribía por solicitud con la línea DEBUG
+ * deshabilitada y con el log de acceso muestreado, usando un appender síncrono o asíncrono
+ * con el mismo patrón que logback-spring.xml. La salida se descarta para medir el formateo
+ * y la contención del appender sin depender del disco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PATTERN =
+            "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+
+    private static final double ACCESS_LOG_SAMPLE_RATE = 0.01;
+
+    @Param({"SYNC", "ASYNC"})
+    private String appender;
+
+    private LoggerContext context;
+
+    private Logger logger;
+
+    private Logger accessLogger;
+
+    private Mono<DebitCardRequestDto> request;
+
+    /**
+     * Configura un contexto de Logback independiente con el appender indicado.
+     */
+    @Setup
+    public void setUp() {
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(context);
+        output.setName("OUTPUT");
+        output.setEncoder(encoder);
+        output.setOutputStream(new DiscardingOutputStream());
+        output.start();
+
+        Appender<ILoggingEvent> root = output;
+        if ("ASYNC".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setName("ASYNC");
+            async.setQueueSize(8192);
+            // Bloquear con la cola llena evita inflar el resultado descartando eventos
+            async.setNeverBlock(false);
+            async.setIncludeCallerData(false);
+            async.addAppender(output);
+            async.start();
+            root = async;
+        }
+
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        rootLogger.setLevel(Level.INFO);
+        rootLogger.addAppender(root);
+        logger = context.getLogger("com.bm_nttdata.debitcard_ms.controller.DebitCardController");
+        accessLogger = context.getLogger("debitcard.access");
+        request = Mono.just(
+                new DebitCardRequestDto().customerId("cus-1").primaryAccountId("acc-1"));
+    }
+
+    /**
+     * Detiene el contexto de Logback, vaciando la cola del appender asíncrono.
+     */
+    @TearDown
+    public void tearDown() {
+        context.stop();
+    }
+
+    /**
+     * Logs por solicitud escritos previamente por el controlador al crear una tarjeta.
+     */
+    @Benchmark
+    public void perRequestInfo() {
+        logger.info("Creating debit card: {}", request);
+        logger.info("Debit card created successfully");
+    }
+
+    /**
+     * Log de entrada actual, en DEBUG y deshabilitado con el nivel por defecto.
+     */
+    @Benchmark
+    public void perRequestDebugDisabled() {
+        logger.debug("Creating debit card");
+    }
+
+    /**
+     * Log de acceso muestreado con la tasa por defecto.
+     */
+    @Benchmark
+    public void sampledAccessLog() {
+        logger.debug("Creating debit card");
+        if (ThreadLocalRandom.current().nextDouble() < ACCESS_LOG_SAMPLE_RATE) {
+            accessLogger.info("{} {} {} {} {}ms",
+                    "createDebitCard", "POST", "/debit-cards", 201, 12L);
+        }
+    }
+
+    private static final class DiscardingOutputStream extends OutputStream {
+
+        private final LongAdder bytes = new LongAdder();
+
+        @Override
+        public void write(int b) {
+            bytes.increment();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes.add(len);
+        }
+    }
+}
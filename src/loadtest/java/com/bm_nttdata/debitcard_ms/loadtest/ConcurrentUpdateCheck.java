@@ -0,0 +1,139 @@
+package com.bm_nttdata.debitcard_ms.loadtest;
+
+import com.bm_nttdata.debitcard_ms.loadtest.LoadTestDataset.SeededCard;
+import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Comprobación de actualizaciones perdidas en las cuentas de una tarjeta. Para cada
+ * tarjeta se lanzan a la vez varias asociaciones de cuentas distintas y varios cambios de
+ * cuenta principal; después se lee la tarjeta y se cuentan las asociaciones confirmadas que
+ * no aparecen y los cambios de cuenta principal confirmados cuyo resultado no es ninguno
+ * de los solicitados.
+ */
+final class ConcurrentUpdateCheck {
+
+    private static final int PRIMARY_UPDATES_PER_CARD = 2;
+
+    private final WebClient client;
+
+    private final int associationsPerCard;
+
+    ConcurrentUpdateCheck(WebClient client, int associationsPerCard) {
+        this.client = client;
+        this.associationsPerCard = associationsPerCard;
+    }
+
+    /**
+     * Ejecuta la comprobación sobre las tarjetas indicadas, de una en una.
+     *
+     * @param cards Tarjetas sobre las que se lanzan las escrituras concurrentes
+     * @return Resultado agregado de la comprobación
+     */
+    Result run(List<SeededCard> cards) {
+        return Flux.fromIterable(cards)
+                .concatMap(this::race)
+                .reduce(new Result(0, 0, 0, 0, 0), Result::plus)
+                .block();
+    }
+
+    private Mono<Result> race(SeededCard card) {
+        List<String> associations = IntStream.rangeClosed(1, associationsPerCard)
+                .mapToObj(n -> LoadTestDataset.accountId(card.customer(), n))
+                .toList();
+        List<String> primaries = IntStream.range(0, PRIMARY_UPDATES_PER_CARD)
+                .mapToObj(n -> LoadTestDataset.accountId(
+                        card.customer(), associationsPerCard + 1 + n))
+                .toList();
+
+        List<Mono<Write>> writes = new ArrayList<>();
+        associations.forEach(accountId -> writes.add(write(accountId, false, client.post()
+                .uri("/debit-cards/{cardId}/accounts", card.cardId()))));
+        primaries.forEach(accountId -> writes.add(write(accountId, true, client.put()
+                .uri("/debit-cards/{cardId}/accounts/primary", card.cardId()))));
+
+        return Flux.merge(writes)
+                .collectList()
+                .flatMap(results -> client.get()
+                        .uri("/debit-cards/{cardId}", card.cardId())
+                        .retrieve()
+                        .bodyToMono(DebitCardResponseDto.class)
+                        .map(current -> evaluate(results, current)));
+    }
+
+    private Mono<Write> write(
+            String accountId, boolean primary, WebClient.RequestBodySpec request) {
+        return request
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("accountId", accountId))
+                .exchangeToMono(response -> response.releaseBody()
+                        .thenReturn(new Write(accountId, primary, response.statusCode().value())));
+    }
+
+    private static Result evaluate(List<Write> writes, DebitCardResponseDto current) {
+        List<String> associated = current.getAssociatedAccountIds() == null
+                ? List.of()
+                : current.getAssociatedAccountIds();
+        int conflicts = 0;
+        int failures = 0;
+        int lostAssociations = 0;
+        boolean primaryApplied = false;
+        boolean primaryConfirmed = false;
+        for (Write write : writes) {
+            if (write.status() == HttpStatus.CONFLICT.value()) {
+                conflicts++;
+            } else if (write.status() != HttpStatus.OK.value()) {
+                failures++;
+            } else if (write.primary()) {
+                primaryConfirmed = true;
+                primaryApplied |= write.accountId().equals(current.getPrimaryAccountId());
+            } else if (!associated.contains(write.accountId())) {
+                lostAssociations++;
+            }
+        }
+        int lostPrimaryUpdates = primaryConfirmed && !primaryApplied ? 1 : 0;
+        return new Result(writes.size(), conflicts, failures, lostAssociations,
+                lostPrimaryUpdates);
+    }
+
+    private record Write(String accountId, boolean primary, int status) {
+    }
+
+    /**
+     * Resultado de la comprobación de actualizaciones perdidas.
+     *
+     * @param writes Escrituras lanzadas
+     * @param conflicts Escrituras rechazadas con 409 por modificación concurrente
+     * @param failures Escrituras fallidas por otros motivos
+     * @param lostAssociations Asociaciones confirmadas que no aparecen en la tarjeta
+     * @param lostPrimaryUpdates Tarjetas cuya cuenta principal no es ninguna de las
+     *                           confirmadas
+     */
+    record Result(int writes, int conflicts, int failures, int lostAssociations,
+                  int lostPrimaryUpdates) {
+
+        Result plus(Result other) {
+            return new Result(writes + other.writes, conflicts + other.conflicts,
+                    failures + other.failures, lostAssociations + other.lostAssociations,
+                    lostPrimaryUpdates + other.lostPrimaryUpdates);
+        }
+
+        int lostUpdates() {
+            return lostAssociations + lostPrimaryUpdates;
+        }
+
+        String format() {
+            return String.format("Concurrent updates: writes=%d conflicts=%d failures=%d "
+                            + "lostAssociations=%d lostPrimaryUpdates=%d",
+                    writes, conflicts, failures, lostAssociations, lostPrimaryUpdates);
+        }
+    }
+}
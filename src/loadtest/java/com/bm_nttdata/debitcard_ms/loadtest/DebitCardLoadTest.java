@@ -0,0 +1,157 @@
+package com.bm_nttdata.debitcard_ms.loadtest;
+
+import com.bm_nttdata.debitcard_ms.DebitCardMsApplication;
+import com.bm_nttdata.debitcard_ms.loadtest.LoadTestDataset.SeededCard;
+import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.util.retry.Retry;
+
+/**
+ * Prueba de carga de extremo a extremo del microservicio. Arranca la aplicación contra
+ * una base de datos en memoria y servidores locales que sustituyen a account-ms,
+ * customer-ms y credit-ms (con latencia y errores configurables), siembra una tarjeta
+ * por cliente y ejecuta una carga de tasa constante sobre las operaciones del API.
+ * La prueba falla si se supera alguno de los presupuestos de latencia configurados o si la
+ * comprobación de escrituras concurrentes detecta actualizaciones perdidas.
+ * Ejecutar con {@code mvn -Ploadtest verify -DskipTests}.
+ */
+@Slf4j
+public final class DebitCardLoadTest {
+
+    private static final int SEED_CONCURRENCY = 16;
+
+    // Tolera los tiempos agotados de las primeras llamadas con la JVM en frío, incluso si
+    // abren el circuito de createDebitCard (30 s abierto antes de admitir nuevas llamadas)
+    private static final int SEED_RETRIES = 15;
+
+    private static final Duration SEED_RETRY_DELAY = Duration.ofSeconds(3);
+
+    private DebitCardLoadTest() {
+    }
+
+    /**
+     * Punto de entrada de la prueba de carga.
+     *
+     * @param args Parámetros adicionales con el formato {@code loadtest.clave=valor}
+     * @throws IOException si no se puede escribir el informe
+     */
+    public static void main(String[] args) throws IOException {
+        LoadTestSettings settings = LoadTestSettings.from(args);
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(2_000)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try (InProcessMongo mongo = InProcessMongo.start(settings.mongoUri());
+                DownstreamStub accountService = DownstreamStub.accountService(settings);
+                DownstreamStub customerService = DownstreamStub.customerService(settings);
+                DownstreamStub creditService = DownstreamStub.creditService(settings);
+                ConfigurableApplicationContext application = startApplication(settings,
+                        mongo, List.of(accountService, customerService, creditService))) {
+
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            WebClient client = WebClient.builder()
+                    .baseUrl("http://localhost:" + port + "/api/v1")
+                    .clientConnector(new ReactorClientHttpConnector(
+                            HttpClient.create(connectionProvider)))
+                    .build();
+
+            LoadTestDataset dataset = seed(client, settings);
+            for (DownstreamStub stub : List.of(accountService, customerService, creditService)) {
+                settings.downstreamOutageAfter(stub.getServiceName())
+                        .ifPresent(stub::scheduleOutage);
+            }
+            LoadTestReport report = new OpenModelLoadGenerator(client, dataset, settings.mix())
+                    .run(settings.rate(), settings.warmup(), settings.duration());
+
+            String text = report.format();
+            List<String> violations = new ArrayList<>(report.check(settings.latencyBudgets()));
+            if (settings.concurrentUpdateCards() > 0) {
+                ConcurrentUpdateCheck.Result result = new ConcurrentUpdateCheck(
+                        client, settings.concurrentUpdateAssociations())
+                        .run(dataset.firstCards(settings.concurrentUpdateCards()));
+                text = text + System.lineSeparator() + result.format() + System.lineSeparator();
+                if (result.lostUpdates() > 0) {
+                    violations.add(result.lostUpdates() + " lost concurrent updates");
+                }
+            }
+            System.out.println(text);
+            Path reportPath = Path.of(settings.report());
+            Files.createDirectories(reportPath.toAbsolutePath().getParent());
+            Files.writeString(reportPath, text);
+            log.info("Load test report written to {}", reportPath.toAbsolutePath());
+
+            if (!violations.isEmpty()) {
+                throw new IllegalStateException(
+                        "Load test checks failed: " + String.join(", ", violations));
+            }
+        } finally {
+            connectionProvider.dispose();
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(
+            LoadTestSettings settings, InProcessMongo mongo, List<DownstreamStub> stubs) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.profiles.active=local",
+                "--spring.data.mongodb.uri=" + mongo.getUri(),
+                "--spring.cloud.config.enabled=false",
+                "--eureka.client.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.bm_nttdata.debitcard_ms.loadtest=INFO"));
+        for (DownstreamStub stub : stubs) {
+            args.add("--spring.cloud.discovery.client.simple.instances."
+                    + stub.getServiceName() + "[0].uri=" + stub.getUri());
+        }
+        args.addAll(settings.applicationArgs());
+        return new SpringApplicationBuilder(DebitCardMsApplication.class)
+                .run(args.toArray(String[]::new));
+    }
+
+    private static LoadTestDataset seed(WebClient client, LoadTestSettings settings) {
+        int customers = settings.customers();
+        log.info("Seeding {} debit cards", customers);
+        List<SeededCard> cards = Flux.range(0, customers)
+                .flatMap(customer -> client.post()
+                        .uri("/debit-cards")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Map.of(
+                                "customerId", LoadTestDataset.customerId(customer),
+                                "primaryAccountId", LoadTestDataset.accountId(customer, 0)))
+                        .retrieve()
+                        .bodyToMono(DebitCardResponseDto.class)
+                        .retryWhen(Retry.fixedDelay(SEED_RETRIES, SEED_RETRY_DELAY))
+                        .flatMap(card -> Flux.range(1, settings.associatedAccounts())
+                                .concatMap(account -> client.post()
+                                        .uri("/debit-cards/{cardId}/accounts", card.getId())
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .bodyValue(Map.of("accountId",
+                                                LoadTestDataset.accountId(customer, account)))
+                                        .retrieve()
+                                        .toBodilessEntity()
+                                        .retryWhen(Retry.fixedDelay(
+                                                SEED_RETRIES, SEED_RETRY_DELAY)))
+                                .then(Mono.just(new SeededCard(card.getId(), customer)))),
+                        SEED_CONCURRENCY)
+                .collectList()
+                .block();
+        return new LoadTestDataset(cards, customers, settings.accountsPerCustomer());
+    }
+}
@@ -0,0 +1,195 @@
+package com.bm_nttdata.debitcard_ms.loadtest;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+import reactor.netty.http.server.HttpServerRoutes;
+
+/**
+ * Servidor HTTP local que sustituye a un microservicio externo (account-ms, customer-ms
+ * o credit-ms) durante las pruebas de carga. Cada respuesta se retrasa con la latencia
+ * configurada más un margen aleatorio y puede fallar con un 503 según la tasa de errores,
+ * o con todas las solicitudes a partir de una caída programada.
+ */
+@Slf4j
+final class DownstreamStub implements AutoCloseable {
+
+    private static final Pattern ACCOUNT_ID = Pattern.compile("acc-[0-9]+-[0-9]+");
+
+    private final String serviceName;
+
+    private final Routes routes;
+
+    private final DisposableServer server;
+
+    private DownstreamStub(
+            String serviceName, LoadTestSettings settings, Consumer<Routes> routes) {
+        this.serviceName = serviceName;
+        this.routes = new Routes(
+                settings.downstreamLatency(serviceName),
+                settings.downstreamJitter(serviceName),
+                settings.downstreamErrorRate(serviceName));
+        this.server = HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .protocol(HttpProtocol.HTTP11, HttpProtocol.H2C)
+                .route(serverRoutes -> {
+                    this.routes.serverRoutes = serverRoutes;
+                    routes.accept(this.routes);
+                })
+                .bindNow();
+        log.info("Stub {} listening on port {} (latency {}, jitter {}, error rate {})",
+                serviceName, server.port(), this.routes.latency, this.routes.jitter,
+                this.routes.errorRate);
+    }
+
+    /**
+     * Sustituto de account-ms. Los identificadores de cuenta siguen el formato
+     * {@code acc-<cliente>-<n>}, de modo que cada cuenta pertenece al cliente
+     * {@code cus-<cliente>}; el saldo de cada cuenta depende de {@code n}. Incluye el
+     * endpoint de consulta de saldos por lotes.
+     */
+    static DownstreamStub accountService(LoadTestSettings settings) {
+        return new DownstreamStub("account-ms", settings, routes -> routes
+                .get("/api/v1/accounts/{accountId}/balance", DownstreamStub::balanceJson)
+                .post("/api/v1/accounts/balances:batchGet", request -> {
+                    Matcher matcher = ACCOUNT_ID.matcher(request);
+                    StringJoiner balances = new StringJoiner(",", "[", "]");
+                    while (matcher.find()) {
+                        balances.add(balanceJson(matcher.group()));
+                    }
+                    return balances.toString();
+                })
+                .get("/api/v1/accounts/{accountId}", accountId ->
+                        "{\"id\":\"" + accountId + "\",\"customerId\":\""
+                                + LoadTestDataset.customerOf(accountId) + "\","
+                                + "\"accountType\":\"SAVINGS\","
+                                + "\"accountNumber\":\"191" + Math.abs(accountId.hashCode())
+                                + "\",\"balance\":1500.00}"));
+    }
+
+    private static String balanceJson(String accountId) {
+        return "{\"accountId\":\"" + accountId + "\",\"balance\":"
+                + LoadTestDataset.balanceOf(accountId) + ","
+                + "\"lastUpdateDate\":\"" + OffsetDateTime.now() + "\"}";
+    }
+
+    /**
+     * Sustituto de customer-ms.
+     */
+    static DownstreamStub customerService(LoadTestSettings settings) {
+        return new DownstreamStub("customer-ms", settings, routes -> routes
+                .get("/api/v1/customers/{customerId}", customerId ->
+                        "{\"id\":\"" + customerId + "\",\"customerType\":\"PERSONAL\"}"));
+    }
+
+    /**
+     * Sustituto de credit-ms: ningún cliente tiene deudas vencidas.
+     */
+    static DownstreamStub creditService(LoadTestSettings settings) {
+        return new DownstreamStub("credit-ms", settings, routes -> routes
+                .get("/api/v1/credits/customer/{customerId}/debts", customerId -> "false")
+                .get("/api/v1/credit-cards/customer/{customerId}/debts", customerId -> "false"));
+    }
+
+    /**
+     * Programa una caída del servicio: transcurrido el tiempo indicado, todas las
+     * solicitudes responden con un 503.
+     */
+    void scheduleOutage(Duration after) {
+        Mono.delay(after).subscribe(tick -> {
+            routes.outage = true;
+            log.info("Stub {} is now unavailable", serviceName);
+        });
+    }
+
+    String getServiceName() {
+        return serviceName;
+    }
+
+    String getUri() {
+        return "http://localhost:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    /**
+     * Registro de rutas GET con una única variable de ruta y de rutas POST que reciben el
+     * cuerpo de la solicitud.
+     */
+    static final class Routes {
+
+        private final Duration latency;
+
+        private final Duration jitter;
+
+        private final double errorRate;
+
+        private HttpServerRoutes serverRoutes;
+
+        private volatile boolean outage;
+
+        private Routes(Duration latency, Duration jitter, double errorRate) {
+            this.latency = latency;
+            this.jitter = jitter;
+            this.errorRate = errorRate;
+        }
+
+        Routes get(String template, Function<String, String> body) {
+            String variable = template.substring(
+                    template.lastIndexOf('{') + 1, template.lastIndexOf('}'));
+            serverRoutes.get(template, (request, response) ->
+                    respond(response, () -> body.apply(request.param(variable))));
+            return this;
+        }
+
+        Routes post(String path, Function<String, String> body) {
+            serverRoutes.post(path, (request, response) -> request.receive()
+                    .aggregate()
+                    .asString()
+                    .defaultIfEmpty("")
+                    .flatMap(content -> respond(response, () -> body.apply(content))));
+            return this;
+        }
+
+        private Mono<Void> respond(HttpServerResponse response, Supplier<String> body) {
+            return Mono.delay(nextDelay())
+                    .then(Mono.defer(() -> {
+                        if (outage
+                                || ThreadLocalRandom.current().nextDouble() < errorRate) {
+                            return response.status(HttpResponseStatus.SERVICE_UNAVAILABLE)
+                                    .send();
+                        }
+                        return response
+                                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                                .sendString(Mono.just(body.get()))
+                                .then();
+                    }));
+        }
+
+        private Duration nextDelay() {
+            long jitterNanos = jitter.toNanos();
+            long extra = jitterNanos > 0
+                    ? ThreadLocalRandom.current().nextLong(jitterNanos + 1)
+                    : 0L;
+            return latency.plusNanos(extra);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.bm_nttdata.debitcard_ms.loadtest;
+
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Base de datos utilizada por la prueba de carga: un servidor compatible con el
+ * protocolo de MongoDB en memoria dentro del mismo proceso, o una instancia externa
+ * si se indica {@code loadtest.mongo.uri}.
+ */
+@Slf4j
+final class InProcessMongo implements AutoCloseable {
+
+    private static final String DATABASE = "debitcard_loadtest";
+
+    private final MongoServer server;
+
+    private final String uri;
+
+    private InProcessMongo(MongoServer server, String uri) {
+        this.server = server;
+        this.uri = uri;
+    }
+
+    /**
+     * Inicia el servidor en memoria, salvo que se indique una instancia externa.
+     *
+     * @param externalUri URI de una instancia externa de MongoDB, o null
+     * @return Base de datos lista para usarse
+     */
+    static InProcessMongo start(String externalUri) {
+        if (externalUri != null) {
+            log.info("Using external MongoDB at {}", externalUri);
+            return new InProcessMongo(null, externalUri);
+        }
+        MongoServer server = new MongoServer(new MemoryBackend());
+        server.bind("localhost", 0);
+        String uri = server.getConnectionString() + "/" + DATABASE;
+        log.info("In-process MongoDB listening at {}", uri);
+        return new InProcessMongo(server, uri);
+    }
+
+    String getUri() {
+        return uri;
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.bm_nttdata.debitcard_ms.loadtest;
+
+import com.bm_nttdata.debitcard_ms.loadtest.LoadTestDataset.SeededCard;
+import java.util.Map;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Operaciones de debitcard-ms-api.yml ejercitadas por la prueba de carga. Cada ejecución
+ * devuelve el código de estado HTTP de la respuesta.
+ */
+enum LoadOperation {
+
+    CREATE_DEBIT_CARD("createDebitCard") {
+        @Override
+        Mono<Integer> execute(WebClient client, LoadTestDataset dataset) {
+            int customer = dataset.randomCustomer();
+            return exchange(client.post()
+                    .uri("/debit-cards")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of(
+                            "customerId", LoadTestDataset.customerId(customer),
+                            "primaryAccountId", dataset.randomAccount(customer))));
+        }
+    },
+
+    GET_DEBIT_CARDS_BY_CUSTOMER("getDebitCardsByCustomer") {
+        @Override
+        Mono<Integer> execute(WebClient client, LoadTestDataset dataset) {
+            return exchange(client.get()
+                    .uri("/debit-cards?customerId={customerId}",
+                            LoadTestDataset.customerId(dataset.randomCustomer())));
+        }
+    },
+
+    GET_DEBIT_CARD("getDebitCard") {
+        @Override
+        Mono<Integer> execute(WebClient client, LoadTestDataset dataset) {
+            return exchange(client.get()
+                    .uri("/debit-cards/{cardId}", dataset.randomCard().cardId()));
+        }
+    },
+
+    ASSOCIATE_ACCOUNT("associateAccount") {
+        @Override
+        Mono<Integer> execute(WebClient client, LoadTestDataset dataset) {
+            SeededCard card = dataset.randomCard();
+            return exchange(client.post()
+                    .uri("/debit-cards/{cardId}/accounts", card.cardId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("accountId", dataset.randomAccount(card.customer()))));
+        }
+    },
+
+    UPDATE_PRIMARY_ACCOUNT("updatePrimaryAccount") {
+        @Override
+        Mono<Integer> execute(WebClient client, LoadTestDataset dataset) {
+            SeededCard card = dataset.randomCard();
+            return exchange(client.put()
+                    .uri("/debit-cards/{cardId}/accounts/primary", card.cardId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("accountId", dataset.randomAccount(card.customer()))));
+        }
+    },
+
+    GET_PRIMARY_ACCOUNT_BALANCE("getPrimaryAccountBalance") {
+        @Override
+        Mono<Integer> execute(WebClient client, LoadTestDataset dataset) {
+            return exchange(client.get()
+                    .uri("/debit-cards/{cardId}/balance", dataset.randomCard().cardId()));
+        }
+    },
+
+    GET_DEBIT_CARD_BALANCES("getDebitCardBalances") {
+        @Override
+        Mono<Integer> execute(WebClient client, LoadTestDataset dataset) {
+            return exchange(client.get()
+                    .uri("/debit-cards/{cardId}/balances", dataset.randomCard().cardId()));
+        }
+    },
+
+    AUTHORIZE_DEBIT_CARD("authorizeDebitCard") {
+        @Override
+        Mono<Integer> execute(WebClient client, LoadTestDataset dataset) {
+            return exchange(client.post()
+                    .uri("/debit-cards/{cardId}/authorizations", dataset.randomCard().cardId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(Map.of("amount", dataset.randomAmount())));
+        }
+    };
+
+    private final String operationId;
+
+    LoadOperation(String operationId) {
+        this.operationId = operationId;
+    }
+
+    String getOperationId() {
+        return operationId;
+    }
+
+    abstract Mono<Integer> execute(WebClient client, LoadTestDataset dataset);
+
+    /**
+     * Busca una operación por su operationId de la especificación OpenAPI.
+     *
+     * @param operationId Identificador de la operación
+     * @return Operación correspondiente
+     */
+    static LoadOperation fromOperationId(String operationId) {
+        for (LoadOperation operation : values()) {
+            if (operation.operationId.equals(operationId)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operationId: " + operationId);
+    }
+
+    private static Mono<Integer> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.releaseBody()
+                .thenReturn(response.statusCode().value()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.bm_nttdata.debitcard_ms.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Datos sembrados antes de la prueba de carga: una tarjeta por cliente, con sus cuentas
+ * asociadas, y un conjunto de cuentas simuladas por cliente.
+ */
+final class LoadTestDataset {
+
+    private static final int BALANCE_STEP = 500;
+
+    private final List<SeededCard> cards;
+
+    private final int customers;
+
+    private final int accountsPerCustomer;
+
+    LoadTestDataset(List<SeededCard> cards, int customers, int accountsPerCustomer) {
+        this.cards = List.copyOf(cards);
+        this.customers = customers;
+        this.accountsPerCustomer = accountsPerCustomer;
+    }
+
+    static String customerId(int customer) {
+        return String.format("cus-%05d", customer);
+    }
+
+    static String accountId(int customer, int account) {
+        return String.format("acc-%05d-%d", customer, account);
+    }
+
+    /**
+     * Saldo de una cuenta simulada: 500 por el resto de dividir su número entre 4, de modo
+     * que la cuenta principal sembrada ({@code n = 0}) no tiene saldo y las autorizaciones
+     * deben recurrir a las cuentas asociadas.
+     *
+     * @param accountId Identificador con el formato {@code acc-<cliente>-<n>}
+     * @return Saldo de la cuenta
+     */
+    static int balanceOf(String accountId) {
+        String number = accountId.substring(accountId.lastIndexOf('-') + 1);
+        try {
+            return BALANCE_STEP * (Integer.parseInt(number) % 4);
+        } catch (NumberFormatException e) {
+            return BALANCE_STEP;
+        }
+    }
+
+    /**
+     * Obtiene el cliente propietario de una cuenta simulada.
+     *
+     * @param accountId Identificador con el formato {@code acc-<cliente>-<n>}
+     * @return Identificador del cliente propietario
+     */
+    static String customerOf(String accountId) {
+        int end = accountId.lastIndexOf('-');
+        return end > 4 ? "cus-" + accountId.substring(4, end) : "cus-00000";
+    }
+
+    int size() {
+        return cards.size();
+    }
+
+    List<SeededCard> firstCards(int count) {
+        return cards.subList(0, Math.min(count, cards.size()));
+    }
+
+    SeededCard randomCard() {
+        return cards.get(ThreadLocalRandom.current().nextInt(cards.size()));
+    }
+
+    int randomCustomer() {
+        return ThreadLocalRandom.current().nextInt(customers);
+    }
+
+    String randomAccount(int customer) {
+        return accountId(customer, ThreadLocalRandom.current().nextInt(accountsPerCustomer));
+    }
+
+    /**
+     * Importe de una autorización, entre 1 y 1600: la mayoría se cubren con la primera o
+     * la segunda cuenta asociada y una pequeña parte se rechaza por saldo insuficiente.
+     */
+    int randomAmount() {
+        return ThreadLocalRandom.current().nextInt(1, 1601);
+    }
+
+    /**
+     * Tarjeta creada durante la siembra.
+     *
+     * @param cardId Identificador de la tarjeta
+     * @param customer Índice del cliente propietario
+     */
+    record SeededCard(String cardId, int customer) {
+    }
+}
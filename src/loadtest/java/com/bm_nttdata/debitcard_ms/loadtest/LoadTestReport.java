@@ -0,0 +1,118 @@
+package com.bm_nttdata.debitcard_ms.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Informe de la prueba de carga: solicitudes, errores, rendimiento y percentiles de
+ * latencia (p50, p99, p99.9) por operación.
+ */
+final class LoadTestReport {
+
+    private static final String ROW_FORMAT = "%-26s %9d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n";
+
+    private final int rate;
+
+    private final Duration elapsed;
+
+    private final long maxInFlight;
+
+    private final List<Row> rows = new ArrayList<>();
+
+    LoadTestReport(int rate, Duration elapsed, long maxInFlight) {
+        this.rate = rate;
+        this.elapsed = elapsed;
+        this.maxInFlight = maxInFlight;
+    }
+
+    void add(String operationId, Histogram latencies, long errors) {
+        rows.add(new Row(operationId, latencies, errors));
+    }
+
+    /**
+     * Da formato de tabla al informe. Las latencias se expresan en milisegundos.
+     *
+     * @return Informe en texto plano
+     */
+    String format() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format(Locale.ROOT,
+                "Target rate: %d req/s, measured window: %.1f s, max in flight: %d%n%n",
+                rate, seconds(), maxInFlight));
+        report.append(String.format(Locale.ROOT, "%-26s %9s %8s %10s %9s %9s %9s %9s%n",
+                "operation", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms",
+                "max ms"));
+        Histogram total = OpenModelLoadGenerator.emptyHistogram();
+        long totalErrors = 0;
+        for (Row row : rows) {
+            appendRow(report, row.operationId(), row.latencies(), row.errors());
+            total.add(row.latencies());
+            totalErrors += row.errors();
+        }
+        appendRow(report, "TOTAL", total, totalErrors);
+        return report.toString();
+    }
+
+    /**
+     * Comprueba los presupuestos de latencia contra los percentiles medidos.
+     *
+     * @param budgets Presupuestos de latencia por operación y percentil
+     * @return Descripción de cada presupuesto superado, vacía si se cumplen todos
+     */
+    List<String> check(List<LoadTestSettings.LatencyBudget> budgets) {
+        List<String> violations = new ArrayList<>();
+        for (LoadTestSettings.LatencyBudget budget : budgets) {
+            Histogram latencies = rows.stream()
+                    .filter(row -> row.operationId().equals(budget.operationId()))
+                    .map(Row::latencies)
+                    .findFirst()
+                    .orElse(null);
+            if (latencies == null || latencies.getTotalCount() == 0) {
+                violations.add(budget.operationId() + ": no requests measured");
+                continue;
+            }
+            long measured = latencies.getValueAtPercentile(budget.percentile());
+            if (measured > TimeUnit.NANOSECONDS.toMicros(budget.limit().toNanos())) {
+                violations.add(String.format(Locale.ROOT, "%s: p%s %.2f ms > %d ms",
+                        budget.operationId(), percentileLabel(budget.percentile()),
+                        measured / 1000.0,
+                        budget.limit().toMillis()));
+            }
+        }
+        return violations;
+    }
+
+    private void appendRow(StringBuilder report, String name, Histogram latencies, long errors) {
+        long count = latencies.getTotalCount();
+        report.append(String.format(Locale.ROOT, ROW_FORMAT,
+                name,
+                count,
+                errors,
+                count / seconds(),
+                millis(latencies, 50.0),
+                millis(latencies, 99.0),
+                millis(latencies, 99.9),
+                latencies.getMaxValue() / 1000.0));
+    }
+
+    private static String percentileLabel(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile)
+                : String.valueOf(percentile);
+    }
+
+    private double seconds() {
+        return elapsed.toNanos() / 1_000_000_000.0;
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private record Row(String operationId, Histogram latencies, long errors) {
+    }
+}
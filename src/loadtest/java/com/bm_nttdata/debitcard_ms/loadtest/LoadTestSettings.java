@@ -0,0 +1,218 @@
+package com.bm_nttdata.debitcard_ms.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Parámetros de la prueba de carga. Se leen de las propiedades del sistema
+ * ({@code -Dloadtest.*}) y pueden sobrescribirse con argumentos {@code clave=valor}.
+ * La latencia y la tasa de errores de los servicios simulados admiten un valor
+ * global ({@code loadtest.downstream.latency}) y uno por servicio
+ * ({@code loadtest.downstream.credit-ms.latency}). Las propiedades con el prefijo
+ * {@code loadtest.app.} se pasan a la aplicación, por ejemplo
+ * {@code loadtest.app.debitcard.cache.validation.enabled=false}. Las propiedades con el
+ * prefijo {@code loadtest.budget.} definen presupuestos de latencia que hacen fallar la
+ * prueba si se superan, por ejemplo {@code loadtest.budget.createDebitCard.p50=150ms}.
+ * Un servicio simulado puede dejar de responder por completo pasado un tiempo desde el
+ * inicio de la carga, por ejemplo {@code loadtest.downstream.account-ms.outage-after=20s}.
+ * Con {@code loadtest.concurrent-updates.cards} se comprueba al final que las escrituras
+ * concurrentes sobre una misma tarjeta no pierden actualizaciones.
+ */
+final class LoadTestSettings {
+
+    private static final String PREFIX = "loadtest.";
+
+    private static final String APPLICATION_PREFIX = PREFIX + "app.";
+
+    private static final String BUDGET_PREFIX = PREFIX + "budget.";
+
+    private static final String DEFAULT_MIX = "getDebitCard:30,getPrimaryAccountBalance:25,"
+            + "getDebitCardsByCustomer:20,createDebitCard:10,associateAccount:10,"
+            + "updatePrimaryAccount:5";
+
+    private final Properties properties;
+
+    private LoadTestSettings(Properties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Construye la configuración a partir de las propiedades del sistema y de los
+     * argumentos de la línea de comandos.
+     *
+     * @param args Argumentos con el formato {@code loadtest.clave=valor}
+     * @return Configuración de la prueba de carga
+     */
+    static LoadTestSettings from(String[] args) {
+        Properties properties = new Properties();
+        System.getProperties().forEach((key, value) -> {
+            if (key.toString().startsWith(PREFIX) && !value.toString().isBlank()) {
+                properties.put(key, value);
+            }
+        });
+        for (String arg : args) {
+            for (String token : arg.trim().split("\\s+")) {
+                int separator = token.indexOf('=');
+                if (separator > 0) {
+                    properties.put(token.substring(0, separator), token.substring(separator + 1));
+                }
+            }
+        }
+        return new LoadTestSettings(properties);
+    }
+
+    /**
+     * Tasa de llegada constante de solicitudes por segundo (modelo abierto).
+     */
+    int rate() {
+        return Integer.parseInt(get("rate", "200"));
+    }
+
+    Duration warmup() {
+        return duration("warmup", "15s");
+    }
+
+    Duration duration() {
+        return duration("duration", "60s");
+    }
+
+    /**
+     * Número de clientes con tarjeta que se crean antes de iniciar la carga.
+     */
+    int customers() {
+        return Integer.parseInt(get("customers", "100"));
+    }
+
+    /**
+     * Número de cuentas simuladas por cliente.
+     */
+    int accountsPerCustomer() {
+        return Integer.parseInt(get("accounts-per-customer", "20"));
+    }
+
+    /**
+     * Número de cuentas asociadas a cada tarjeta sembrada, además de la principal.
+     */
+    int associatedAccounts() {
+        return Integer.parseInt(get("associated-accounts", "0"));
+    }
+
+    /**
+     * Número de tarjetas sembradas sobre las que, al terminar la carga, se comprueba que
+     * las escrituras concurrentes de cuentas no pierden actualizaciones; 0 la desactiva.
+     */
+    int concurrentUpdateCards() {
+        return Integer.parseInt(get("concurrent-updates.cards", "0"));
+    }
+
+    /**
+     * Número de asociaciones de cuentas lanzadas a la vez sobre cada tarjeta en la
+     * comprobación de actualizaciones perdidas.
+     */
+    int concurrentUpdateAssociations() {
+        return Integer.parseInt(get("concurrent-updates.associations", "8"));
+    }
+
+    /**
+     * URI de una instancia externa de MongoDB; si no se indica se usa un servidor
+     * compatible en memoria dentro del mismo proceso.
+     */
+    String mongoUri() {
+        return get("mongo.uri", null);
+    }
+
+    String report() {
+        return get("report", "target/loadtest-report.txt");
+    }
+
+    /**
+     * Reparto de las operaciones en la carga, como pesos relativos por operationId.
+     */
+    Map<String, Integer> mix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : get("mix", DEFAULT_MIX).split(",")) {
+            String[] parts = entry.trim().split(":");
+            mix.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return mix;
+    }
+
+    /**
+     * Propiedades adicionales de la aplicación como argumentos de línea de comandos.
+     */
+    List<String> applicationArgs() {
+        return properties.stringPropertyNames().stream()
+                .filter(key -> key.startsWith(APPLICATION_PREFIX))
+                .sorted()
+                .map(key -> "--" + key.substring(APPLICATION_PREFIX.length()) + "="
+                        + properties.getProperty(key))
+                .toList();
+    }
+
+    /**
+     * Presupuestos de latencia por operación y percentil ({@code p50}, {@code p99},
+     * {@code p999}).
+     */
+    List<LatencyBudget> latencyBudgets() {
+        return properties.stringPropertyNames().stream()
+                .filter(key -> key.startsWith(BUDGET_PREFIX))
+                .sorted()
+                .map(key -> {
+                    String budget = key.substring(BUDGET_PREFIX.length());
+                    int separator = budget.lastIndexOf(".p");
+                    return new LatencyBudget(
+                            budget.substring(0, separator),
+                            percentile(budget.substring(separator + 2)),
+                            DurationStyle.detectAndParse(properties.getProperty(key)));
+                })
+                .toList();
+    }
+
+    Duration downstreamLatency(String service) {
+        return DurationStyle.detectAndParse(
+                downstream(service, "latency", "20ms"));
+    }
+
+    Duration downstreamJitter(String service) {
+        return DurationStyle.detectAndParse(
+                downstream(service, "jitter", "10ms"));
+    }
+
+    double downstreamErrorRate(String service) {
+        return Double.parseDouble(downstream(service, "error-rate", "0"));
+    }
+
+    Optional<Duration> downstreamOutageAfter(String service) {
+        return Optional.ofNullable(downstream(service, "outage-after", null))
+                .map(DurationStyle::detectAndParse);
+    }
+
+    private String downstream(String service, String key, String defaultValue) {
+        return get("downstream." + service + "." + key, get("downstream." + key, defaultValue));
+    }
+
+    private static double percentile(String digits) {
+        return digits.length() > 2
+                ? Double.parseDouble(digits.substring(0, 2) + "." + digits.substring(2))
+                : Double.parseDouble(digits);
+    }
+
+    private Duration duration(String key, String defaultValue) {
+        return DurationStyle.detectAndParse(get(key, defaultValue));
+    }
+
+    private String get(String key, String defaultValue) {
+        return properties.getProperty(PREFIX + key, defaultValue);
+    }
+
+    /**
+     * Latencia máxima admitida para un percentil de una operación.
+     */
+    record LatencyBudget(String operationId, double percentile, Duration limit) {
+    }
+}
@@ -0,0 +1,138 @@
+package com.bm_nttdata.debitcard_ms.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Generador de carga de modelo abierto: las solicitudes se emiten a una tasa de llegada
+ * constante, independientemente de cuántas sigan en curso. La latencia se mide desde el
+ * instante en que la solicitud debía emitirse, de modo que los retrasos del propio
+ * generador no ocultan la latencia real (omisión coordinada).
+ */
+@Slf4j
+final class OpenModelLoadGenerator {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final WebClient client;
+
+    private final LoadTestDataset dataset;
+
+    private final LoadOperation[] schedule;
+
+    private final Map<LoadOperation, Recorder> latencies = new EnumMap<>(LoadOperation.class);
+
+    private final Map<LoadOperation, LongAdder> errors = new EnumMap<>(LoadOperation.class);
+
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private final AtomicLong maxInFlight = new AtomicLong();
+
+    OpenModelLoadGenerator(WebClient client, LoadTestDataset dataset, Map<String, Integer> mix) {
+        this.client = client;
+        this.dataset = dataset;
+        List<LoadOperation> weighted = new ArrayList<>();
+        mix.forEach((operationId, weight) -> {
+            LoadOperation operation = LoadOperation.fromOperationId(operationId);
+            for (int i = 0; i < weight; i++) {
+                weighted.add(operation);
+            }
+            latencies.put(operation, new Recorder(SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        });
+        this.schedule = weighted.toArray(LoadOperation[]::new);
+    }
+
+    /**
+     * Ejecuta la fase de calentamiento, cuyos resultados se descartan, y la fase de medición.
+     *
+     * @param rate Solicitudes por segundo
+     * @param warmup Duración del calentamiento
+     * @param duration Duración de la medición
+     * @return Informe con la latencia y el rendimiento por operación
+     */
+    LoadTestReport run(int rate, Duration warmup, Duration duration) {
+        log.info("Warming up for {} at {} req/s", warmup, rate);
+        drive(rate, warmup);
+        awaitInFlight();
+        reset();
+
+        log.info("Measuring for {} at {} req/s", duration, rate);
+        long start = System.nanoTime();
+        drive(rate, duration);
+        awaitInFlight();
+        long elapsed = System.nanoTime() - start;
+
+        LoadTestReport report =
+                new LoadTestReport(rate, Duration.ofNanos(elapsed), maxInFlight.get());
+        latencies.forEach((operation, recorder) -> report.add(
+                operation.getOperationId(), recorder.getIntervalHistogram(),
+                errors.get(operation).sum()));
+        return report;
+    }
+
+    private void drive(int rate, Duration duration) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.toNanos() / interval;
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * interval;
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadOperation operation =
+                    schedule[ThreadLocalRandom.current().nextInt(schedule.length)];
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            operation.execute(client, dataset).subscribe(
+                    status -> complete(operation, intendedStart, status >= 200 && status < 300),
+                    error -> complete(operation, intendedStart, false));
+        }
+    }
+
+    private void complete(LoadOperation operation, long intendedStart, boolean success) {
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+        latencies.get(operation).recordValue(latencyMicros);
+        if (!success) {
+            errors.get(operation).increment();
+        }
+        inFlight.decrementAndGet();
+    }
+
+    private void awaitInFlight() {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        if (inFlight.get() > 0) {
+            log.warn("{} requests still in flight after {}", inFlight.get(), DRAIN_TIMEOUT);
+        }
+    }
+
+    private void reset() {
+        latencies.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+        maxInFlight.set(inFlight.get());
+    }
+
+    /**
+     * Histograma vacío con la misma precisión que los registradores.
+     */
+    static Histogram emptyHistogram() {
+        return new Histogram(SIGNIFICANT_DIGITS);
+    }
+}
@@ -0,0 +1,160 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Índice en memoria de cuenta bancaria a identificadores de tarjetas de débito que la
+ * referencian como cuenta principal o asociada.
+ * Una cuenta solo se encuentra en el índice cuando sus tarjetas se cargaron completas
+ * desde MongoDB; a partir de entonces se mantiene actualizada con cada asociación.
+ * Junto al índice se mantiene el índice inverso de tarjeta a cuentas indexadas, que se
+ * actualiza dentro de la misma operación atómica sobre la cuenta y se depura cuando una
+ * cuenta se desaloja, de modo que desvincular una tarjeta solo recorre sus cuentas.
+ */
+@Component
+public class AccountCardIndex {
+
+    private final boolean enabled;
+
+    private final Cache<String, Set<String>> cardIdsByAccount;
+
+    private final ConcurrentMap<String, Set<String>> accountIdsByCard = new ConcurrentHashMap<>();
+
+    /**
+     * Construye el índice de cuentas a tarjetas.
+     *
+     * @param properties Propiedades de configuración de las cachés
+     * @param meterRegistry Registro de métricas del índice
+     */
+    public AccountCardIndex(DebitCardCacheProperties properties, MeterRegistry meterRegistry) {
+        DebitCardCacheProperties.AccountIndex config = properties.getAccountIndex();
+        this.enabled = config.isEnabled();
+        this.cardIdsByAccount = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .<String, Set<String>>evictionListener((accountId, cardIds, cause) ->
+                        cardIds.forEach(cardId -> removeAccount(cardId, accountId)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cardIdsByAccount, "accountCardIndex");
+    }
+
+    /**
+     * Obtiene los identificadores de las tarjetas que referencian una cuenta.
+     *
+     * @param accountId Identificador de la cuenta
+     * @return Los identificadores de tarjetas, o vacío si la cuenta no está indexada
+     */
+    public Optional<Set<String>> getCardIds(String accountId) {
+        return enabled
+                ? Optional.ofNullable(cardIdsByAccount.getIfPresent(accountId))
+                : Optional.empty();
+    }
+
+    /**
+     * Registra el conjunto completo de tarjetas que referencian una cuenta.
+     *
+     * @param accountId Identificador de la cuenta
+     * @param cardIds Identificadores de todas las tarjetas que referencian la cuenta
+     */
+    public void putCardIds(String accountId, Set<String> cardIds) {
+        if (enabled) {
+            Set<String> indexed = Set.copyOf(cardIds);
+            cardIdsByAccount.asMap().compute(accountId, (id, previous) -> {
+                if (previous != null) {
+                    previous.stream()
+                            .filter(cardId -> !indexed.contains(cardId))
+                            .forEach(cardId -> removeAccount(cardId, id));
+                }
+                indexed.forEach(cardId -> addAccount(cardId, id));
+                return indexed;
+            });
+        }
+    }
+
+    /**
+     * Registra que una tarjeta pasa a referenciar una cuenta. Solo se actualizan las
+     * cuentas ya indexadas.
+     *
+     * @param accountId Identificador de la cuenta
+     * @param cardId Identificador de la tarjeta de débito
+     */
+    public void link(String accountId, String cardId) {
+        if (enabled && accountId != null) {
+            cardIdsByAccount.asMap().computeIfPresent(accountId, (id, cardIds) -> {
+                Set<String> updated = new HashSet<>(cardIds);
+                updated.add(cardId);
+                addAccount(cardId, id);
+                return Set.copyOf(updated);
+            });
+        }
+    }
+
+    /**
+     * Registra que una tarjeta deja de referenciar una cuenta. Solo se actualizan las
+     * cuentas ya indexadas.
+     *
+     * @param accountId Identificador de la cuenta
+     * @param cardId Identificador de la tarjeta de débito
+     */
+    public void unlink(String accountId, String cardId) {
+        if (enabled && accountId != null) {
+            cardIdsByAccount.asMap().computeIfPresent(accountId, (id, cardIds) -> {
+                Set<String> updated = new HashSet<>(cardIds);
+                updated.remove(cardId);
+                removeAccount(cardId, id);
+                return Set.copyOf(updated);
+            });
+        }
+    }
+
+    /**
+     * Desvincula una tarjeta de todas las cuentas indexadas que no estén entre las
+     * indicadas. Solo recorre las cuentas indexadas de la tarjeta, a través del índice
+     * inverso.
+     *
+     * @param cardId Identificador de la tarjeta de débito
+     * @param accountIds Cuentas que la tarjeta referencia actualmente
+     */
+    public void unlinkOthers(String cardId, Set<String> accountIds) {
+        if (enabled) {
+            accountIdsByCard.getOrDefault(cardId, Set.of()).stream()
+                    .filter(accountId -> !accountIds.contains(accountId))
+                    .forEach(accountId -> unlink(accountId, cardId));
+        }
+    }
+
+    /**
+     * Elimina todas las entradas del índice.
+     */
+    public void invalidateAll() {
+        cardIdsByAccount.invalidateAll();
+        accountIdsByCard.clear();
+    }
+
+    private void addAccount(String cardId, String accountId) {
+        accountIdsByCard.compute(cardId, (id, accountIds) -> {
+            Set<String> updated = accountIds == null ? new HashSet<>() : new HashSet<>(accountIds);
+            updated.add(accountId);
+            return Set.copyOf(updated);
+        });
+    }
+
+    private void removeAccount(String cardId, String accountId) {
+        accountIdsByCard.computeIfPresent(cardId, (id, accountIds) -> {
+            Set<String> updated = new HashSet<>(accountIds);
+            updated.remove(accountId);
+            return updated.isEmpty() ? null : Set.copyOf(updated);
+        });
+    }
+}
@@ -0,0 +1,146 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.bm_nttdata.debitcard_ms.model.BalanceResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caché de corta duración para los saldos de cuentas consultados en account-ms.
+ * Las solicitudes concurrentes para una misma cuenta comparten una única llamada
+ * en curso, y los saldos obsoletos se sirven mientras se revalidan en segundo plano.
+ */
+@Slf4j
+@Component
+public class BalanceCache {
+
+    private static final String CACHE_NAME = "accountBalances";
+
+    private final boolean enabled;
+
+    private final long freshForNanos;
+
+    private final Cache<String, Entry> entries;
+
+    private final ConcurrentMap<String, Mono<BalanceResponseDto>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final Counter freshHits;
+
+    private final Counter staleHits;
+
+    private final Counter misses;
+
+    private final Counter coalesced;
+
+    /**
+     * Construye la caché de saldos.
+     *
+     * @param properties Propiedades de configuración de las cachés
+     * @param meterRegistry Registro de métricas de la caché
+     */
+    public BalanceCache(DebitCardCacheProperties properties, MeterRegistry meterRegistry) {
+        DebitCardCacheProperties.Balance config = properties.getBalance();
+        this.enabled = config.isEnabled();
+        this.freshForNanos = config.getFreshFor().toNanos();
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getMaxStale())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, CACHE_NAME);
+        this.freshHits = requestCounter(meterRegistry, "fresh");
+        this.staleHits = requestCounter(meterRegistry, "stale");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.coalesced = requestCounter(meterRegistry, "coalesced");
+    }
+
+    /**
+     * Obtiene el saldo de una cuenta. Si el saldo en caché es fresco se devuelve
+     * directamente; si está obsoleto se devuelve y se lanza una revalidación en
+     * segundo plano; si no existe, se consulta mediante el cargador indicado.
+     *
+     * @param accountId Identificador de la cuenta
+     * @param loader Función que consulta el saldo de la cuenta en el servicio remoto
+     * @return Un Mono con el saldo de la cuenta
+     */
+    public Mono<BalanceResponseDto> get(
+            String accountId, Function<String, Mono<BalanceResponseDto>> loader) {
+        if (!enabled) {
+            return loader.apply(accountId);
+        }
+        return Mono.defer(() -> {
+            Entry entry = entries.getIfPresent(accountId);
+            if (entry == null) {
+                misses.increment();
+                return load(accountId, loader);
+            }
+            if (System.nanoTime() - entry.storedAtNanos() <= freshForNanos) {
+                freshHits.increment();
+                return Mono.just(entry.balance());
+            }
+            staleHits.increment();
+            load(accountId, loader).subscribe(
+                    balance -> { },
+                    e -> log.warn("Balance revalidation failed for account {}: {}",
+                            accountId, e.getMessage()));
+            return Mono.just(entry.balance());
+        });
+    }
+
+    private Mono<BalanceResponseDto> load(
+            String accountId, Function<String, Mono<BalanceResponseDto>> loader) {
+        Mono<BalanceResponseDto> existing = inFlight.get(accountId);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        return inFlight.computeIfAbsent(accountId, id -> {
+            AtomicReference<Mono<BalanceResponseDto>> self = new AtomicReference<>();
+            Mono<BalanceResponseDto> shared = loader.apply(id)
+                    .doOnNext(balance -> store(id, balance))
+                    .doFinally(signal -> inFlight.remove(id, self.get()))
+                    .cache();
+            self.set(shared);
+            return shared;
+        });
+    }
+
+    /**
+     * Guarda el saldo consultado. Si es anterior al que ya está en caché se conserva el
+     * saldo en caché, pero se renueva su instante de almacenamiento: la consulta acaba de
+     * confirmarlo como vigente y no debe volver a revalidarse en cada lectura.
+     */
+    private void store(String accountId, BalanceResponseDto balance) {
+        entries.asMap().merge(accountId, new Entry(balance, System.nanoTime()),
+                (current, candidate) -> isOlder(candidate.balance(), current.balance())
+                        ? new Entry(current.balance(), candidate.storedAtNanos())
+                        : candidate);
+    }
+
+    private static boolean isOlder(BalanceResponseDto candidate, BalanceResponseDto current) {
+        return candidate.getLastUpdateDate() != null
+                && current.getLastUpdateDate() != null
+                && candidate.getLastUpdateDate().isBefore(current.getLastUpdateDate());
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("debitcard.balance.cache.requests")
+                .description("Balance lookups served by the balance cache")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(BalanceResponseDto balance, long storedAtNanos) {
+    }
+}
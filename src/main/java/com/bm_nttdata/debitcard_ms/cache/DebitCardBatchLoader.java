@@ -0,0 +1,133 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.repository.DebitCardRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Agrupador de consultas de tarjetas de débito por identificador.
+ * Las consultas individuales recibidas dentro de una ventana de pocos milisegundos
+ * se resuelven con una única consulta $in, reduciendo los accesos a MongoDB cuando
+ * muchas solicitudes concurrentes consultan tarjetas por su identificador.
+ */
+@Slf4j
+@Component
+public class DebitCardBatchLoader {
+
+    private final DebitCardRepository debitCardRepository;
+
+    private final boolean enabled;
+
+    private final long windowNanos;
+
+    private final int maxBatchSize;
+
+    private final DistributionSummary batchSizes;
+
+    private final Object lock = new Object();
+
+    private Map<String, List<MonoSink<DebitCard>>> pending = new HashMap<>();
+
+    private boolean flushScheduled;
+
+    /**
+     * Construye el agrupador de consultas.
+     *
+     * @param debitCardRepository Repositorio de tarjetas de débito
+     * @param properties Propiedades de las operaciones de tarjetas de débito
+     * @param meterRegistry Registro de métricas donde se publica el tamaño de los lotes
+     */
+    public DebitCardBatchLoader(
+            DebitCardRepository debitCardRepository,
+            DebitCardServiceProperties properties,
+            MeterRegistry meterRegistry) {
+        DebitCardServiceProperties.BatchLoader config = properties.getBatchLoader();
+        this.debitCardRepository = debitCardRepository;
+        this.enabled = config.isEnabled();
+        this.windowNanos = config.getWindow().toNanos();
+        this.maxBatchSize = config.getMaxBatchSize();
+        this.batchSizes = DistributionSummary.builder("debitcard.batch.loader.size")
+                .description("Number of distinct ids resolved per batched lookup")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene una tarjeta de débito por su identificador, agrupando la consulta con
+     * las demás recibidas en la misma ventana.
+     *
+     * @param cardId Identificador único de la tarjeta de débito
+     * @return Un Mono con la tarjeta de débito, o vacío si no existe
+     */
+    public Mono<DebitCard> load(String cardId) {
+        if (!enabled) {
+            return debitCardRepository.findById(cardId);
+        }
+        return Mono.create(sink -> enqueue(cardId, sink));
+    }
+
+    private void enqueue(String cardId, MonoSink<DebitCard> sink) {
+        Map<String, List<MonoSink<DebitCard>>> batch = null;
+        synchronized (lock) {
+            pending.computeIfAbsent(cardId, id -> new ArrayList<>(1)).add(sink);
+            if (pending.size() >= maxBatchSize) {
+                batch = pending;
+                pending = new HashMap<>();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                Schedulers.parallel().schedule(this::flush, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    private void flush() {
+        Map<String, List<MonoSink<DebitCard>>> batch;
+        synchronized (lock) {
+            flushScheduled = false;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        dispatch(batch);
+    }
+
+    private void dispatch(Map<String, List<MonoSink<DebitCard>>> batch) {
+        batchSizes.record(batch.size());
+        debitCardRepository.findAllByIdIn(batch.keySet())
+                .collectMap(DebitCard::getId)
+                .subscribe(
+                        found -> batch.forEach((cardId, sinks) -> {
+                            DebitCard debitCard = found.get(cardId);
+                            for (int i = 0; i < sinks.size(); i++) {
+                                if (debitCard == null) {
+                                    sinks.get(i).success();
+                                } else {
+                                    sinks.get(i).success(
+                                            i == 0 ? debitCard : DebitCardCache.copyOf(debitCard));
+                                }
+                            }
+                        }),
+                        error -> {
+                            log.warn("Batched lookup of {} debit cards failed: {}",
+                                    batch.size(), error.getMessage());
+                            batch.values().forEach(sinks ->
+                                    sinks.forEach(sink -> sink.error(error)));
+                        });
+    }
+}
@@ -0,0 +1,218 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.bm_nttdata.debitcard_ms.entity.CardOutboxEvent;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.repository.DebitCardRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caché de lectura y escritura de tarjetas de débito por identificador.
+ * Las lecturas se resuelven desde memoria y, ante un fallo de caché, se consulta
+ * el repositorio una sola vez por clave a través del agrupador de consultas.
+ * Toda escritura realizada a través de esta clase actualiza la entrada correspondiente.
+ */
+@Slf4j
+@Component
+public class DebitCardCache {
+
+    private static final String CACHE_NAME = "debitCards";
+
+    private final DebitCardRepository debitCardRepository;
+
+    private final DebitCardBatchLoader batchLoader;
+
+    private final boolean enabled;
+
+    private final AsyncCache<String, DebitCard> cache;
+
+    /**
+     * Construye la caché de tarjetas de débito.
+     *
+     * @param debitCardRepository Repositorio de tarjetas de débito
+     * @param batchLoader Agrupador de consultas por identificador usado ante fallos de caché
+     * @param properties Propiedades de configuración de las cachés
+     * @param meterRegistry Registro de métricas donde se publican aciertos, fallos y desalojos
+     */
+    public DebitCardCache(
+            DebitCardRepository debitCardRepository,
+            DebitCardBatchLoader batchLoader,
+            DebitCardCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        DebitCardCacheProperties.Card config = properties.getCard();
+        this.debitCardRepository = debitCardRepository;
+        this.batchLoader = batchLoader;
+        this.enabled = config.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Obtiene una tarjeta de débito por su identificador, consultando el repositorio
+     * únicamente cuando no se encuentra en caché.
+     *
+     * @param cardId Identificador único de la tarjeta de débito
+     * @return Un Mono con una copia de la tarjeta, o vacío si no existe
+     */
+    public Mono<DebitCard> findById(String cardId) {
+        if (!enabled) {
+            return batchLoader.load(cardId);
+        }
+        return Mono.fromFuture(() -> cache.get(cardId, (id, executor) ->
+                        batchLoader.load(id).toFuture()), true)
+                .map(DebitCardCache::copyOf);
+    }
+
+    /**
+     * Guarda una tarjeta de débito y actualiza su entrada en caché.
+     *
+     * @param debitCard Tarjeta de débito a guardar
+     * @return Un Mono con la tarjeta guardada
+     */
+    public Mono<DebitCard> save(DebitCard debitCard) {
+        return writeThrough(debitCard.getId(), debitCardRepository.save(debitCard));
+    }
+
+    /**
+     * Asocia una cuenta a una tarjeta de débito con una actualización atómica y actualiza
+     * su entrada en caché.
+     *
+     * @param cardId Identificador único de la tarjeta de débito
+     * @param accountId Identificador de la cuenta a asociar
+     * @param event Evento que se añade a la bandeja de salida de la tarjeta, o null
+     * @return Un Mono con la tarjeta actualizada, o vacío si no existe o la cuenta ya
+     *         estaba asociada
+     */
+    public Mono<DebitCard> addAssociatedAccount(
+            String cardId, String accountId, CardOutboxEvent event) {
+        return writeThrough(cardId,
+                debitCardRepository.addAssociatedAccount(cardId, accountId, event));
+    }
+
+    /**
+     * Cambia la cuenta principal de una tarjeta de débito si su versión no ha cambiado y
+     * actualiza su entrada en caché.
+     *
+     * @param cardId Identificador único de la tarjeta de débito
+     * @param expectedVersion Versión de la tarjeta sobre la que se decidió el cambio
+     * @param accountId Identificador de la nueva cuenta principal
+     * @param event Evento que se añade a la bandeja de salida de la tarjeta, o null
+     * @return Un Mono con la tarjeta actualizada, o vacío si no existe o su versión ha
+     *         cambiado
+     */
+    public Mono<DebitCard> updatePrimaryAccount(
+            String cardId, Long expectedVersion, String accountId, CardOutboxEvent event) {
+        return writeThrough(cardId, debitCardRepository.updatePrimaryAccount(
+                cardId, expectedVersion, accountId, event));
+    }
+
+    /**
+     * Actualiza la entrada en caché de una tarjeta de débito ya persistida.
+     *
+     * @param debitCard Tarjeta de débito persistida
+     */
+    public void put(DebitCard debitCard) {
+        if (enabled && debitCard.getId() != null) {
+            cache.put(debitCard.getId(), CompletableFuture.completedFuture(copyOf(debitCard)));
+        }
+    }
+
+    /**
+     * Elimina de la caché la entrada de una tarjeta de débito.
+     *
+     * @param cardId Identificador único de la tarjeta de débito
+     */
+    public void evict(String cardId) {
+        if (enabled && cardId != null) {
+            cache.synchronous().invalidate(cardId);
+            log.debug("Evicted debit card from cache: {}", cardId);
+        }
+    }
+
+    /**
+     * Aplica el estado actual de una tarjeta de débito modificada fuera de esta instancia.
+     * La entrada en caché se conserva si corresponde a la misma modificación (la misma
+     * versión o, en tarjetas sin versión, la misma fecha de modificación) y se elimina
+     * en caso contrario, para que la siguiente lectura la cargue de nuevo.
+     *
+     * @param current Estado actual de la tarjeta de débito en MongoDB
+     */
+    public void refresh(DebitCard current) {
+        if (!enabled || current.getId() == null) {
+            return;
+        }
+        CompletableFuture<DebitCard> cached = cache.getIfPresent(current.getId());
+        if (cached == null) {
+            return;
+        }
+        DebitCard cachedCard = cached.isDone() && !cached.isCompletedExceptionally()
+                ? cached.join()
+                : null;
+        if (cachedCard == null || !sameModification(cachedCard, current)) {
+            evict(current.getId());
+        }
+    }
+
+    /**
+     * Elimina todas las entradas de la caché.
+     */
+    public void evictAll() {
+        if (enabled) {
+            cache.synchronous().invalidateAll();
+            log.info("Evicted all debit cards from cache");
+        }
+    }
+
+    /**
+     * Aplica una escritura sobre la tarjeta y actualiza su entrada en caché. Si la
+     * escritura falla o no modifica ningún documento, la entrada puede estar desfasada y
+     * se elimina.
+     */
+    private Mono<DebitCard> writeThrough(String cardId, Mono<DebitCard> write) {
+        if (!enabled) {
+            return write;
+        }
+        return write
+                .doOnNext(this::put)
+                .switchIfEmpty(Mono.fromRunnable(() -> evict(cardId)))
+                .doOnError(e -> evict(cardId));
+    }
+
+    private static boolean sameModification(DebitCard cached, DebitCard current) {
+        if (cached.getVersion() != null && current.getVersion() != null) {
+            return cached.getVersion().equals(current.getVersion());
+        }
+        LocalDateTime cachedDate = cached.getLastModifiedDate();
+        LocalDateTime currentDate = current.getLastModifiedDate();
+        return cachedDate != null && currentDate != null
+                && cachedDate.truncatedTo(ChronoUnit.MILLIS)
+                        .equals(currentDate.truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    /**
+     * Copia una tarjeta de débito sin sus eventos pendientes de publicación, que solo lee
+     * el relé de eventos directamente de MongoDB.
+     */
+    static DebitCard copyOf(DebitCard debitCard) {
+        return debitCard.toBuilder()
+                .pendingEvents(null)
+                .associatedAccountIds(debitCard.getAssociatedAccountIds() == null
+                        ? null
+                        : new ArrayList<>(debitCard.getAssociatedAccountIds()))
+                .build();
+    }
+}
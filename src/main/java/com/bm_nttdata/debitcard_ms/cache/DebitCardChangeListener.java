@@ -0,0 +1,268 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties.InvalidationMode;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Mantiene la caché de tarjetas y el índice de cuentas coherentes con las modificaciones
+ * realizadas por otras instancias del microservicio. Con un replica set o un clúster
+ * fragmentado escucha un change stream de la colección de tarjetas. Cada vez que se
+ * suscribe, también tras un error, vacía las cachés, ya que el resume token solo se
+ * conserva en memoria, y reanuda desde el último token recibido para no perder las
+ * modificaciones posteriores. Con un servidor independiente, como el de las pruebas
+ * locales, consulta periódicamente las tarjetas por su fecha de última modificación.
+ * En ambos casos solo se atienden las modificaciones que cambian la fecha de última
+ * modificación, de modo que retirar eventos publicados de la bandeja de salida no genera
+ * trabajo, y nunca se leen el PIN, el código CCV ni los eventos pendientes. Las
+ * modificaciones de esta misma instancia también se reciben, pero no desalojan la entrada
+ * en caché al corresponder a la misma modificación.
+ */
+@Slf4j
+@Component
+public class DebitCardChangeListener implements ApplicationRunner {
+
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private static final String LAST_MODIFIED_DATE = "lastModifiedDate";
+
+    private static final String[] EXCLUDED_FIELDS = {"cardPin", "ccvCode", "pendingEvents"};
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    private final DebitCardCache debitCardCache;
+
+    private final AccountCardIndex accountCardIndex;
+
+    private final DebitCardCacheProperties.Invalidation config;
+
+    private final Counter appliedChanges;
+
+    private volatile BsonValue resumeToken;
+
+    private volatile LocalDateTime watermark = LocalDateTime.now();
+
+    private volatile Disposable subscription;
+
+    /**
+     * Construye el receptor de modificaciones de tarjetas.
+     *
+     * @param mongoTemplate Plantilla reactiva de MongoDB
+     * @param debitCardCache Caché de tarjetas de débito
+     * @param accountCardIndex Índice de cuentas a tarjetas
+     * @param properties Propiedades de configuración de las cachés
+     * @param meterRegistry Registro de métricas
+     */
+    public DebitCardChangeListener(
+            ReactiveMongoTemplate mongoTemplate,
+            DebitCardCache debitCardCache,
+            AccountCardIndex accountCardIndex,
+            DebitCardCacheProperties properties,
+            MeterRegistry meterRegistry) {
+        this.mongoTemplate = mongoTemplate;
+        this.debitCardCache = debitCardCache;
+        this.accountCardIndex = accountCardIndex;
+        this.config = properties.getInvalidation();
+        this.appliedChanges = Counter.builder("debitcard.cache.invalidation.changes")
+                .description("Debit card changes applied to the local caches")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (config.getMode() == InvalidationMode.DISABLED) {
+            return;
+        }
+        subscription = resolveMode()
+                .flatMapMany(mode -> mode == InvalidationMode.CHANGE_STREAM
+                        ? listenToChangeStream()
+                        : pollChanges())
+                .subscribe();
+    }
+
+    /**
+     * Detiene la escucha de modificaciones al detener la aplicación.
+     */
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<InvalidationMode> resolveMode() {
+        if (config.getMode() != InvalidationMode.AUTO) {
+            return Mono.just(config.getMode());
+        }
+        return mongoTemplate.executeCommand(new Document("hello", 1))
+                .map(hello -> hello.containsKey("setName") || "isdbgrid".equals(hello.get("msg"))
+                        ? InvalidationMode.CHANGE_STREAM
+                        : InvalidationMode.POLLING)
+                .onErrorResume(e -> {
+                    log.warn("Unable to detect MongoDB topology, polling for changes: {}",
+                            e.getMessage());
+                    return Mono.just(InvalidationMode.POLLING);
+                })
+                .doOnNext(mode -> log.info("Debit card cache invalidation mode: {}", mode));
+    }
+
+    private Flux<Void> listenToChangeStream() {
+        String collectionName = mongoTemplate.getCollectionName(DebitCard.class);
+        return Flux.defer(() -> openChangeStream(collectionName))
+                .doOnNext(this::applyEvent)
+                .doOnError(e -> {
+                    if (e instanceof MongoCommandException commandError
+                            && commandError.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                        resumeToken = null;
+                    }
+                    log.warn("Debit card change stream failed, resuming {}: {}",
+                            resumeToken == null ? "without token" : "from last token",
+                            e.getMessage());
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, config.getRetryBackoff())
+                        .maxBackoff(config.getMaxRetryBackoff()))
+                .thenMany(Flux.empty());
+    }
+
+    private Flux<ChangeStreamEvent<DebitCard>> openChangeStream(String collectionName) {
+        invalidateAll();
+        return mongoTemplate.changeStream(collectionName, changeStreamOptions(), DebitCard.class);
+    }
+
+    private ChangeStreamOptions changeStreamOptions() {
+        Criteria relevantChanges = new Criteria().orOperator(
+                Criteria.where("operationType").in("insert", "replace", "delete"),
+                Criteria.where("operationType").is("update")
+                        .and("updateDescription.updatedFields." + storedName(LAST_MODIFIED_DATE))
+                        .exists(true));
+        Document excludedFields = new Document();
+        for (String property : EXCLUDED_FIELDS) {
+            excludedFields.append("fullDocument." + storedName(property), 0);
+        }
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                .filter(Aggregation.newAggregation(
+                        Aggregation.match(relevantChanges),
+                        Aggregation.stage(new Document("$project", excludedFields))))
+                .fullDocumentLookup(FullDocument.UPDATE_LOOKUP);
+        BsonValue token = resumeToken;
+        if (token != null) {
+            options.resumeAfter(token);
+        }
+        return options.build();
+    }
+
+    private void applyEvent(ChangeStreamEvent<DebitCard> event) {
+        OperationType operationType = event.getOperationType();
+        DebitCard debitCard = event.getBody();
+        if (operationType == OperationType.INSERT && debitCard != null) {
+            linkAccounts(debitCard);
+        } else if (debitCard != null) {
+            applyChange(debitCard);
+        } else {
+            String cardId = documentId(event.getRaw() == null
+                    ? null
+                    : event.getRaw().getDocumentKey());
+            debitCardCache.evict(cardId);
+            if (cardId != null) {
+                accountCardIndex.unlinkOthers(cardId, Set.of());
+            }
+            appliedChanges.increment();
+        }
+        resumeToken = event.getResumeToken();
+    }
+
+    private Flux<Void> pollChanges() {
+        return Flux.interval(config.getPollInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> poll(), 1)
+                .thenMany(Flux.empty());
+    }
+
+    private Mono<Void> poll() {
+        LocalDateTime pollStart = LocalDateTime.now();
+        Query query = Query.query(Criteria.where(LAST_MODIFIED_DATE)
+                        .gte(watermark.minus(config.getPollOverlap())))
+                .with(Sort.by(LAST_MODIFIED_DATE));
+        query.fields().exclude(EXCLUDED_FIELDS);
+        return mongoTemplate.find(query, DebitCard.class)
+                .doOnNext(this::applyChange)
+                .then(Mono.fromRunnable(() -> watermark = pollStart))
+                .onErrorResume(e -> {
+                    log.warn("Unable to poll debit card changes: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private void applyChange(DebitCard debitCard) {
+        debitCardCache.refresh(debitCard);
+        accountCardIndex.unlinkOthers(debitCard.getId(), linkAccounts(debitCard));
+    }
+
+    private Set<String> linkAccounts(DebitCard debitCard) {
+        Set<String> accountIds = new LinkedHashSet<>();
+        if (debitCard.getPrimaryAccountId() != null) {
+            accountIds.add(debitCard.getPrimaryAccountId());
+        }
+        if (debitCard.getAssociatedAccountIds() != null) {
+            accountIds.addAll(debitCard.getAssociatedAccountIds());
+        }
+        accountIds.forEach(accountId -> accountCardIndex.link(accountId, debitCard.getId()));
+        appliedChanges.increment();
+        return accountIds;
+    }
+
+    private void invalidateAll() {
+        debitCardCache.evictAll();
+        accountCardIndex.invalidateAll();
+    }
+
+    /**
+     * Obtiene el nombre con el que se almacena una propiedad de la tarjeta, que depende del
+     * esquema de persistencia configurado.
+     */
+    private String storedName(String property) {
+        return mongoTemplate.getConverter().getMappingContext()
+                .getRequiredPersistentEntity(DebitCard.class)
+                .getRequiredPersistentProperty(property)
+                .getFieldName();
+    }
+
+    private static String documentId(BsonDocument documentKey) {
+        BsonValue id = documentKey == null ? null : documentKey.get("_id");
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : id.toString();
+    }
+}
@@ -0,0 +1,218 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.bm_nttdata.debitcard_ms.model.BalanceResponseDto;
+import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Almacén local de las últimas respuestas correctas, utilizado por los fallbacks del
+ * controlador cuando un circuito está abierto o el servicio remoto falla.
+ * Guarda el último saldo obtenido por cuenta y la última página de tarjetas devuelta por
+ * cliente, con un tiempo de vida muy superior al de las cachés de lectura.
+ * La tasa de aciertos se publica en las métricas {@code cache.gets} de cada caché.
+ */
+@Component
+public class LastKnownGoodStore {
+
+    private static final String BALANCES_CACHE_NAME = "lastKnownBalances";
+
+    private static final String CARD_LISTS_CACHE_NAME = "lastKnownCardLists";
+
+    private static final String ACCOUNT_CARD_LISTS_CACHE_NAME = "lastKnownAccountCardLists";
+
+    private final boolean enabled;
+
+    private final Cache<String, Snapshot<BalanceResponseDto>> balances;
+
+    private final Cache<CardListKey, Snapshot<List<DebitCardResponseDto>>> cardLists;
+
+    private final Cache<String, Snapshot<List<DebitCardResponseDto>>> accountCardLists;
+
+    private final Timer balanceStaleness;
+
+    private final Timer cardListStaleness;
+
+    private final Timer accountCardListStaleness;
+
+    /**
+     * Construye el almacén de últimas respuestas correctas.
+     *
+     * @param properties Propiedades de configuración de las cachés
+     * @param meterRegistry Registro de métricas del almacén
+     */
+    public LastKnownGoodStore(DebitCardCacheProperties properties, MeterRegistry meterRegistry) {
+        DebitCardCacheProperties.LastKnownGood config = properties.getLastKnownGood();
+        this.enabled = config.isEnabled();
+        this.balances = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumBalances())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .<String, Snapshot<BalanceResponseDto>>build();
+        this.cardLists = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumCardLists())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .<CardListKey, Snapshot<List<DebitCardResponseDto>>>build();
+        this.accountCardLists = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumCardLists())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .<String, Snapshot<List<DebitCardResponseDto>>>build();
+        CaffeineCacheMetrics.monitor(meterRegistry, balances, BALANCES_CACHE_NAME);
+        CaffeineCacheMetrics.monitor(meterRegistry, cardLists, CARD_LISTS_CACHE_NAME);
+        CaffeineCacheMetrics.monitor(
+                meterRegistry, accountCardLists, ACCOUNT_CARD_LISTS_CACHE_NAME);
+        this.balanceStaleness = stalenessTimer(meterRegistry, BALANCES_CACHE_NAME);
+        this.cardListStaleness = stalenessTimer(meterRegistry, CARD_LISTS_CACHE_NAME);
+        this.accountCardListStaleness =
+                stalenessTimer(meterRegistry, ACCOUNT_CARD_LISTS_CACHE_NAME);
+    }
+
+    /**
+     * Registra el último saldo obtenido correctamente para una cuenta.
+     *
+     * @param accountId Identificador de la cuenta
+     * @param balance Saldo de la cuenta
+     */
+    public void putBalance(String accountId, BalanceResponseDto balance) {
+        if (enabled) {
+            balances.put(accountId, new Snapshot<>(balance, Instant.now()));
+        }
+    }
+
+    /**
+     * Obtiene el último saldo conocido de una cuenta.
+     *
+     * @param accountId Identificador de la cuenta
+     * @return El último saldo conocido con su antigüedad, o vacío si no existe
+     */
+    public Optional<Snapshot<BalanceResponseDto>> getBalance(String accountId) {
+        return enabled
+                ? served(balanceStaleness, balances.getIfPresent(accountId))
+                : Optional.empty();
+    }
+
+    /**
+     * Envuelve una página de tarjetas de un cliente para registrarla como última respuesta
+     * correcta cuando se emite completa. Las tarjetas se siguen emitiendo a medida que
+     * llegan; una página cancelada o fallida no reemplaza la registrada anteriormente.
+     *
+     * @param key Consulta que produce la página
+     * @param page Flux con las tarjetas de la página
+     * @return Un Flux que emite las mismas tarjetas que la página original
+     */
+    public Flux<DebitCardResponseDto> recordCardList(
+            CardListKey key, Flux<DebitCardResponseDto> page) {
+        return record(cardLists, key, page);
+    }
+
+    /**
+     * Obtiene la última página de tarjetas conocida para una consulta.
+     *
+     * @param key Consulta que produce la página
+     * @return La última página conocida con su antigüedad, o vacío si no existe
+     */
+    public Optional<Snapshot<List<DebitCardResponseDto>>> getCardList(CardListKey key) {
+        return enabled
+                ? served(cardListStaleness, cardLists.getIfPresent(key))
+                : Optional.empty();
+    }
+
+    /**
+     * Envuelve las tarjetas que referencian una cuenta para registrarlas como última
+     * respuesta correcta cuando se emiten completas.
+     *
+     * @param accountId Identificador de la cuenta
+     * @param cards Flux con las tarjetas que referencian la cuenta
+     * @return Un Flux que emite las mismas tarjetas que el original
+     */
+    public Flux<DebitCardResponseDto> recordAccountCardList(
+            String accountId, Flux<DebitCardResponseDto> cards) {
+        return record(accountCardLists, accountId, cards);
+    }
+
+    /**
+     * Obtiene las últimas tarjetas conocidas que referencian una cuenta.
+     *
+     * @param accountId Identificador de la cuenta
+     * @return Las últimas tarjetas conocidas con su antigüedad, o vacío si no existen
+     */
+    public Optional<Snapshot<List<DebitCardResponseDto>>> getAccountCardList(String accountId) {
+        return enabled
+                ? served(accountCardListStaleness, accountCardLists.getIfPresent(accountId))
+                : Optional.empty();
+    }
+
+    private <K> Flux<DebitCardResponseDto> record(
+            Cache<K, Snapshot<List<DebitCardResponseDto>>> cache,
+            K key, Flux<DebitCardResponseDto> page) {
+        if (!enabled) {
+            return page;
+        }
+        return Flux.defer(() -> {
+            List<DebitCardResponseDto> cards = new ArrayList<>();
+            return page
+                    .doOnNext(cards::add)
+                    .doOnComplete(() ->
+                            cache.put(key, new Snapshot<>(List.copyOf(cards), Instant.now())));
+        });
+    }
+
+    private static <T> Optional<Snapshot<T>> served(Timer staleness, Snapshot<T> snapshot) {
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        staleness.record(snapshot.age());
+        return Optional.of(snapshot);
+    }
+
+    private static Timer stalenessTimer(MeterRegistry meterRegistry, String cacheName) {
+        return Timer.builder("debitcard.fallback.staleness")
+                .description("Age of the last known good responses served by fallbacks")
+                .tag("cache", cacheName)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Respuesta almacenada junto con el instante en que se obtuvo.
+     *
+     * @param value Respuesta almacenada
+     * @param storedAt Instante en que se obtuvo la respuesta
+     * @param <T> Tipo de la respuesta
+     */
+    public record Snapshot<T>(T value, Instant storedAt) {
+
+        /**
+         * Calcula la antigüedad de la respuesta almacenada.
+         *
+         * @return Tiempo transcurrido desde que se obtuvo la respuesta
+         */
+        public Duration age() {
+            Duration age = Duration.between(storedAt, Instant.now());
+            return age.isNegative() ? Duration.ZERO : age;
+        }
+    }
+
+    /**
+     * Consulta de una página de tarjetas de un cliente.
+     *
+     * @param customerId Identificador del cliente
+     * @param afterId Identificador de la última tarjeta recibida, o null para la primera página
+     * @param limit Tamaño de página efectivo
+     * @param status Estado de las tarjetas, o null para todos los estados
+     */
+    public record CardListKey(String customerId, String afterId, int limit, String status) {
+    }
+}
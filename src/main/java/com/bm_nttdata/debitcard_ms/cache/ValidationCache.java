@@ -0,0 +1,168 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.bm_nttdata.debitcard_ms.config.WebClientConfig;
+import com.bm_nttdata.debitcard_ms.dto.CustomerDto;
+import com.bm_nttdata.debitcard_ms.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caché de los resultados de validación de clientes utilizados en la emisión de tarjetas:
+ * existencia del cliente en customer-ms y veredicto de deudas en credit-ms.
+ * Los resultados negativos se almacenan con un tiempo de vida propio, normalmente más corto.
+ */
+@Slf4j
+@Component
+public class ValidationCache {
+
+    private static final int DEBT_CALLS_PER_VERDICT = 2;
+
+    private final boolean enabled;
+
+    private final Cache<String, CustomerLookup> customers;
+
+    private final Cache<String, Boolean> debtVerdicts;
+
+    private final Counter avoidedCustomerCalls;
+
+    private final Counter avoidedCreditCalls;
+
+    /**
+     * Construye la caché de validaciones.
+     *
+     * @param properties Propiedades de configuración de las cachés
+     * @param meterRegistry Registro de métricas de la caché
+     */
+    public ValidationCache(DebitCardCacheProperties properties, MeterRegistry meterRegistry) {
+        DebitCardCacheProperties.Validation config = properties.getValidation();
+        this.enabled = config.isEnabled();
+        this.customers = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfter(expiry(CustomerLookup::notFound,
+                        config.getCustomerTtl(), config.getCustomerNegativeTtl()))
+                .recordStats()
+                .build();
+        this.debtVerdicts = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumSize())
+                .expireAfter(ValidationCache.<Boolean>expiry(Boolean::booleanValue,
+                        config.getDebtsTtl(), config.getDebtsNegativeTtl()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, customers, "customerValidations");
+        CaffeineCacheMetrics.monitor(meterRegistry, debtVerdicts, "debtVerdicts");
+        this.avoidedCustomerCalls =
+                avoidedCallsCounter(meterRegistry, WebClientConfig.CUSTOMER_SERVICE);
+        this.avoidedCreditCalls =
+                avoidedCallsCounter(meterRegistry, WebClientConfig.CREDIT_SERVICE);
+    }
+
+    /**
+     * Valida la existencia de un cliente, consultando customer-ms solo si el resultado
+     * no se encuentra en caché.
+     *
+     * @param customerId Identificador del cliente
+     * @param loader Función que consulta el cliente en customer-ms
+     * @return Un Mono con el cliente, o un error ResourceNotFoundException si no existe
+     */
+    public Mono<CustomerDto> getCustomer(
+            String customerId, Function<String, Mono<CustomerDto>> loader) {
+        if (!enabled) {
+            return loader.apply(customerId);
+        }
+        return Mono.defer(() -> {
+            CustomerLookup cached = customers.getIfPresent(customerId);
+            if (cached != null) {
+                avoidedCustomerCalls.increment();
+                return cached.notFound()
+                        ? Mono.error(new ResourceNotFoundException(
+                                "Customer not found with ID: " + customerId))
+                        : Mono.just(cached.customer());
+            }
+            return loader.apply(customerId)
+                    .doOnNext(customer ->
+                            customers.put(customerId, new CustomerLookup(customer, false)))
+                    .doOnError(ResourceNotFoundException.class, e ->
+                            customers.put(customerId, new CustomerLookup(null, true)));
+        });
+    }
+
+    /**
+     * Obtiene el veredicto de deudas de un cliente, consultando credit-ms solo si el
+     * resultado no se encuentra en caché.
+     *
+     * @param customerId Identificador del cliente
+     * @param loader Función que consulta las deudas del cliente en credit-ms
+     * @return Un Mono con true si el cliente tiene deudas vencidas, false en caso contrario
+     */
+    public Mono<Boolean> getDebtVerdict(
+            String customerId, Function<String, Mono<Boolean>> loader) {
+        if (!enabled) {
+            return loader.apply(customerId);
+        }
+        return Mono.defer(() -> {
+            Boolean cached = debtVerdicts.getIfPresent(customerId);
+            if (cached != null) {
+                avoidedCreditCalls.increment(DEBT_CALLS_PER_VERDICT);
+                return Mono.just(cached);
+            }
+            return loader.apply(customerId)
+                    .doOnNext(hasDebts -> debtVerdicts.put(customerId, hasDebts));
+        });
+    }
+
+    /**
+     * Elimina todos los resultados de validación almacenados para un cliente.
+     *
+     * @param customerId Identificador del cliente
+     */
+    public void invalidateCustomer(String customerId) {
+        customers.invalidate(customerId);
+        debtVerdicts.invalidate(customerId);
+        log.info("Validation cache invalidated for customer: {}", customerId);
+    }
+
+    private static <V> Expiry<String, V> expiry(
+            Predicate<V> isNegative, Duration positiveTtl, Duration negativeTtl) {
+        long positiveNanos = positiveTtl.toNanos();
+        long negativeNanos = negativeTtl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, V value, long currentTime) {
+                return isNegative.test(value) ? negativeNanos : positiveNanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(
+                    String key, V value, long currentTime, long currentDuration) {
+                return expireAfterCreate(key, value, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(
+                    String key, V value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private static Counter avoidedCallsCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("debitcard.validation.cache.avoided.calls")
+                .description("Downstream validation calls avoided thanks to the validation cache")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private record CustomerLookup(CustomerDto customer, boolean notFound) {
+    }
+}
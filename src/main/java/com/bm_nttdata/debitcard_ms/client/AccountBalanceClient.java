@@ -0,0 +1,22 @@
+package com.bm_nttdata.debitcard_ms.client;
+
+import com.bm_nttdata.debitcard_ms.model.BalanceResponseDto;
+import java.util.List;
+import java.util.Map;
+import reactor.core.publisher.Mono;
+
+/**
+ * Estrategia de consulta de los saldos de varias cuentas en account-ms.
+ * Las cuentas cuyo saldo no se obtiene a tiempo se omiten del resultado en lugar de
+ * hacer fallar la consulta completa.
+ */
+public interface AccountBalanceClient {
+
+    /**
+     * Consulta los saldos de las cuentas indicadas.
+     *
+     * @param accountIds Identificadores de las cuentas
+     * @return Un Mono con los saldos obtenidos por identificador de cuenta
+     */
+    Mono<Map<String, BalanceResponseDto>> fetchBalances(List<String> accountIds);
+}
@@ -0,0 +1,62 @@
+package com.bm_nttdata.debitcard_ms.client;
+
+import com.bm_nttdata.debitcard_ms.model.BalanceResponseDto;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consulta los saldos con el endpoint de consulta por lotes de account-ms
+ * ({@code POST /api/v1/accounts/balances:batchGet}), en una sola llamada por cada
+ * {@code maxBatchSize} cuentas. Si una llamada falla, las cuentas del lote se omiten.
+ */
+@Slf4j
+public class BatchAccountBalanceClient implements AccountBalanceClient {
+
+    private final WebClient accountWebClient;
+
+    private final int maxBatchSize;
+
+    private final Duration callTimeout;
+
+    /**
+     * Construye el cliente de saldos por lotes.
+     *
+     * @param accountWebClient Cliente web de account-ms
+     * @param maxBatchSize Número máximo de cuentas por llamada
+     * @param callTimeout Tiempo máximo de cada llamada
+     */
+    public BatchAccountBalanceClient(
+            WebClient accountWebClient, int maxBatchSize, Duration callTimeout) {
+        this.accountWebClient = accountWebClient;
+        this.maxBatchSize = maxBatchSize;
+        this.callTimeout = callTimeout;
+    }
+
+    @Override
+    public Mono<Map<String, BalanceResponseDto>> fetchBalances(List<String> accountIds) {
+        return Flux.fromIterable(accountIds)
+                .buffer(maxBatchSize)
+                .flatMap(this::fetchBatch)
+                .filter(balance -> accountIds.contains(balance.getAccountId()))
+                .collectMap(BalanceResponseDto::getAccountId);
+    }
+
+    private Flux<BalanceResponseDto> fetchBatch(List<String> batch) {
+        return accountWebClient
+                .post()
+                .uri("/api/v1/accounts/balances:batchGet")
+                .bodyValue(Map.of("ids", batch))
+                .retrieve()
+                .bodyToFlux(BalanceResponseDto.class)
+                .timeout(callTimeout)
+                .onErrorResume(e -> {
+                    log.warn("Balances of accounts {} unavailable: {}", batch, e.getMessage());
+                    return Flux.empty();
+                });
+    }
+}
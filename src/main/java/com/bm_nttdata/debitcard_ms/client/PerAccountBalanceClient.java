@@ -0,0 +1,59 @@
+package com.bm_nttdata.debitcard_ms.client;
+
+import com.bm_nttdata.debitcard_ms.model.BalanceResponseDto;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Consulta los saldos con una llamada a account-ms por cuenta, con un número máximo de
+ * llamadas simultáneas y un tiempo máximo por llamada.
+ */
+@Slf4j
+public class PerAccountBalanceClient implements AccountBalanceClient {
+
+    private final WebClient accountWebClient;
+
+    private final int maxConcurrency;
+
+    private final Duration callTimeout;
+
+    /**
+     * Construye el cliente de saldos por cuenta.
+     *
+     * @param accountWebClient Cliente web de account-ms
+     * @param maxConcurrency Número máximo de llamadas simultáneas por consulta
+     * @param callTimeout Tiempo máximo de cada llamada
+     */
+    public PerAccountBalanceClient(
+            WebClient accountWebClient, int maxConcurrency, Duration callTimeout) {
+        this.accountWebClient = accountWebClient;
+        this.maxConcurrency = maxConcurrency;
+        this.callTimeout = callTimeout;
+    }
+
+    @Override
+    public Mono<Map<String, BalanceResponseDto>> fetchBalances(List<String> accountIds) {
+        return Flux.fromIterable(accountIds)
+                .flatMap(this::fetchBalance, maxConcurrency)
+                .collectMap(BalanceResponseDto::getAccountId);
+    }
+
+    private Mono<BalanceResponseDto> fetchBalance(String accountId) {
+        return accountWebClient
+                .get()
+                .uri("/api/v1/accounts/{accountId}/balance", accountId)
+                .retrieve()
+                .bodyToMono(BalanceResponseDto.class)
+                .timeout(callTimeout)
+                .map(balance -> balance.accountId(accountId))
+                .onErrorResume(e -> {
+                    log.warn("Balance of account {} unavailable: {}", accountId, e.getMessage());
+                    return Mono.empty();
+                });
+    }
+}
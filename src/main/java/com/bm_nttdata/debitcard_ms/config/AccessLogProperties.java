@@ -0,0 +1,33 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades del log de acceso muestreado. Cada solicitud se registra con la probabilidad
+ * configurada para su operación ({@code operations}) o, en su defecto, con
+ * {@code sampleRate}. Las solicitudes fallidas y las lentas se registran siempre.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.access-log")
+public class AccessLogProperties {
+
+    private boolean enabled = true;
+    private double sampleRate = 0.01;
+    private Map<String, Double> operations = new HashMap<>();
+    private boolean alwaysLogErrors = true;
+    private Duration slowThreshold = Duration.ofSeconds(1);
+
+    /**
+     * Obtiene la probabilidad de muestreo de una operación.
+     *
+     * @param operation Identificador de la operación del API
+     * @return Probabilidad de registrar una solicitud de la operación
+     */
+    public double getSampleRate(String operation) {
+        return operations.getOrDefault(operation, sampleRate);
+    }
+}
@@ -0,0 +1,12 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de las cachés locales en memoria utilizadas por el microservicio.
+ */
+@Configuration
+@EnableConfigurationProperties(DebitCardCacheProperties.class)
+public class CacheConfig {
+}
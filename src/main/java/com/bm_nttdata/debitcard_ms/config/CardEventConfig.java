@@ -0,0 +1,54 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import com.bm_nttdata.debitcard_ms.event.CardEventSink;
+import com.bm_nttdata.debitcard_ms.event.FileCardEventSink;
+import com.bm_nttdata.debitcard_ms.event.InMemoryCardEventSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.file.Path;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del destino de publicación de los eventos del ciclo de vida de las
+ * tarjetas de débito. Para publicar en un broker de mensajería basta con declarar otro
+ * bean CardEventSink.
+ */
+@Configuration
+@EnableConfigurationProperties(CardEventProperties.class)
+public class CardEventConfig {
+
+    /**
+     * Destino de publicación según el tipo configurado. Con la publicación activada, el
+     * arranque falla si la reserva de los lotes no supera el tiempo máximo de publicación
+     * o si el destino en fichero no tiene una ruta absoluta.
+     *
+     * @param properties Propiedades de publicación de eventos
+     * @param objectMapper Serializador JSON de la aplicación
+     * @return Destino de publicación de los eventos
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public CardEventSink cardEventSink(CardEventProperties properties, ObjectMapper objectMapper) {
+        if (properties.isEnabled()
+                && properties.getLeaseDuration().compareTo(properties.getPublishTimeout()) <= 0) {
+            throw new IllegalStateException("Card events lease must be longer than the "
+                    + "publish timeout (debitcard.events.lease-duration and .publish-timeout): "
+                    + properties.getLeaseDuration() + " <= " + properties.getPublishTimeout());
+        }
+        return switch (properties.getSink()) {
+            case FILE -> new FileCardEventSink(eventsFile(properties), objectMapper);
+            case MEMORY -> new InMemoryCardEventSink(properties.getMemory().getCapacity());
+        };
+    }
+
+    private static Path eventsFile(CardEventProperties properties) {
+        Path path = Path.of(properties.getFile().getPath());
+        if (properties.isEnabled() && !path.isAbsolute()) {
+            throw new IllegalStateException("Card events file path must be absolute "
+                    + "(debitcard.events.file.path): " + path);
+        }
+        return path;
+    }
+}
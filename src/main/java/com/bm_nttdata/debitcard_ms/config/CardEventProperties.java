@@ -0,0 +1,62 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de configuración de la publicación de eventos del ciclo de vida de las
+ * tarjetas de débito. Con {@code enabled} cada alta, cambio de cuenta principal y
+ * asociación de cuenta guarda su evento junto a la tarjeta, y el relé los publica cada
+ * {@code pollInterval} en lotes de hasta {@code batchSize} tarjetas, que reserva durante
+ * {@code leaseDuration}. La reserva debe superar {@code publishTimeout} para que otra
+ * instancia no vuelva a publicar un lote que aún se está confirmando.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.events")
+public class CardEventProperties {
+
+    private boolean enabled = false;
+
+    private SinkType sink = SinkType.FILE;
+
+    private Duration pollInterval = Duration.ofMillis(200);
+
+    private int batchSize = 100;
+
+    private Duration publishTimeout = Duration.ofSeconds(5);
+
+    private Duration leaseDuration = Duration.ofSeconds(30);
+
+    private File file = new File();
+
+    private Memory memory = new Memory();
+
+    /**
+     * Destino de publicación de los eventos.
+     */
+    public enum SinkType {
+        FILE,
+        MEMORY
+    }
+
+    /**
+     * Configuración del destino que añade los eventos a un fichero, uno por línea en JSON.
+     * La ruta debe ser absoluta, para que no dependa del directorio de trabajo.
+     */
+    @Data
+    public static class File {
+
+        private String path = "/var/lib/debitcard/card-events.jsonl";
+    }
+
+    /**
+     * Configuración del destino en memoria, que conserva los últimos {@code capacity}
+     * eventos publicados.
+     */
+    @Data
+    public static class Memory {
+
+        private int capacity = 10_000;
+    }
+}
@@ -0,0 +1,62 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import com.bm_nttdata.debitcard_ms.security.AesGcmCardSecretCodec;
+import com.bm_nttdata.debitcard_ms.security.CardSecretCodec;
+import com.bm_nttdata.debitcard_ms.security.CardSecretKeyProvider;
+import com.bm_nttdata.debitcard_ms.security.HmacCardSecretCodec;
+import com.bm_nttdata.debitcard_ms.security.KeyStoreCardSecretKeyProvider;
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+/**
+ * Configuración de la codificación del PIN y del código CCV de las tarjetas de débito.
+ * Las claves se obtienen de un almacén de claves local; para utilizar un servicio de
+ * gestión de claves basta con declarar otro bean CardSecretKeyProvider. Sin almacén o sin
+ * contraseña el arranque falla: generar una clave nueva dejaría sin verificar los valores
+ * ya almacenados.
+ */
+@Configuration
+@EnableConfigurationProperties(CardSecretProperties.class)
+public class CardSecretConfig {
+
+    /**
+     * Proveedor de claves respaldado por el almacén de claves configurado.
+     *
+     * @param properties Propiedades de protección de los datos secretos
+     * @return Proveedor de claves
+     */
+    @Bean
+    public CardSecretKeyProvider cardSecretKeyProvider(CardSecretProperties properties) {
+        CardSecretProperties.Keystore keystore = properties.getKeystore();
+        if (!StringUtils.hasText(keystore.getPath())
+                || !StringUtils.hasText(keystore.getPassword())) {
+            throw new IllegalStateException("Card secret keystore path and password are required "
+                    + "(debitcard.security.card-secrets.keystore.path and .password)");
+        }
+        return new KeyStoreCardSecretKeyProvider(
+                Path.of(keystore.getPath()),
+                keystore.getType(),
+                keystore.getPassword().toCharArray(),
+                keystore.getCurrentAlias(),
+                keystore.isGenerateIfMissing());
+    }
+
+    /**
+     * Codificador de los datos secretos según el motor configurado.
+     *
+     * @param properties Propiedades de protección de los datos secretos
+     * @param keyProvider Proveedor de claves
+     * @return Codificador de los datos secretos
+     */
+    @Bean
+    public CardSecretCodec cardSecretCodec(
+            CardSecretProperties properties, CardSecretKeyProvider keyProvider) {
+        return switch (properties.getEngine()) {
+            case AES_GCM -> new AesGcmCardSecretCodec(keyProvider);
+            case HMAC_SHA256 -> new HmacCardSecretCodec(keyProvider);
+        };
+    }
+}
@@ -0,0 +1,40 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de configuración de la protección del PIN y del código CCV de las tarjetas.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.security.card-secrets")
+public class CardSecretProperties {
+
+    private Engine engine = Engine.AES_GCM;
+
+    private Keystore keystore = new Keystore();
+
+    /**
+     * Motor de codificación de los datos secretos.
+     * AES_GCM los cifra de forma recuperable; HMAC_SHA256 almacena solo un resumen
+     * con clave, suficiente para verificarlos.
+     */
+    public enum Engine {
+        AES_GCM,
+        HMAC_SHA256
+    }
+
+    /**
+     * Configuración del almacén de claves local. Cada alias es una clave disponible y
+     * {@code currentAlias} es la clave con la que se codifican los nuevos valores.
+     */
+    @Data
+    public static class Keystore {
+
+        private String path;
+        private String password;
+        private String type = "PKCS12";
+        private String currentAlias = "card-secrets-1";
+        private boolean generateIfMissing = false;
+    }
+}
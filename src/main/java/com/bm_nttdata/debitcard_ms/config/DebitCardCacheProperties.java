@@ -0,0 +1,117 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de configuración de las cachés locales del microservicio.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.cache")
+public class DebitCardCacheProperties {
+
+    private Card card = new Card();
+
+    private Balance balance = new Balance();
+
+    private Validation validation = new Validation();
+
+    private AccountIndex accountIndex = new AccountIndex();
+
+    private LastKnownGood lastKnownGood = new LastKnownGood();
+
+    private Invalidation invalidation = new Invalidation();
+
+    /**
+     * Mecanismo de detección de las modificaciones de tarjetas realizadas por otras
+     * instancias del microservicio.
+     */
+    public enum InvalidationMode {
+        AUTO,
+        CHANGE_STREAM,
+        POLLING,
+        DISABLED
+    }
+
+    /**
+     * Configuración de la caché de tarjetas de débito por identificador.
+     */
+    @Data
+    public static class Card {
+
+        private boolean enabled = true;
+        private long maximumSize = 50_000;
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Configuración de la caché de saldos por cuenta principal.
+     * Un saldo se considera fresco durante {@code freshFor}; entre ese tiempo y
+     * {@code maxStale} se sirve el valor obsoleto mientras se revalida en segundo plano.
+     */
+    @Data
+    public static class Balance {
+
+        private boolean enabled = true;
+        private long maximumSize = 100_000;
+        private Duration freshFor = Duration.ofMillis(300);
+        private Duration maxStale = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Configuración de la caché de validaciones de clientes utilizada al emitir tarjetas.
+     * Los resultados negativos (cliente inexistente o con deudas) tienen su propio TTL.
+     */
+    @Data
+    public static class Validation {
+
+        private boolean enabled = true;
+        private long maximumSize = 20_000;
+        private Duration customerTtl = Duration.ofMinutes(10);
+        private Duration customerNegativeTtl = Duration.ofSeconds(30);
+        private Duration debtsTtl = Duration.ofMinutes(2);
+        private Duration debtsNegativeTtl = Duration.ofSeconds(15);
+    }
+
+    /**
+     * Configuración del índice en memoria de cuentas a tarjetas de débito.
+     */
+    @Data
+    public static class AccountIndex {
+
+        private boolean enabled = true;
+        private long maximumSize = 100_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    /**
+     * Configuración del almacén de últimas respuestas correctas que sirven los fallbacks
+     * cuando un circuito está abierto.
+     */
+    @Data
+    public static class LastKnownGood {
+
+        private boolean enabled = true;
+        private long maximumBalances = 100_000;
+        private long maximumCardLists = 20_000;
+        private Duration ttl = Duration.ofHours(1);
+    }
+
+    /**
+     * Configuración de la invalidación de la caché de tarjetas y del índice de cuentas ante
+     * modificaciones realizadas por otras instancias. Con {@code AUTO} se utilizan change
+     * streams si MongoDB es un replica set o un clúster fragmentado y, en caso contrario,
+     * se consulta cada {@code pollInterval} la fecha de última modificación, con un margen
+     * {@code pollOverlap} para tolerar diferencias de reloj entre instancias.
+     */
+    @Data
+    public static class Invalidation {
+
+        private InvalidationMode mode = InvalidationMode.AUTO;
+        private Duration pollInterval = Duration.ofSeconds(1);
+        private Duration pollOverlap = Duration.ofSeconds(2);
+        private Duration retryBackoff = Duration.ofSeconds(1);
+        private Duration maxRetryBackoff = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,38 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import com.bm_nttdata.debitcard_ms.client.AccountBalanceClient;
+import com.bm_nttdata.debitcard_ms.client.BatchAccountBalanceClient;
+import com.bm_nttdata.debitcard_ms.client.PerAccountBalanceClient;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Configuración de las propiedades de las operaciones de negocio de tarjetas de débito.
+ */
+@Configuration
+@EnableConfigurationProperties(DebitCardServiceProperties.class)
+public class DebitCardServiceConfig {
+
+    /**
+     * Cliente de consulta de saldos de varias cuentas según la estrategia configurada.
+     *
+     * @param accountWebClient Cliente web de account-ms
+     * @param properties Propiedades de las operaciones de negocio
+     * @return Cliente de consulta de saldos
+     */
+    @Bean
+    public AccountBalanceClient accountBalanceClient(
+            @Qualifier("accountWebClient") WebClient accountWebClient,
+            DebitCardServiceProperties properties) {
+        DebitCardServiceProperties.Balances balances = properties.getBalances();
+        return switch (balances.getStrategy()) {
+            case PER_ACCOUNT -> new PerAccountBalanceClient(
+                    accountWebClient, balances.getMaxConcurrency(), balances.getCallTimeout());
+            case BATCH -> new BatchAccountBalanceClient(
+                    accountWebClient, balances.getMaxBatchSize(), balances.getCallTimeout());
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de configuración de las operaciones de negocio de tarjetas de débito.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.service")
+public class DebitCardServiceProperties {
+
+    private Bulk bulk = new Bulk();
+
+    private BatchGet batchGet = new BatchGet();
+
+    private BatchLoader batchLoader = new BatchLoader();
+
+    private Pagination pagination = new Pagination();
+
+    private CardNumber cardNumber = new CardNumber();
+
+    private Validation validation = new Validation();
+
+    private Authorization authorization = new Authorization();
+
+    private Balances balances = new Balances();
+
+    private Updates updates = new Updates();
+
+    /**
+     * Estrategia de generación de números aleatorios para los números de tarjeta.
+     */
+    public enum RandomStrategy {
+        SECURE,
+        SPLITTABLE
+    }
+
+    /**
+     * Estrategia de consulta de los saldos de varias cuentas en account-ms.
+     */
+    public enum BalanceStrategy {
+        PER_ACCOUNT,
+        BATCH
+    }
+
+    /**
+     * Configuración de la emisión masiva de tarjetas de débito.
+     */
+    @Data
+    public static class Bulk {
+
+        private int maxConcurrency = 16;
+        private int chunkSize = 100;
+        private Duration chunkMaxWait = Duration.ofMillis(100);
+    }
+
+    /**
+     * Configuración de la consulta de varias tarjetas de débito en una sola solicitud.
+     */
+    @Data
+    public static class BatchGet {
+
+        private int maxIds = 500;
+    }
+
+    /**
+     * Configuración del agrupador de consultas individuales por identificador.
+     * Las consultas recibidas dentro de la misma ventana se resuelven con una sola
+     * consulta $in.
+     */
+    @Data
+    public static class BatchLoader {
+
+        private boolean enabled = true;
+        private Duration window = Duration.ofMillis(2);
+        private int maxBatchSize = 100;
+    }
+
+    /**
+     * Configuración de la paginación de los listados de tarjetas de débito.
+     */
+    @Data
+    public static class Pagination {
+
+        private int defaultLimit = 100;
+        private int maxLimit = 1000;
+        private int cursorBatchSize = 100;
+    }
+
+    /**
+     * Configuración de la generación de números de tarjeta.
+     */
+    @Data
+    public static class CardNumber {
+
+        private String bin = "455788";
+        private int length = 16;
+        private RandomStrategy random = RandomStrategy.SECURE;
+        private int maxAttempts = 3;
+    }
+
+    /**
+     * Configuración de las validaciones contra los microservicios externos al emitir
+     * tarjetas. Cada consulta tiene su propio tiempo máximo, que incluye la espera por
+     * una conexión del pool.
+     */
+    @Data
+    public static class Validation {
+
+        private Duration customerTimeout = Duration.ofSeconds(2);
+        private Duration accountTimeout = Duration.ofSeconds(2);
+        private Duration creditTimeout = Duration.ofSeconds(2);
+    }
+
+    /**
+     * Configuración de la autorización de pagos con tarjeta. Los saldos de las cuentas se
+     * consultan de forma especulativa, hasta {@code speculativeLookups} a la vez en orden de
+     * prioridad, y cada consulta tiene su propio tiempo máximo.
+     */
+    @Data
+    public static class Authorization {
+
+        private int speculativeLookups = 4;
+        private Duration balanceTimeout = Duration.ofMillis(500);
+    }
+
+    /**
+     * Configuración de la consulta agregada de los saldos de las cuentas de una tarjeta.
+     * Con {@code PER_ACCOUNT} se realiza una llamada por cuenta, hasta
+     * {@code maxConcurrency} a la vez; con {@code BATCH} se utiliza el endpoint de consulta
+     * por lotes de account-ms con hasta {@code maxBatchSize} cuentas por llamada.
+     */
+    @Data
+    public static class Balances {
+
+        private BalanceStrategy strategy = BalanceStrategy.PER_ACCOUNT;
+        private int maxConcurrency = 8;
+        private int maxBatchSize = 50;
+        private Duration callTimeout = Duration.ofMillis(500);
+    }
+
+    /**
+     * Configuración de las actualizaciones de las cuentas de una tarjeta de débito.
+     * El cambio de cuenta principal se condiciona a la versión leída y, si otra operación
+     * ha modificado la tarjeta, se reintenta hasta {@code maxConflictRetries} veces sobre
+     * la versión actual antes de informar el conflicto.
+     */
+    @Data
+    public static class Updates {
+
+        private int maxConflictRetries = 3;
+    }
+}
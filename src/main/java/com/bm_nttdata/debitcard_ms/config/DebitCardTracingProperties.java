@@ -0,0 +1,44 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de configuración de las trazas distribuidas del microservicio.
+ * El muestreo en origen se configura con {@code management.tracing.sampling.probability}
+ * y el exportador OTLP con {@code management.otlp.tracing.endpoint}.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.tracing")
+public class DebitCardTracingProperties {
+
+    private LoggingExporter loggingExporter = new LoggingExporter();
+
+    private TailSampling tailSampling = new TailSampling();
+
+    /**
+     * Exportador que escribe las trazas en el log, para pruebas locales.
+     */
+    @Data
+    public static class LoggingExporter {
+
+        private boolean enabled = false;
+    }
+
+    /**
+     * Muestreo en cola: las trazas se retienen hasta que termina su span raíz local y se
+     * exportan siempre si son lentas o terminan en error; del resto solo se exporta la
+     * fracción {@code baselineProbability}. Requiere registrar todas las trazas en origen
+     * ({@code management.tracing.sampling.probability=1.0}).
+     */
+    @Data
+    public static class TailSampling {
+
+        private boolean enabled = true;
+        private Duration latencyThreshold = Duration.ofMillis(500);
+        private double baselineProbability = 0.1;
+        private long maxBufferedTraces = 10_000;
+        private Duration decisionWait = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,60 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de los reintentos de las llamadas a los microservicios externos.
+ * Cada entrada del mapa {@code retry} corresponde a un servicio destino; el presupuesto
+ * de reintentos es global y se comparte entre todos los servicios. El TimeLimiter y el
+ * bulkhead de cada servicio se configuran en las instancias de Resilience4j con el nombre
+ * del servicio.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.resilience")
+public class DownstreamResilienceProperties {
+
+    private Map<String, Retry> retry = new HashMap<>();
+
+    private RetryBudget retryBudget = new RetryBudget();
+
+    /**
+     * Obtiene la configuración de reintentos de un servicio destino, o la configuración
+     * por defecto si no se ha definido ninguna.
+     *
+     * @param serviceName Nombre del servicio destino
+     * @return Configuración de reintentos para el servicio
+     */
+    public Retry getRetry(String serviceName) {
+        return retry.computeIfAbsent(serviceName, name -> new Retry());
+    }
+
+    /**
+     * Configuración de los reintentos de las solicitudes idempotentes (GET) de un
+     * servicio destino, con espera exponencial y aleatoria entre intentos.
+     */
+    @Data
+    public static class Retry {
+
+        private int maxAttempts = 2;
+        private Duration backoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofMillis(500);
+        private double jitter = 0.5;
+        private Set<Integer> retryableStatuses = Set.of(502, 503, 504);
+    }
+
+    /**
+     * Configuración del presupuesto global de reintentos. Cada solicitud original aporta
+     * {@code ratio} reintentos al saldo disponible, limitado a {@code maxBalance}.
+     */
+    @Data
+    public static class RetryBudget {
+
+        private double ratio = 0.1;
+        private int maxBalance = 20;
+    }
+}
@@ -0,0 +1,110 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+/**
+ * Crea al arrancar la aplicación los índices declarados en la entidad DebitCard y
+ * verifica que todos ellos existan en la colección.
+ * Las claves de los índices compuestos se traducen a los nombres de campo del contexto
+ * de mapeo, que difieren de los nombres de propiedad con el esquema compacto.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(MongoIndexProperties.class)
+public class MongoIndexInitializer implements ApplicationRunner {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    private final MongoMappingContext mappingContext;
+
+    private final MongoIndexProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoPersistentEntity<?> entity =
+                mappingContext.getRequiredPersistentEntity(DebitCard.class);
+        List<IndexDefinition> required = StreamSupport.stream(
+                        new MongoPersistentEntityIndexResolver(mappingContext)
+                                .resolveIndexFor(DebitCard.class).spliterator(), false)
+                .map(IndexDefinition.class::cast)
+                .map(index -> withFieldNames(entity, index))
+                .toList();
+        ReactiveIndexOperations indexOps = mongoTemplate.indexOps(DebitCard.class);
+
+        List<String> missing;
+        try {
+            if (properties.isCreate()) {
+                Flux.fromIterable(required)
+                        .concatMap(indexOps::ensureIndex)
+                        .then()
+                        .block(properties.getTimeout());
+            }
+            Set<String> existing = indexOps.getIndexInfo()
+                    .map(IndexInfo::getName)
+                    .collect(Collectors.toSet())
+                    .block(properties.getTimeout());
+            missing = required.stream()
+                    .map(index -> index.getIndexOptions().getString("name"))
+                    .filter(name -> existing == null || !existing.contains(name))
+                    .toList();
+        } catch (RuntimeException e) {
+            handleMissing("Unable to create or verify debit-card indexes: " + e.getMessage(), e);
+            return;
+        }
+
+        if (missing.isEmpty()) {
+            log.info("Verified {} debit-card indexes", required.size());
+        } else {
+            handleMissing("Missing required debit-card indexes: " + missing, null);
+        }
+    }
+
+    private static IndexDefinition withFieldNames(
+            MongoPersistentEntity<?> entity, IndexDefinition index) {
+        Document keys = new Document();
+        index.getIndexKeys().forEach((key, direction) -> {
+            MongoPersistentProperty property = entity.getPersistentProperty(key);
+            keys.put(property != null ? property.getFieldName() : key, direction);
+        });
+        Document options = index.getIndexOptions();
+        return new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return keys;
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return options;
+            }
+        };
+    }
+
+    private void handleMissing(String message, Throwable cause) {
+        if (properties.getOnMissing() == MongoIndexProperties.OnMissing.FAIL) {
+            throw new IllegalStateException(message, cause);
+        }
+        log.warn(message);
+    }
+}
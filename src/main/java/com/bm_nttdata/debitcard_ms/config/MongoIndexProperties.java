@@ -0,0 +1,25 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de configuración de la gestión de índices de MongoDB.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.mongo.indexes")
+public class MongoIndexProperties {
+
+    /**
+     * Acción a tomar cuando falta un índice requerido tras el arranque.
+     */
+    public enum OnMissing {
+        WARN,
+        FAIL
+    }
+
+    private boolean create = true;
+    private OnMissing onMissing = OnMissing.WARN;
+    private Duration timeout = Duration.ofSeconds(30);
+}
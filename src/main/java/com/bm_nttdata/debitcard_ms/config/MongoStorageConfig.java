@@ -0,0 +1,66 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import com.bm_nttdata.debitcard_ms.storage.CompactFieldNamingStrategy;
+import com.bm_nttdata.debitcard_ms.storage.CompactValueConverters;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.config.EnableReactiveMongoAuditing;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+/**
+ * Configuración del esquema de persistencia de las tarjetas de débito.
+ * Con {@code debitcard.mongo.storage.schema=COMPACT} los documentos se escriben con los
+ * nombres de campo cortos y las codificaciones numéricas de CompactSchema, y sin la clave
+ * de tipo {@code _class}. El esquema compacto requiere migrar antes los documentos
+ * existentes con CompactSchemaMigration.
+ * La auditoría de MongoDB registra la fecha de última modificación de cada tarjeta, que
+ * utiliza DebitCardChangeListener cuando consulta periódicamente los cambios.
+ */
+@Configuration
+@EnableReactiveMongoAuditing
+@EnableConfigurationProperties(MongoStorageProperties.class)
+public class MongoStorageConfig {
+
+    private static final String SCHEMA_PROPERTY = "debitcard.mongo.storage.schema";
+
+    /**
+     * Conversiones personalizadas con los conversores por propiedad del esquema compacto.
+     *
+     * @return Conversiones personalizadas de MongoDB
+     */
+    @Bean
+    @ConditionalOnProperty(name = SCHEMA_PROPERTY, havingValue = "COMPACT")
+    public MongoCustomConversions mongoCustomConversions() {
+        return MongoCustomConversions.create(adapter ->
+                adapter.configurePropertyConversions(CompactValueConverters::register));
+    }
+
+    /**
+     * Aplica la estrategia de nombres compactos al contexto de mapeo y elimina la clave
+     * de tipo del conversor antes de que se inicialicen.
+     *
+     * @return Post-procesador de los beans de mapeo de MongoDB
+     */
+    @Bean
+    @ConditionalOnProperty(name = SCHEMA_PROPERTY, havingValue = "COMPACT")
+    public static BeanPostProcessor compactMappingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof MongoMappingContext mappingContext) {
+                    mappingContext.setFieldNamingStrategy(new CompactFieldNamingStrategy());
+                } else if (bean instanceof MappingMongoConverter converter) {
+                    converter.setTypeMapper(
+                            new DefaultMongoTypeMapper(null, converter.getMappingContext()));
+                }
+                return bean;
+            }
+        };
+    }
+}
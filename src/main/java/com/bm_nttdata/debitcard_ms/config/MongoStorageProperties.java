@@ -0,0 +1,41 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de configuración del esquema de persistencia de las tarjetas de débito
+ * y de su migración al esquema compacto.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.mongo.storage")
+public class MongoStorageProperties {
+
+    /**
+     * Esquema de persistencia de los documentos de tarjetas de débito.
+     */
+    public enum Schema {
+        LEGACY,
+        COMPACT
+    }
+
+    private Schema schema = Schema.LEGACY;
+
+    private Migration migration = new Migration();
+
+    /**
+     * Configuración de la migración de los documentos existentes al esquema compacto.
+     * Los documentos se copian en lotes a la colección destino, de modo que la colección
+     * original se conserva y la migración puede reanudarse si se interrumpe.
+     */
+    @Data
+    public static class Migration {
+
+        private boolean enabled = false;
+        private String sourceCollection = "debit-card";
+        private String targetCollection = "debit-card-compact";
+        private String backupCollection = "debit-card-legacy";
+        private int batchSize = 1_000;
+        private boolean swap = false;
+    }
+}
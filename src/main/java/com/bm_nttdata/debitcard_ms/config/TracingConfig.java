@@ -0,0 +1,54 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import com.bm_nttdata.debitcard_ms.tracing.TailSamplingSpanExporter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.tracing.SpanExporters;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de la exportación de trazas. Los exportadores disponibles (OTLP si se
+ * configura {@code management.otlp.tracing.endpoint}, y el exportador de log si está
+ * habilitado) se agrupan detrás del muestreo en cola cuando este está activo.
+ */
+@Configuration
+@EnableConfigurationProperties(DebitCardTracingProperties.class)
+public class TracingConfig {
+
+    /**
+     * Exportador de trazas al log para pruebas locales.
+     *
+     * @return Exportador de trazas al log
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "debitcard.tracing.logging-exporter", name = "enabled",
+            havingValue = "true")
+    public LoggingSpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+
+    /**
+     * Exportadores de trazas utilizados por el procesador de spans.
+     *
+     * @param exporters Exportadores de trazas registrados
+     * @param properties Propiedades de las trazas
+     * @param meterRegistry Registro de métricas del muestreo
+     * @return Exportadores de trazas, agrupados detrás del muestreo en cola si está activo
+     */
+    @Bean
+    public SpanExporters spanExporters(ObjectProvider<SpanExporter> exporters,
+            DebitCardTracingProperties properties, MeterRegistry meterRegistry) {
+        List<SpanExporter> delegates = exporters.orderedStream().toList();
+        if (!properties.getTailSampling().isEnabled() || delegates.isEmpty()) {
+            return SpanExporters.of(delegates);
+        }
+        return SpanExporters.of(new TailSamplingSpanExporter(
+                SpanExporter.composite(delegates), properties.getTailSampling(), meterRegistry));
+    }
+}
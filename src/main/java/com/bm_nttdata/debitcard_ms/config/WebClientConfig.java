@@ -1,18 +1,50 @@
 package com.bm_nttdata.debitcard_ms.config;
 
+import com.bm_nttdata.debitcard_ms.metrics.DownstreamMetricsFilter;
+import com.bm_nttdata.debitcard_ms.resilience.DownstreamResilienceFilter;
+import io.micrometer.observation.ObservationRegistry;
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 /**
  * Configuración para la creación de instancias de WebClient en la aplicación.
  * Esta clase proporciona la configuración necesaria para crear clientes web reactivos
  * que pueden ser utilizados para realizar llamadas HTTP a servicios externos.
+ * Cada servicio destino dispone de un cliente de larga duración con su propio
+ * pool de conexiones, evitando reconstruir el cliente en cada solicitud, aplica las
+ * políticas de resiliencia del servicio mediante DownstreamResilienceFilter, registra
+ * la latencia de cada intento mediante DownstreamMetricsFilter y propaga el contexto
+ * de traza en las cabeceras de cada solicitud.
  */
 @Configuration
+@RequiredArgsConstructor
+@EnableConfigurationProperties(WebClientProperties.class)
 public class WebClientConfig {
 
+    public static final String ACCOUNT_SERVICE = "account-ms";
+    public static final String CUSTOMER_SERVICE = "customer-ms";
+    public static final String CREDIT_SERVICE = "credit-ms";
+
+    private final DownstreamResilienceFilter downstreamResilienceFilter;
+
+    private final DownstreamMetricsFilter downstreamMetricsFilter;
+
+    private final ObservationRegistry observationRegistry;
+
+    private final List<ConnectionProvider> connectionProviders = new CopyOnWriteArrayList<>();
+
     /**
      * Crea y configura un builder para WebClient con balanceo de carga.
      *
@@ -26,4 +58,84 @@ public class WebClientConfig {
     public WebClient.Builder builder() {
         return WebClient.builder();
     }
+
+    /**
+     * Cliente web compartido para las llamadas al microservicio de cuentas.
+     *
+     * @param builder Builder con balanceo de carga
+     * @param properties Propiedades de los clientes web
+     * @return WebClient configurado para account-ms
+     */
+    @Bean
+    public WebClient accountWebClient(
+            @LoadBalanced WebClient.Builder builder, WebClientProperties properties) {
+        return buildClient(builder, ACCOUNT_SERVICE, properties.getClient(ACCOUNT_SERVICE));
+    }
+
+    /**
+     * Cliente web compartido para las llamadas al microservicio de clientes.
+     *
+     * @param builder Builder con balanceo de carga
+     * @param properties Propiedades de los clientes web
+     * @return WebClient configurado para customer-ms
+     */
+    @Bean
+    public WebClient customerWebClient(
+            @LoadBalanced WebClient.Builder builder, WebClientProperties properties) {
+        return buildClient(builder, CUSTOMER_SERVICE, properties.getClient(CUSTOMER_SERVICE));
+    }
+
+    /**
+     * Cliente web compartido para las llamadas al microservicio de créditos.
+     *
+     * @param builder Builder con balanceo de carga
+     * @param properties Propiedades de los clientes web
+     * @return WebClient configurado para credit-ms
+     */
+    @Bean
+    public WebClient creditWebClient(
+            @LoadBalanced WebClient.Builder builder, WebClientProperties properties) {
+        return buildClient(builder, CREDIT_SERVICE, properties.getClient(CREDIT_SERVICE));
+    }
+
+    /**
+     * Libera los pools de conexiones al detener la aplicación.
+     */
+    @PreDestroy
+    public void disposeConnectionProviders() {
+        connectionProviders.forEach(ConnectionProvider::dispose);
+    }
+
+    private WebClient buildClient(
+            WebClient.Builder builder, String serviceName, WebClientProperties.Client client) {
+        ConnectionProvider provider = ConnectionProvider.builder(serviceName)
+                .maxConnections(client.getMaxConnections())
+                .pendingAcquireMaxCount(client.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(client.getPendingAcquireTimeout())
+                .maxIdleTime(client.getMaxIdleTime())
+                .maxLifeTime(client.getMaxLifeTime())
+                .evictInBackground(client.getEvictInBackground())
+                .metrics(true)
+                .build();
+        connectionProviders.add(provider);
+
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                        (int) client.getConnectTimeout().toMillis())
+                .responseTimeout(client.getResponseTimeout());
+        if (client.isHttp2Enabled()) {
+            httpClient = httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11);
+        }
+
+        String baseUrl = client.getBaseUrl() != null
+                ? client.getBaseUrl()
+                : "http://" + serviceName;
+        return builder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(downstreamResilienceFilter.forTarget(serviceName))
+                .filter(downstreamMetricsFilter.forTarget(serviceName))
+                .observationRegistry(observationRegistry)
+                .build();
+    }
 }
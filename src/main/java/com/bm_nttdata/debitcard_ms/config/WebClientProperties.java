@@ -0,0 +1,48 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de configuración de los clientes web hacia los microservicios externos.
+ * Cada entrada del mapa {@code clients} corresponde a un servicio destino
+ * (account-ms, customer-ms, credit-ms) con su propio pool de conexiones.
+ */
+@Data
+@ConfigurationProperties(prefix = "debitcard.webclient")
+public class WebClientProperties {
+
+    private Map<String, Client> clients = new HashMap<>();
+
+    /**
+     * Obtiene la configuración de un servicio destino, o la configuración por defecto
+     * si no se ha definido ninguna.
+     *
+     * @param serviceName Nombre del servicio destino
+     * @return Configuración del cliente para el servicio
+     */
+    public Client getClient(String serviceName) {
+        return clients.computeIfAbsent(serviceName, name -> new Client());
+    }
+
+    /**
+     * Configuración del cliente y del pool de conexiones para un servicio destino.
+     */
+    @Data
+    public static class Client {
+
+        private String baseUrl;
+        private int maxConnections = 200;
+        private int pendingAcquireMaxCount = 500;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(60);
+        private boolean http2Enabled = true;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration responseTimeout = Duration.ofSeconds(3);
+    }
+}
@@ -0,0 +1,32 @@
+package com.bm_nttdata.debitcard_ms.controller;
+
+import com.bm_nttdata.debitcard_ms.api.AdminApi;
+import com.bm_nttdata.debitcard_ms.cache.ValidationCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Controlador REST para las operaciones administrativas del microservicio.
+ * Esta clase implementa la interfaz AdminApi, generada automáticamente
+ * por OpenAPI Generator.
+ */
+@RestController
+@Slf4j
+@RequiredArgsConstructor
+public class AdminController implements AdminApi {
+
+    private final ValidationCache validationCache;
+
+    @Override
+    public Mono<ResponseEntity<Void>> invalidateCustomerValidationCache(
+            String customerId,
+            ServerWebExchange exchange) {
+        log.info("Invalidating validation cache for customer: {}", customerId);
+        return Mono.fromRunnable(() -> validationCache.invalidateCustomer(customerId))
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()));
+    }
+}
@@ -1,18 +1,38 @@
 package com.bm_nttdata.debitcard_ms.controller;
 
 import com.bm_nttdata.debitcard_ms.api.DebitCardApi;
+import com.bm_nttdata.debitcard_ms.cache.LastKnownGoodStore;
+import com.bm_nttdata.debitcard_ms.exception.AccountNotFoundException;
+import com.bm_nttdata.debitcard_ms.exception.ApiInvalidRequestException;
+import com.bm_nttdata.debitcard_ms.exception.BusinessRuleException;
+import com.bm_nttdata.debitcard_ms.exception.ConcurrentUpdateException;
+import com.bm_nttdata.debitcard_ms.exception.DebitCardNotFoundException;
+import com.bm_nttdata.debitcard_ms.exception.ResourceNotFoundException;
+import com.bm_nttdata.debitcard_ms.exception.ServiceUnavailableException;
 import com.bm_nttdata.debitcard_ms.model.AccountAssociationRequestDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationRequestDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationResponseDto;
 import com.bm_nttdata.debitcard_ms.model.BalanceResponseDto;
+import com.bm_nttdata.debitcard_ms.model.BatchGetDebitCardResultDto;
+import com.bm_nttdata.debitcard_ms.model.BatchGetDebitCardsRequestDto;
+import com.bm_nttdata.debitcard_ms.model.BulkDebitCardResultDto;
+import com.bm_nttdata.debitcard_ms.model.CardBalancesResponseDto;
 import com.bm_nttdata.debitcard_ms.model.DebitCardRequestDto;
 import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
 import com.bm_nttdata.debitcard_ms.model.PrimaryAccountRequestDto;
 import com.bm_nttdata.debitcard_ms.service.DebitCardService;
-import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -22,142 +42,253 @@ import reactor.core.publisher.Mono;
  * Esta clase implementa la interfaz DebitCardApi,
  * generada automáticamente por OpenAPI Generator, para proporcionar
  * los endpoints definidos en la especificación OpenAPI.
+ * Los circuit breakers se aplican de forma programática: los métodos {@code _operacion}
+ * generados invocan a las implementaciones sobre la propia instancia, por lo que las
+ * anotaciones de Resilience4j nunca llegaban a interceptar las solicitudes HTTP.
+ * Con el circuito abierto, el saldo y los listados de tarjetas de un cliente o de una cuenta
+ * se sirven desde la última respuesta correcta conocida, marcada con las cabeceras Age y
+ * Warning.
  */
 @RestController
 @Slf4j
 @RequiredArgsConstructor
 public class DebitCardController implements DebitCardApi {
 
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
+    private static final String UNAVAILABLE_MESSAGE =
+            "We are experiencing some errors. Please try again later";
+
     private final DebitCardService debitCardService;
 
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
     @Override
     public Mono<ResponseEntity<DebitCardResponseDto>> getDebitCard(
             String cardId,
             ServerWebExchange exchange) {
-        log.info("Getting debit card : {}", cardId);
+        log.debug("Getting debit card: {}", cardId);
         return debitCardService.getDebitCard(cardId)
-                .map(ResponseEntity::ok)
-                .doOnSuccess(response -> log.info("Retrieved debit card: {}", cardId))
-                ;
+                .map(ResponseEntity::ok);
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<BatchGetDebitCardResultDto>>> batchGetDebitCards(
+            Mono<BatchGetDebitCardsRequestDto> batchGetDebitCardsRequestDto,
+            ServerWebExchange exchange) {
+        log.debug("Getting debit cards in batch");
+        return Mono.just(ResponseEntity.ok(
+                debitCardService.batchGetDebitCards(batchGetDebitCardsRequestDto)));
     }
 
     @Override
-    @CircuitBreaker(
-            name = "getDebitCardsByCustomer", fallbackMethod = "getDebitCardsByCustomerFallback")
     public Mono<ResponseEntity<Flux<DebitCardResponseDto>>> getDebitCardsByCustomer(
             String customerId,
+            String accountId,
+            String afterId,
+            Integer limit,
+            String status,
             ServerWebExchange exchange) {
-        log.info("Getting debit cards for customer: {}", customerId);
-        return Mono.just(ResponseEntity.ok(
-                debitCardService.getDebitCardsByCustomer(customerId)
-                        .doOnComplete(() ->
-                                log.info("Retrieved debit cards for customer: {}", customerId))
-        ));
+        if (accountId != null) {
+            if (customerId != null || afterId != null || limit != null || status != null) {
+                return Mono.error(new ApiInvalidRequestException(
+                        "Account ID cannot be combined with customerId, afterId, limit or status"));
+            }
+            log.debug("Getting debit cards for account: {}", accountId);
+            return streamWithCircuitBreaker("getDebitCardsByAccount",
+                    () -> debitCardService.getDebitCardsByAccount(accountId),
+                    e -> getDebitCardsByAccountFallback(accountId, e));
+        }
+        if (customerId == null) {
+            return Mono.error(
+                    new ApiInvalidRequestException("Customer ID or account ID is required"));
+        }
+        log.debug("Getting debit cards for customer: {}", customerId);
+        return streamWithCircuitBreaker("getDebitCardsByCustomer",
+                () -> debitCardService.getDebitCardsByCustomer(customerId, afterId, limit, status),
+                e -> getDebitCardsByCustomerFallback(customerId, afterId, limit, status, e));
     }
 
     @Override
-    @CircuitBreaker(name = "createDebitCard", fallbackMethod = "createDebitCardFallback")
     public Mono<ResponseEntity<DebitCardResponseDto>> createDebitCard(
             Mono<DebitCardRequestDto> debitCardRequestDto,
             ServerWebExchange exchange) {
-        log.info("Creating debit card: {}", debitCardRequestDto);
-        return debitCardService.createDebitCard(debitCardRequestDto)
-                .map(ResponseEntity::ok)
-                .doOnSuccess(response -> log.info("Debit card created successfully"));
+        log.debug("Creating debit card");
+        return withCircuitBreaker("createDebitCard",
+                debitCardService.createDebitCard(debitCardRequestDto)
+                        .map(ResponseEntity::ok),
+                e -> unavailable("creating debit card", e));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Flux<BulkDebitCardResultDto>>> createDebitCardsBulk(
+            Flux<DebitCardRequestDto> debitCardRequestDto,
+            ServerWebExchange exchange) {
+        log.debug("Creating debit cards in bulk");
+        return streamWithCircuitBreaker("createDebitCardsBulk",
+                () -> debitCardService.createDebitCardsBulk(debitCardRequestDto),
+                e -> unavailable("creating debit cards in bulk", e));
     }
 
     @Override
-    @CircuitBreaker(name = "associateAccount", fallbackMethod = "associateAccountFallback")
     public Mono<ResponseEntity<DebitCardResponseDto>> associateAccount(
             String cardId,
             Mono<AccountAssociationRequestDto> accountAssociationRequestDto,
             ServerWebExchange exchange) {
-        log.info("Associating account to debit card: {}", cardId);
-        return debitCardService.associateAccount(cardId, accountAssociationRequestDto)
-                .map(ResponseEntity::ok)
-                .doOnSuccess(response -> log.info("Account association successful"));
+        log.debug("Associating account to debit card: {}", cardId);
+        return withCircuitBreaker("associateAccount",
+                debitCardService.associateAccount(cardId, accountAssociationRequestDto)
+                        .map(ResponseEntity::ok),
+                e -> unavailable("associating account to debit card " + cardId, e));
     }
 
     @Override
-    @CircuitBreaker(
-            name = "getPrimaryAccountBalance", fallbackMethod = "getPrimaryAccountBalanceFallback")
     public Mono<ResponseEntity<BalanceResponseDto>> getPrimaryAccountBalance(
             String cardId,
             ServerWebExchange exchange) {
-        log.info("Getting balance for debit card: {}", cardId);
-        return debitCardService.getPrimaryAccountBalance(cardId)
-                .map(ResponseEntity::ok)
-                .doOnSuccess(response -> log.info("Retrieved balance for card: {}", cardId));
+        log.debug("Getting balance for debit card: {}", cardId);
+        return withCircuitBreaker("getPrimaryAccountBalance",
+                debitCardService.getPrimaryAccountBalance(cardId)
+                        .map(ResponseEntity::ok),
+                e -> getPrimaryAccountBalanceFallback(cardId, e));
     }
 
     @Override
-    @CircuitBreaker(name = "updatePrimaryAccount", fallbackMethod = "updatePrimaryAccountFallback")
     public Mono<ResponseEntity<DebitCardResponseDto>> updatePrimaryAccount(
             String cardId,
             Mono<PrimaryAccountRequestDto> primaryAccountRequestDto,
             ServerWebExchange exchange) {
-        log.info("Updating credit card: {}", cardId);
-        return debitCardService.updatePrimaryAccount(cardId, primaryAccountRequestDto)
-                .map(ResponseEntity::ok)
-                .doOnSuccess(response -> log.info("Primary account updated for card: {}", cardId));
+        log.debug("Updating primary account of debit card: {}", cardId);
+        return withCircuitBreaker("updatePrimaryAccount",
+                debitCardService.updatePrimaryAccount(cardId, primaryAccountRequestDto)
+                        .map(ResponseEntity::ok),
+                e -> unavailable("updating primary account of debit card " + cardId, e));
     }
 
-    private Mono<ResponseEntity<String>> createDebitCardFallback(
-            Mono<DebitCardRequestDto> debitCardRequestDto,
-            ServerWebExchange exchange,
-            Exception e) {
-        log.error("Fallback: Error creating debit card: {}", e.getMessage());
-        return Mono.just(ResponseEntity
-                        .status(HttpStatus.SERVICE_UNAVAILABLE)
-                        .body("We are experiencing some errors. Please try again later"));
+    @Override
+    public Mono<ResponseEntity<CardBalancesResponseDto>> getDebitCardBalances(
+            String cardId,
+            ServerWebExchange exchange) {
+        log.debug("Getting balances of all accounts for debit card: {}", cardId);
+        return withCircuitBreaker("getDebitCardBalances",
+                debitCardService.getDebitCardBalances(cardId)
+                        .map(ResponseEntity::ok),
+                e -> unavailable("getting balances of debit card " + cardId, e));
     }
 
-    private Mono<ResponseEntity<DebitCardResponseDto>> associateAccountFallback(
+    @Override
+    public Mono<ResponseEntity<AuthorizationResponseDto>> authorizeDebitCard(
             String cardId,
-            Mono<AccountAssociationRequestDto> accountAssociationRequestDto,
-            Exception e) {
-        log.error(
-                "Fallback: Error sssociating account to debit cards {}: {}",
-                cardId, e.getMessage());
-        return Mono.just(
-                new ResponseEntity(
-                        "We are experiencing some errors. Please try again later",
-                        HttpStatus.SERVICE_UNAVAILABLE));
+            Mono<AuthorizationRequestDto> authorizationRequestDto,
+            ServerWebExchange exchange) {
+        log.debug("Authorizing payment with debit card: {}", cardId);
+        return withCircuitBreaker("authorizeDebitCard",
+                debitCardService.authorizeDebitCard(cardId, authorizationRequestDto)
+                        .map(ResponseEntity::ok),
+                e -> unavailable("authorizing payment with debit card " + cardId, e));
     }
 
     private Mono<ResponseEntity<BalanceResponseDto>> getPrimaryAccountBalanceFallback(
-            String cardId,
-            Exception e) {
-        log.error(
-                "Fallback: Error when obtaining debit card balance {}: {}",
-                cardId, e.getMessage());
-        return Mono.just(
-                new ResponseEntity(
-                        "We are experiencing some errors. Please try again later",
-                        HttpStatus.SERVICE_UNAVAILABLE));
+            String cardId, Throwable e) {
+        if (isClientError(e)) {
+            return Mono.error(e);
+        }
+        logFallback("when obtaining debit card balance " + cardId, e);
+        return debitCardService.getLastKnownPrimaryAccountBalance(cardId)
+                .map(snapshot -> staleResponse(snapshot, snapshot.value()))
+                .onErrorResume(lookupError -> Mono.empty())
+                .switchIfEmpty(Mono.error(() ->
+                        new ServiceUnavailableException(UNAVAILABLE_MESSAGE)));
     }
 
-    private Mono<ResponseEntity<DebitCardResponseDto>> updatePrimaryAccountFallback(
-            String cardId,
-            Mono<PrimaryAccountRequestDto> primaryAccountRequestDto,
-            Exception e) {
-        log.error(
-                "Fallback: Error updating primary account to debit card {}: {}",
-                cardId, e.getMessage());
-        return Mono.just(
-                new ResponseEntity(
-                        "We are experiencing some errors. Please try again later",
-                        HttpStatus.SERVICE_UNAVAILABLE));
+    private Mono<ResponseEntity<Flux<DebitCardResponseDto>>> getDebitCardsByCustomerFallback(
+            String customerId, String afterId, Integer limit, String status, Throwable e) {
+        if (isClientError(e)) {
+            return Mono.error(e);
+        }
+        logFallback("getting debit cards for customer " + customerId, e);
+        return debitCardService.getLastKnownDebitCardsByCustomer(customerId, afterId, limit, status)
+                .map(snapshot -> staleResponse(snapshot, Flux.fromIterable(snapshot.value())))
+                .switchIfEmpty(Mono.error(() ->
+                        new ServiceUnavailableException(UNAVAILABLE_MESSAGE)));
     }
 
-    private Mono<ResponseEntity<Flux<DebitCardResponseDto>>> getDebitCardsByCustomerFallback(
-            String customerId, Exception e) {
-        log.error(
-                "Fallback: Error getting debit cards for customer {}: {}",
-                customerId, e.getMessage());
-        return Mono.just(
-                new ResponseEntity(
-                        "We are experiencing some errors. Please try again later",
-                        HttpStatus.SERVICE_UNAVAILABLE));
+    private Mono<ResponseEntity<Flux<DebitCardResponseDto>>> getDebitCardsByAccountFallback(
+            String accountId, Throwable e) {
+        if (isClientError(e)) {
+            return Mono.error(e);
+        }
+        logFallback("getting debit cards for account " + accountId, e);
+        return debitCardService.getLastKnownDebitCardsByAccount(accountId)
+                .map(snapshot -> staleResponse(snapshot, Flux.fromIterable(snapshot.value())))
+                .switchIfEmpty(Mono.error(() ->
+                        new ServiceUnavailableException(UNAVAILABLE_MESSAGE)));
+    }
+
+    private <T> Mono<T> unavailable(String operation, Throwable e) {
+        if (isClientError(e)) {
+            return Mono.error(e);
+        }
+        logFallback(operation, e);
+        return Mono.error(new ServiceUnavailableException(UNAVAILABLE_MESSAGE));
+    }
+
+    private static void logFallback(String operation, Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            log.debug("Fallback: Circuit open {}", operation);
+        } else {
+            log.error("Fallback: Error {}: {}", operation, e.getMessage());
+        }
+    }
+
+    private <T> Mono<ResponseEntity<T>> withCircuitBreaker(
+            String name,
+            Mono<ResponseEntity<T>> call,
+            Function<Throwable, Mono<ResponseEntity<T>>> fallback) {
+        return call
+                .transformDeferred(CircuitBreakerOperator.of(
+                        circuitBreakerRegistry.circuitBreaker(name)))
+                .onErrorResume(fallback);
+    }
+
+    /**
+     * Aplica el circuit breaker a una respuesta en streaming. Como las cabeceras se emiten
+     * antes que el cuerpo, el fallback solo puede sustituir la respuesta completa cuando el
+     * circuito no admite la llamada; los errores posteriores se registran en el circuito y
+     * se propagan en el propio flujo.
+     */
+    private <T> Mono<ResponseEntity<Flux<T>>> streamWithCircuitBreaker(
+            String name,
+            Supplier<Flux<T>> body,
+            Function<Throwable, Mono<ResponseEntity<Flux<T>>>> fallback) {
+        return Mono.defer(() -> {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return fallback.apply(
+                        CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+            }
+            circuitBreaker.releasePermission();
+            return Mono.just(ResponseEntity.ok(
+                    body.get().transformDeferred(CircuitBreakerOperator.of(circuitBreaker))));
+        });
+    }
+
+    private static <T> ResponseEntity<T> staleResponse(
+            LastKnownGoodStore.Snapshot<?> snapshot, T body) {
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(snapshot.age().toSeconds()))
+                .header(HttpHeaders.WARNING, STALE_WARNING)
+                .body(body);
+    }
+
+    private static boolean isClientError(Throwable e) {
+        return e instanceof ApiInvalidRequestException
+                || e instanceof BusinessRuleException
+                || e instanceof ConcurrentUpdateException
+                || e instanceof DebitCardNotFoundException
+                || e instanceof AccountNotFoundException
+                || e instanceof ResourceNotFoundException
+                || e instanceof ResponseStatusException responseStatus
+                        && responseStatus.getStatusCode().is4xxClientError();
     }
 }
@@ -0,0 +1,26 @@
+package com.bm_nttdata.debitcard_ms.entity;
+
+import com.bm_nttdata.debitcard_ms.entity.enums.CardEventTypeEnum;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Evento pendiente de publicación almacenado en el propio documento de la tarjeta de
+ * débito, escrito en la misma operación atómica que la modificación que lo origina.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CardOutboxEvent {
+
+    private String eventId;
+    private CardEventTypeEnum type;
+    private String accountId;
+    private String previousAccountId;
+    private LocalDateTime occurredAt;
+
+}
@@ -7,28 +7,46 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
  * Entidad que representa a las tarjetas de débito en el sistema bancario.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 @Document(collection = "debit-card")
+@CompoundIndex(name = "customerId_active", def = "{'customerId': 1, 'active': 1}")
+@CompoundIndex(name = "customerId_id", def = "{'customerId': 1, '_id': 1}")
+@CompoundIndex(name = "pendingEvents_occurredAt", def = "{'pendingEvents.occurredAt': 1}",
+        sparse = true)
 public class DebitCard {
 
     private String id;
+    @Indexed(name = "cardNumber", unique = true)
     private String cardNumber;
+    @Indexed(name = "customerId")
     private String customerId;
+    @Indexed(name = "primaryAccountId")
     private String primaryAccountId;
+    @Indexed(name = "associatedAccountIds")
     private List<String> associatedAccountIds;
     private String expirationDate;
     private String ccvCode;
     private String cardPin;
     private LocalDateTime creationDate;
     private CardStatusEnum active;
+    @LastModifiedDate
+    @Indexed(name = "lastModifiedDate")
+    private LocalDateTime lastModifiedDate;
+    @Version
+    private Long version;
+    private List<CardOutboxEvent> pendingEvents;
 
 }
 
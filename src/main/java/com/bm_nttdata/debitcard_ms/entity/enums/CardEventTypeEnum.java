@@ -0,0 +1,12 @@
+package com.bm_nttdata.debitcard_ms.entity.enums;
+
+/**
+ * Enumeración que representa los tipos de eventos del ciclo de vida de una tarjeta de
+ * débito publicados a los sistemas consumidores.
+ */
+public enum CardEventTypeEnum {
+
+    CARD_CREATED,
+    PRIMARY_ACCOUNT_CHANGED,
+    ACCOUNT_ASSOCIATED
+}
@@ -0,0 +1,181 @@
+package com.bm_nttdata.debitcard_ms.event;
+
+import com.bm_nttdata.debitcard_ms.config.CardEventProperties;
+import com.bm_nttdata.debitcard_ms.entity.CardOutboxEvent;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardEventTypeEnum;
+import com.bm_nttdata.debitcard_ms.repository.DebitCardRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Relé de la bandeja de salida de las tarjetas de débito. Cada {@code pollInterval}
+ * reserva las tarjetas con eventos pendientes, empezando por el evento más antiguo, los
+ * publica en lotes a través del CardEventSink y los elimina de la bandeja una vez
+ * aceptados; mientras los lotes salen completos sigue publicando sin esperar al siguiente
+ * intervalo. Solo hay un lote en curso a la vez, de modo que un destino lento frena la
+ * publicación.
+ * Cada instancia reserva las tarjetas de su lote durante {@code leaseDuration}, por lo que
+ * varias instancias pueden ejecutar el relé a la vez sin publicar las mismas tarjetas.
+ * La entrega es al menos una vez, identificada por {@code eventId}: si la publicación
+ * falla los eventos permanecen en la bandeja y se reintentan con los mismos
+ * identificadores, y si la instancia se detiene o tarda más que la reserva en confirmar
+ * el lote, otra instancia puede volver a publicarlo. Los consumidores deben descartar los
+ * eventos cuyo {@code eventId} ya hayan procesado.
+ */
+@Slf4j
+@Component
+public class CardEventRelay implements ApplicationRunner {
+
+    private final DebitCardRepository debitCardRepository;
+
+    private final CardEventSink cardEventSink;
+
+    private final CardEventProperties config;
+
+    private final String relayOwner = UUID.randomUUID().toString();
+
+    private final Map<CardEventTypeEnum, Counter> publishedEvents =
+            new EnumMap<>(CardEventTypeEnum.class);
+
+    private final Timer publishLag;
+
+    private final DistributionSummary batchSizes;
+
+    private final Counter publishFailures;
+
+    private volatile Disposable subscription;
+
+    /**
+     * Construye el relé de eventos.
+     *
+     * @param debitCardRepository Repositorio de tarjetas de débito
+     * @param cardEventSink Destino de publicación de los eventos
+     * @param properties Propiedades de publicación de eventos
+     * @param meterRegistry Registro de métricas
+     */
+    public CardEventRelay(
+            DebitCardRepository debitCardRepository,
+            CardEventSink cardEventSink,
+            CardEventProperties properties,
+            MeterRegistry meterRegistry) {
+        this.debitCardRepository = debitCardRepository;
+        this.cardEventSink = cardEventSink;
+        this.config = properties;
+        for (CardEventTypeEnum type : CardEventTypeEnum.values()) {
+            publishedEvents.put(type, Counter.builder("debitcard.events.published")
+                    .description("Card lifecycle events accepted by the event sink")
+                    .tag("type", type.name())
+                    .register(meterRegistry));
+        }
+        this.publishLag = Timer.builder("debitcard.events.publish.lag")
+                .description("Time from a card change to the publication of its event")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("debitcard.events.publish.batch.size")
+                .description("Number of events per published batch")
+                .register(meterRegistry);
+        this.publishFailures = Counter.builder("debitcard.events.publish.failures")
+                .description("Event batches that could not be published and will be retried")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        subscription = Flux.interval(config.getPollInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> drain(), 1)
+                .subscribe();
+    }
+
+    /**
+     * Detiene la publicación de eventos al detener la aplicación.
+     */
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Void> drain() {
+        return relayBatch()
+                .expand(cards -> cards < config.getBatchSize() ? Mono.empty() : relayBatch())
+                .onErrorResume(e -> {
+                    publishFailures.increment();
+                    log.warn("Unable to publish card events, retrying later: {}",
+                            e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /**
+     * Reserva un lote de tarjetas y publica sus eventos pendientes.
+     *
+     * @return Un Mono con el número de tarjetas del lote
+     */
+    private Mono<Integer> relayBatch() {
+        return debitCardRepository.claimPendingEvents(
+                        relayOwner, config.getLeaseDuration(), config.getBatchSize())
+                .collectList()
+                .flatMap(cards -> {
+                    if (cards.isEmpty()) {
+                        return Mono.just(0);
+                    }
+                    List<CardLifecycleEvent> events = cards.stream()
+                            .flatMap(card -> card.getPendingEvents().stream()
+                                    .sorted(Comparator.comparing(
+                                            CardOutboxEvent::getOccurredAt))
+                                    .map(event -> toLifecycleEvent(card, event)))
+                            .toList();
+                    return cardEventSink.publish(events)
+                            .timeout(config.getPublishTimeout())
+                            .then(debitCardRepository.removePendingEvents(relayOwner,
+                                    cards.stream().map(DebitCard::getId).toList(),
+                                    events.stream().map(CardLifecycleEvent::eventId).toList()))
+                            .then(Mono.fromRunnable(() -> recordPublished(events)))
+                            .thenReturn(cards.size());
+                });
+    }
+
+    private void recordPublished(List<CardLifecycleEvent> events) {
+        LocalDateTime now = LocalDateTime.now();
+        for (CardLifecycleEvent event : events) {
+            publishedEvents.get(event.type()).increment();
+            publishLag.record(Duration.between(event.occurredAt().toLocalDateTime(), now));
+        }
+        batchSizes.record(events.size());
+    }
+
+    private static CardLifecycleEvent toLifecycleEvent(DebitCard card, CardOutboxEvent event) {
+        return new CardLifecycleEvent(
+                event.getEventId(),
+                event.getType(),
+                card.getId(),
+                card.getCustomerId(),
+                event.getAccountId(),
+                event.getPreviousAccountId(),
+                event.getOccurredAt().atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,22 @@
+package com.bm_nttdata.debitcard_ms.event;
+
+import java.util.List;
+import reactor.core.publisher.Mono;
+
+/**
+ * Destino de publicación de los eventos del ciclo de vida de las tarjetas de débito.
+ * La entrega es al menos una vez: un lote cuya publicación falla, o cuya confirmación no
+ * llega a registrarse, se vuelve a publicar con los mismos identificadores de evento.
+ */
+public interface CardEventSink {
+
+    /**
+     * Publica un lote de eventos. El relé no solicita el siguiente lote hasta que el Mono
+     * devuelto completa, por lo que un destino lento frena la publicación sin acumular
+     * eventos en memoria.
+     *
+     * @param events Eventos a publicar, en orden de registro dentro de cada tarjeta
+     * @return Un Mono que completa cuando el destino ha aceptado todos los eventos
+     */
+    Mono<Void> publish(List<CardLifecycleEvent> events);
+}
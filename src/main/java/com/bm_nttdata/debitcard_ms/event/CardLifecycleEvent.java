@@ -0,0 +1,28 @@
+package com.bm_nttdata.debitcard_ms.event;
+
+import com.bm_nttdata.debitcard_ms.entity.enums.CardEventTypeEnum;
+import java.time.OffsetDateTime;
+
+/**
+ * Evento del ciclo de vida de una tarjeta de débito tal y como se publica. El
+ * identificador del evento se asigna al registrar la modificación y se conserva en cada
+ * reintento de publicación, de modo que los consumidores pueden descartar duplicados.
+ *
+ * @param eventId Identificador único e invariable del evento
+ * @param type Tipo de evento
+ * @param cardId Identificador de la tarjeta de débito
+ * @param customerId Identificador del cliente titular
+ * @param accountId Cuenta creada como principal, asociada o nueva cuenta principal
+ * @param previousAccountId Cuenta principal sustituida, solo en los cambios de cuenta
+ *                          principal
+ * @param occurredAt Instante en que se registró la modificación
+ */
+public record CardLifecycleEvent(
+        String eventId,
+        CardEventTypeEnum type,
+        String cardId,
+        String customerId,
+        String accountId,
+        String previousAccountId,
+        OffsetDateTime occurredAt) {
+}
@@ -0,0 +1,79 @@
+package com.bm_nttdata.debitcard_ms.event;
+
+import com.bm_nttdata.debitcard_ms.config.CardEventProperties;
+import com.bm_nttdata.debitcard_ms.entity.CardOutboxEvent;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardEventTypeEnum;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.types.ObjectId;
+import org.springframework.stereotype.Component;
+
+/**
+ * Construye los eventos del ciclo de vida que se guardan en la bandeja de salida de cada
+ * tarjeta de débito, en la misma escritura que la modificación que los origina. Con la
+ * publicación de eventos desactivada no se registra ningún evento.
+ */
+@Component
+public class CardOutbox {
+
+    private final boolean enabled;
+
+    /**
+     * Construye el registro de eventos de la bandeja de salida.
+     *
+     * @param properties Propiedades de publicación de eventos
+     */
+    public CardOutbox(CardEventProperties properties) {
+        this.enabled = properties.isEnabled();
+    }
+
+    /**
+     * Añade el evento de alta a una tarjeta de débito que aún no se ha insertado.
+     *
+     * @param debitCard Tarjeta de débito nueva
+     */
+    public void recordCreation(DebitCard debitCard) {
+        if (enabled) {
+            List<CardOutboxEvent> events = new ArrayList<>(1);
+            events.add(event(CardEventTypeEnum.CARD_CREATED,
+                    debitCard.getPrimaryAccountId(), null));
+            debitCard.setPendingEvents(events);
+        }
+    }
+
+    /**
+     * Construye el evento de asociación de una cuenta.
+     *
+     * @param accountId Cuenta asociada
+     * @return El evento, o null si la publicación de eventos está desactivada
+     */
+    public CardOutboxEvent accountAssociated(String accountId) {
+        return enabled ? event(CardEventTypeEnum.ACCOUNT_ASSOCIATED, accountId, null) : null;
+    }
+
+    /**
+     * Construye el evento de cambio de cuenta principal.
+     *
+     * @param previousAccountId Cuenta principal sustituida
+     * @param accountId Nueva cuenta principal
+     * @return El evento, o null si la publicación de eventos está desactivada
+     */
+    public CardOutboxEvent primaryAccountChanged(String previousAccountId, String accountId) {
+        return enabled
+                ? event(CardEventTypeEnum.PRIMARY_ACCOUNT_CHANGED, accountId, previousAccountId)
+                : null;
+    }
+
+    private static CardOutboxEvent event(
+            CardEventTypeEnum type, String accountId, String previousAccountId) {
+        return CardOutboxEvent.builder()
+                .eventId(new ObjectId().toHexString())
+                .type(type)
+                .accountId(accountId)
+                .previousAccountId(previousAccountId)
+                .occurredAt(LocalDateTime.now())
+                .build();
+    }
+}
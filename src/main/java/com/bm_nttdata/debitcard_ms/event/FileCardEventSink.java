@@ -0,0 +1,61 @@
+package com.bm_nttdata.debitcard_ms.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Destino de publicación que añade los eventos a un fichero, uno por línea en formato
+ * JSON. Cada lote se escribe con una sola operación de escritura fuera de los hilos de
+ * eventos.
+ */
+public class FileCardEventSink implements CardEventSink {
+
+    private final Path path;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Construye el destino en fichero.
+     *
+     * @param path Ruta del fichero de eventos; se crea si no existe
+     * @param objectMapper Serializador JSON
+     */
+    public FileCardEventSink(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Mono<Void> publish(List<CardLifecycleEvent> events) {
+        return Mono.<Void>fromRunnable(() -> append(events))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private synchronized void append(List<CardLifecycleEvent> events) {
+        StringBuilder lines = new StringBuilder(events.size() * 256);
+        try {
+            for (CardLifecycleEvent event : events) {
+                lines.append(objectMapper.writeValueAsString(event)).append('\n');
+            }
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(path, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize card events", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write card events to " + path, e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.bm_nttdata.debitcard_ms.event;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import reactor.core.publisher.Mono;
+
+/**
+ * Destino de publicación que conserva en memoria los últimos eventos publicados, pensado
+ * para pruebas y entornos locales. Al superar la capacidad se descartan los más antiguos.
+ */
+public class InMemoryCardEventSink implements CardEventSink {
+
+    private final int capacity;
+
+    private final Deque<CardLifecycleEvent> events;
+
+    /**
+     * Construye el destino en memoria.
+     *
+     * @param capacity Número máximo de eventos conservados
+     */
+    public InMemoryCardEventSink(int capacity) {
+        this.capacity = capacity;
+        this.events = new ArrayDeque<>(Math.min(capacity, 1_024));
+    }
+
+    @Override
+    public Mono<Void> publish(List<CardLifecycleEvent> batch) {
+        return Mono.fromRunnable(() -> {
+            synchronized (events) {
+                for (CardLifecycleEvent event : batch) {
+                    if (events.size() == capacity) {
+                        events.removeFirst();
+                    }
+                    events.addLast(event);
+                }
+            }
+        });
+    }
+
+    /**
+     * Obtiene los eventos conservados, del más antiguo al más reciente.
+     *
+     * @return Copia de los eventos publicados
+     */
+    public List<CardLifecycleEvent> getEvents() {
+        synchronized (events) {
+            return List.copyOf(events);
+        }
+    }
+}
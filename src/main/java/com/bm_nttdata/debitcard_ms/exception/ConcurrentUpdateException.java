@@ -0,0 +1,17 @@
+package com.bm_nttdata.debitcard_ms.exception;
+
+/**
+ * Excepción que se lanza cuando una tarjeta de débito ha sido modificada por otra
+ * operación concurrente y la actualización no puede aplicarse sobre la versión leída.
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+
+    /**
+     * Construye una nueva excepción de modificación concurrente con el mensaje especificado.
+     *
+     * @param message Mensaje que describe el conflicto
+     */
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
@@ -53,6 +53,18 @@ public class GlobalExceptionHandler {
                 HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage(), "BUSINESS_RULE_VIOLATION");
     }
 
+    /**
+     * Maneja las excepciones de tipo ConcurrentUpdateException.
+     *
+     * @param ex La excepción de modificación concurrente
+     * @return ResponseEntity con los detalles del error y estado HTTP 409
+     */
+    @ExceptionHandler(ConcurrentUpdateException.class)
+    public ResponseEntity<Map<String, Object>> handleConcurrentUpdateException(
+            ConcurrentUpdateException ex) {
+        return createErrorResponse(HttpStatus.CONFLICT, ex.getMessage(), "CONCURRENT_UPDATE");
+    }
+
     /**
      * Maneja las excepciones de tipo ServiceException.
      *
@@ -65,6 +77,19 @@ public class GlobalExceptionHandler {
                 HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), "SERVICE_EXCEPTION");
     }
 
+    /**
+     * Maneja las excepciones de tipo ServiceUnavailableException.
+     *
+     * @param ex La excepción de servicio no disponible
+     * @return ResponseEntity con los detalles del error y estado HTTP 503
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceUnavailableException(
+            ServiceUnavailableException ex) {
+        return createErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), "SERVICE_UNAVAILABLE");
+    }
+
     /**
      * Maneja las excepciones de tipo ApiInvalidRequestException.
      *
@@ -0,0 +1,18 @@
+package com.bm_nttdata.debitcard_ms.exception;
+
+/**
+ * Excepción que indica que una operación no puede atenderse temporalmente porque su
+ * circuito está abierto o un servicio del que depende ha fallado, y no existe una
+ * respuesta alternativa que servir.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Construye una nueva excepción de servicio no disponible con el mensaje especificado.
+     *
+     * @param message Mensaje que describe la razón del error
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,165 @@
+package com.bm_nttdata.debitcard_ms.generator;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties;
+import java.security.SecureRandom;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Generador de números de tarjeta (PAN) con el prefijo BIN configurado y dígito
+ * de control Luhn. El número se compone y se formatea sobre un buffer de caracteres,
+ * en bloques de cuatro dígitos separados por guiones.
+ */
+@Component
+public class CardNumberGenerator {
+
+    private static final int GROUP_SIZE = 4;
+
+    private static final int MAX_DIGITS_PER_DRAW = 18;
+
+    private final char[] bin;
+
+    private final int length;
+
+    private final int maxAttempts;
+
+    private final RandomSource randomSource;
+
+    /**
+     * Construye el generador de números de tarjeta.
+     *
+     * @param properties Propiedades de las operaciones de tarjetas de débito
+     */
+    public CardNumberGenerator(DebitCardServiceProperties properties) {
+        DebitCardServiceProperties.CardNumber config = properties.getCardNumber();
+        if (!config.getBin().chars().allMatch(Character::isDigit)
+                || config.getBin().length() >= config.getLength()) {
+            throw new IllegalArgumentException(
+                    "Card BIN must be numeric and shorter than the card number length");
+        }
+        this.bin = config.getBin().toCharArray();
+        this.length = config.getLength();
+        this.maxAttempts = config.getMaxAttempts();
+        this.randomSource = config.getRandom() == DebitCardServiceProperties.RandomStrategy.SECURE
+                ? new SecureRandomSource()
+                : new SplittableRandomSource();
+    }
+
+    /**
+     * Genera un número de tarjeta válido según el algoritmo de Luhn.
+     *
+     * @return Número de tarjeta formateado en bloques de cuatro dígitos
+     */
+    public String generate() {
+        char[] digits = new char[length];
+        System.arraycopy(bin, 0, digits, 0, bin.length);
+
+        RandomGenerator random = randomSource.current();
+        int position = bin.length;
+        int payloadLength = length - 1;
+        while (position < payloadLength) {
+            int count = Math.min(MAX_DIGITS_PER_DRAW, payloadLength - position);
+            long value = random.nextLong(pow10(count));
+            for (int i = position + count - 1; i >= position; i--) {
+                digits[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            position += count;
+        }
+        digits[payloadLength] = (char) ('0' + luhnCheckDigit(digits, payloadLength));
+
+        return format(digits);
+    }
+
+    /**
+     * Número máximo de intentos de generación ante una colisión con un número existente.
+     *
+     * @return Número máximo de intentos
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Verifica si un número de tarjeta, con o sin separadores, cumple el algoritmo de Luhn.
+     *
+     * @param cardNumber Número de tarjeta
+     * @return true si el dígito de control es válido
+     */
+    public static boolean isLuhnValid(String cardNumber) {
+        char[] digits = cardNumber.replace("-", "").toCharArray();
+        if (digits.length < 2) {
+            return false;
+        }
+        for (char digit : digits) {
+            if (digit < '0' || digit > '9') {
+                return false;
+            }
+        }
+        return luhnCheckDigit(digits, digits.length - 1) == digits[digits.length - 1] - '0';
+    }
+
+    private static int luhnCheckDigit(char[] digits, int payloadLength) {
+        int sum = 0;
+        boolean doubleDigit = true;
+        for (int i = payloadLength - 1; i >= 0; i--) {
+            int digit = digits[i] - '0';
+            if (doubleDigit) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubleDigit = !doubleDigit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private String format(char[] digits) {
+        char[] formatted = new char[length + (length - 1) / GROUP_SIZE];
+        int target = 0;
+        for (int i = 0; i < digits.length; i++) {
+            if (i > 0 && i % GROUP_SIZE == 0) {
+                formatted[target++] = '-';
+            }
+            formatted[target++] = digits[i];
+        }
+        return new String(formatted);
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+
+    private interface RandomSource {
+
+        RandomGenerator current();
+    }
+
+    private static final class SecureRandomSource implements RandomSource {
+
+        private final SecureRandom random = new SecureRandom();
+
+        @Override
+        public RandomGenerator current() {
+            return random;
+        }
+    }
+
+    private static final class SplittableRandomSource implements RandomSource {
+
+        private final ThreadLocal<SplittableRandom> random = ThreadLocal.withInitial(() ->
+                new SplittableRandom(new SecureRandom().nextLong()));
+
+        @Override
+        public RandomGenerator current() {
+            return random.get();
+        }
+    }
+}
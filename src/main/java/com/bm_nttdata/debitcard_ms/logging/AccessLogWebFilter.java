@@ -0,0 +1,81 @@
+package com.bm_nttdata.debitcard_ms.logging;
+
+import com.bm_nttdata.debitcard_ms.config.AccessLogProperties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Log de acceso muestreado por operación, escrito en el logger {@code debitcard.access}.
+ * La decisión de muestreo se toma al finalizar la solicitud, de modo que las solicitudes
+ * no muestreadas no construyen ningún mensaje.
+ */
+@Slf4j(topic = "debitcard.access")
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(AccessLogProperties.class)
+public class AccessLogWebFilter implements WebFilter {
+
+    private static final String UNKNOWN_OPERATION = "unknown";
+
+    private final AccessLogProperties properties;
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!properties.isEnabled() || !log.isInfoEnabled()) {
+            return chain.filter(exchange);
+        }
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> logRequest(exchange, signal, System.nanoTime() - start));
+    }
+
+    private void logRequest(ServerWebExchange exchange, SignalType signal, long elapsedNanos) {
+        int status = status(exchange, signal);
+        String operation = operation(exchange);
+        boolean failed = status >= 500 || signal == SignalType.ON_ERROR;
+        boolean slow = elapsedNanos >= properties.getSlowThreshold().toNanos();
+        boolean always = (failed && properties.isAlwaysLogErrors()) || slow;
+        if (!always && !sampled(operation)) {
+            return;
+        }
+        log.info("{} {} {} {} {}ms",
+                operation,
+                exchange.getRequest().getMethod(),
+                exchange.getRequest().getPath(),
+                status,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+
+    private boolean sampled(String operation) {
+        return ThreadLocalRandom.current().nextDouble() < properties.getSampleRate(operation);
+    }
+
+    private static int status(ServerWebExchange exchange, SignalType signal) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null) {
+            return status.value();
+        }
+        return signal == SignalType.ON_ERROR ? 500 : 0;
+    }
+
+    private static String operation(ServerWebExchange exchange) {
+        Object handler = exchange.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod handlerMethod) {
+            String name = handlerMethod.getMethod().getName();
+            return name.startsWith("_") ? name.substring(1) : name;
+        }
+        return UNKNOWN_OPERATION;
+    }
+}
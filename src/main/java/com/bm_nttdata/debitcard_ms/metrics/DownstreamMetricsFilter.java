@@ -0,0 +1,73 @@
+package com.bm_nttdata.debitcard_ms.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registra la latencia de cada llamada a los microservicios externos en el temporizador
+ * {@code debitcard.downstream.requests}, etiquetado por servicio destino, operación
+ * (plantilla de URI) y resultado. El tiempo se mide hasta la recepción de la respuesta.
+ */
+@Component
+@RequiredArgsConstructor
+public class DownstreamMetricsFilter {
+
+    public static final String METRIC_NAME = "debitcard.downstream.requests";
+
+    private static final String URI_TEMPLATE_ATTRIBUTE =
+            WebClient.class.getName() + ".uriTemplate";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Crea el filtro de métricas para un servicio destino.
+     *
+     * @param target Nombre del servicio destino
+     * @return Filtro a registrar en el WebClient del servicio
+     */
+    public ExchangeFilterFunction forTarget(String target) {
+        return (request, next) -> Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String operation = operation(request);
+            return next.exchange(request)
+                    .doOnSuccess(response -> stop(sample, target, operation, response == null
+                            ? "UNKNOWN"
+                            : Outcome.forStatus(response.statusCode().value()).name()))
+                    .doOnError(error -> stop(sample, target, operation, "ERROR"))
+                    .doOnCancel(() -> stop(sample, target, operation, "CANCELLED"));
+        });
+    }
+
+    private void stop(Timer.Sample sample, String target, String operation, String outcome) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .description("Latency of calls to downstream microservices")
+                .tag("target", target)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private static String operation(ClientRequest request) {
+        String path = request.attribute(URI_TEMPLATE_ATTRIBUTE)
+                .map(String::valueOf)
+                .map(DownstreamMetricsFilter::stripBaseUrl)
+                .orElse(request.url().getPath());
+        return request.method().name() + " " + path;
+    }
+
+    private static String stripBaseUrl(String uriTemplate) {
+        int scheme = uriTemplate.indexOf("://");
+        if (scheme < 0) {
+            return uriTemplate;
+        }
+        int path = uriTemplate.indexOf('/', scheme + 3);
+        return path < 0 ? "/" : uriTemplate.substring(path);
+    }
+}
@@ -0,0 +1,87 @@
+package com.bm_nttdata.debitcard_ms.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Mantiene un gauge {@code debitcard.http.inflight} con el número de solicitudes en curso
+ * por operación del API. Una solicitud está en curso desde la suscripción a la respuesta
+ * del controlador hasta su finalización, error o cancelación. En las respuestas en
+ * streaming, cuyo cuerpo es un Flux que WebFlux escribe después de emitir la respuesta, la
+ * solicitud sigue en curso hasta que termina el cuerpo.
+ * Se interceptan los métodos {@code _operationId} de las interfaces generadas por OpenAPI,
+ * que son los que WebFlux invoca y los que delegan en los métodos del controlador.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class InFlightRequestsAspect {
+
+    public static final String METRIC_NAME = "debitcard.http.inflight";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Envuelve los puntos de entrada HTTP de las operaciones del API.
+     *
+     * @param joinPoint Invocación interceptada
+     * @return Respuesta del controlador con el seguimiento de solicitudes en curso
+     * @throws Throwable si la invocación falla de forma síncrona
+     */
+    @Around("execution(public reactor.core.publisher.Mono "
+            + "com.bm_nttdata.debitcard_ms.api.*Api._*(..))")
+    public Object trackInFlight(ProceedingJoinPoint joinPoint) throws Throwable {
+        AtomicInteger counter = counter(joinPoint.getSignature().getName().substring(1));
+        Mono<?> response = (Mono<?>) joinPoint.proceed();
+        return Mono.defer(() -> {
+            AtomicBoolean released = new AtomicBoolean();
+            Runnable release = () -> {
+                if (released.compareAndSet(false, true)) {
+                    counter.decrementAndGet();
+                }
+            };
+            AtomicBoolean streaming = new AtomicBoolean();
+            return response
+                    .doOnSubscribe(subscription -> counter.incrementAndGet())
+                    .map(result -> {
+                        if (result instanceof ResponseEntity<?> entity
+                                && entity.getBody() instanceof Flux<?> body) {
+                            streaming.set(true);
+                            return new ResponseEntity<>(body.doFinally(signal -> release.run()),
+                                    entity.getHeaders(), entity.getStatusCode());
+                        }
+                        return result;
+                    })
+                    .doFinally(signal -> {
+                        if (!streaming.get()) {
+                            release.run();
+                        }
+                    });
+        });
+    }
+
+    private AtomicInteger counter(String operation) {
+        return inFlight.computeIfAbsent(operation, name -> {
+            AtomicInteger counter = new AtomicInteger();
+            Gauge.builder(METRIC_NAME, counter, AtomicInteger::get)
+                    .description("Requests currently being processed per API operation")
+                    .tag("operation", name)
+                    .register(meterRegistry);
+            return counter;
+        });
+    }
+}
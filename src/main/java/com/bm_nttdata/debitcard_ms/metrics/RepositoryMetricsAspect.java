@@ -0,0 +1,70 @@
+package com.bm_nttdata.debitcard_ms.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Registra la latencia de cada operación de DebitCardRepository en el temporizador
+ * {@code debitcard.repository.operations}. Para los métodos reactivos el tiempo se mide
+ * desde la suscripción hasta la finalización de la secuencia, no hasta que el método
+ * devuelve el publicador.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetricsAspect {
+
+    public static final String METRIC_NAME = "debitcard.repository.operations";
+
+    private static final String TARGET = "mongodb";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Envuelve las llamadas al repositorio de tarjetas de débito con un temporizador.
+     *
+     * @param joinPoint Invocación interceptada
+     * @return Resultado del repositorio, instrumentado si es reactivo
+     * @throws Throwable si la invocación falla de forma síncrona
+     */
+    @Around("this(com.bm_nttdata.debitcard_ms.repository.DebitCardRepository)")
+    public Object timeRepositoryCall(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getName();
+        Object result = joinPoint.proceed();
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                return mono
+                        .doOnSuccess(value -> stop(sample, operation, "SUCCESS"))
+                        .doOnError(error -> stop(sample, operation, "ERROR"))
+                        .doOnCancel(() -> stop(sample, operation, "CANCELLED"));
+            });
+        }
+        if (result instanceof Flux<?> flux) {
+            return Flux.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                return flux
+                        .doOnComplete(() -> stop(sample, operation, "SUCCESS"))
+                        .doOnError(error -> stop(sample, operation, "ERROR"))
+                        .doOnCancel(() -> stop(sample, operation, "CANCELLED"));
+            });
+        }
+        return result;
+    }
+
+    private void stop(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder(METRIC_NAME)
+                .description("Latency of debit card repository operations")
+                .tag("target", TARGET)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+}
@@ -1,6 +1,8 @@
 package com.bm_nttdata.debitcard_ms.repository;
 
 import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import java.util.Collection;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -8,10 +10,53 @@ import reactor.core.publisher.Mono;
 /**
  * Repositorio para la gestión de entidades DebitCard en MongoDB de manera reactiva.
  */
-public interface DebitCardRepository extends ReactiveMongoRepository<DebitCard, String> {
+public interface DebitCardRepository
+        extends ReactiveMongoRepository<DebitCard, String>, DebitCardRepositoryCustom {
+
+    String SUMMARY_FIELDS = "{ 'cardPin': 0, 'ccvCode': 0, 'pendingEvents': 0 }";
 
     Mono<DebitCard> findById(String id);
 
+    /**
+     * Recupera las tarjetas de un cliente sin cargar el PIN ni el código CCV.
+     * Las entidades obtenidas son parciales y no deben volver a guardarse.
+     *
+     * @param customerId Identificador único de cliente
+     * @return Un Flux con las tarjetas de débito del cliente
+     */
+    @Query(value = "{ 'customerId': ?0 }", fields = SUMMARY_FIELDS)
     Flux<DebitCard> findAllByCustomerId(String customerId);
 
+    /**
+     * Recupera las tarjetas que referencian una cuenta como principal o asociada,
+     * sin cargar el PIN ni el código CCV. Las entidades obtenidas son parciales y no
+     * deben volver a guardarse.
+     *
+     * @param accountId Identificador de la cuenta bancaria
+     * @return Un Flux con las tarjetas de débito que referencian la cuenta
+     */
+    @Query(value = "{ '$or': [ { 'primaryAccountId': ?0 }, { 'associatedAccountIds': ?0 } ] }",
+            fields = SUMMARY_FIELDS)
+    Flux<DebitCard> findAllByAccountId(String accountId);
+
+    /**
+     * Recupera las tarjetas completas cuyos identificadores se indican, con una
+     * sola consulta $in.
+     *
+     * @param ids Identificadores de las tarjetas de débito
+     * @return Un Flux con las tarjetas de débito encontradas
+     */
+    Flux<DebitCard> findAllByIdIn(Collection<String> ids);
+
+    /**
+     * Recupera las tarjetas cuyos identificadores se indican, con una sola consulta $in
+     * y sin cargar el PIN ni el código CCV. Las entidades obtenidas son parciales y no
+     * deben volver a guardarse.
+     *
+     * @param ids Identificadores de las tarjetas de débito
+     * @return Un Flux con las tarjetas de débito encontradas
+     */
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = SUMMARY_FIELDS)
+    Flux<DebitCard> findSummariesByIdIn(Collection<String> ids);
+
 }
@@ -0,0 +1,96 @@
+package com.bm_nttdata.debitcard_ms.repository;
+
+import com.bm_nttdata.debitcard_ms.entity.CardOutboxEvent;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import java.time.Duration;
+import java.util.Collection;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Operaciones del repositorio de tarjetas de débito implementadas directamente
+ * sobre ReactiveMongoTemplate.
+ */
+public interface DebitCardRepositoryCustom {
+
+    /**
+     * Inserta un lote de tarjetas de débito nuevas en una única operación insertMany.
+     *
+     * @param debitCards Tarjetas de débito a insertar
+     * @return Un Flux con las tarjetas de débito insertadas
+     */
+    Flux<DebitCard> insertAll(Collection<DebitCard> debitCards);
+
+    /**
+     * Recupera una página de tarjetas de un cliente ordenadas por identificador,
+     * sin cargar el PIN ni el código CCV. Las entidades obtenidas son parciales y no
+     * deben volver a guardarse.
+     *
+     * @param customerId Identificador único de cliente
+     * @param status Estado de las tarjetas a recuperar, o null para todos los estados
+     * @param afterId Identificador a partir del cual continuar, o null para la primera página
+     * @param limit Número máximo de tarjetas a recuperar
+     * @param cursorBatchSize Número de documentos por lote del cursor de MongoDB
+     * @return Un Flux con la página de tarjetas de débito
+     * @throws IllegalArgumentException si afterId no es un ObjectId válido
+     */
+    Flux<DebitCard> findPageByCustomerId(
+            String customerId, CardStatusEnum status, String afterId,
+            int limit, int cursorBatchSize);
+
+    /**
+     * Añade una cuenta a las cuentas asociadas de una tarjeta con una única operación
+     * findAndModify y $addToSet, sin reescribir el documento completo. Si la cuenta ya
+     * estaba asociada el documento no se modifica.
+     *
+     * @param cardId Identificador de la tarjeta de débito
+     * @param accountId Identificador de la cuenta a asociar
+     * @param event Evento que se añade a la bandeja de salida de la tarjeta, o null
+     * @return Un Mono con la tarjeta actualizada, o vacío si no existe o la cuenta ya
+     *         estaba asociada
+     */
+    Mono<DebitCard> addAssociatedAccount(String cardId, String accountId, CardOutboxEvent event);
+
+    /**
+     * Cambia la cuenta principal de una tarjeta con una única operación findAndModify y
+     * $set, solo si la versión almacenada coincide con la esperada.
+     *
+     * @param cardId Identificador de la tarjeta de débito
+     * @param expectedVersion Versión de la tarjeta sobre la que se decidió el cambio
+     * @param accountId Identificador de la nueva cuenta principal
+     * @param event Evento que se añade a la bandeja de salida de la tarjeta, o null
+     * @return Un Mono con la tarjeta actualizada, o vacío si no existe o su versión ha
+     *         cambiado
+     */
+    Mono<DebitCard> updatePrimaryAccount(
+            String cardId, Long expectedVersion, String accountId, CardOutboxEvent event);
+
+    /**
+     * Reserva las tarjetas con eventos pendientes de publicación, empezando por las que
+     * tienen el evento más antiguo. Solo se reservan las tarjetas sin reserva, con la
+     * reserva vencida o reservadas por el mismo relé; cada tarjeta se reserva con una
+     * actualización atómica, por lo que dos relés nunca obtienen la misma tarjeta mientras
+     * la reserva está vigente. Solo se cargan el cliente y los eventos pendientes; las
+     * entidades obtenidas son parciales y no deben volver a guardarse.
+     *
+     * @param relayOwner Identificador del relé que reserva las tarjetas
+     * @param leaseDuration Duración de la reserva
+     * @param limit Número máximo de tarjetas a reservar
+     * @return Un Flux con las tarjetas reservadas y sus eventos pendientes
+     */
+    Flux<DebitCard> claimPendingEvents(String relayOwner, Duration leaseDuration, int limit);
+
+    /**
+     * Elimina de la bandeja de salida de las tarjetas los eventos ya publicados y libera la
+     * reserva de las que siguen reservadas por el relé indicado, sin modificar la versión ni
+     * la fecha de última modificación de las tarjetas.
+     *
+     * @param relayOwner Identificador del relé que publicó los eventos
+     * @param cardIds Identificadores de las tarjetas
+     * @param eventIds Identificadores de los eventos publicados
+     * @return Un Mono que completa al eliminar los eventos
+     */
+    Mono<Void> removePendingEvents(
+            String relayOwner, Collection<String> cardIds, Collection<String> eventIds);
+}
@@ -0,0 +1,167 @@
+package com.bm_nttdata.debitcard_ms.repository;
+
+import com.bm_nttdata.debitcard_ms.entity.CardOutboxEvent;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementación de las operaciones personalizadas del repositorio de tarjetas de débito.
+ * Las actualizaciones parciales incrementan la versión de la tarjeta y fijan su fecha de
+ * última modificación, igual que un guardado completo con auditoría, y añaden en la misma
+ * operación el evento correspondiente a la bandeja de salida de la tarjeta.
+ * La reserva de la bandeja de salida por parte del relé de eventos se guarda en los campos
+ * {@code relayOwner} y {@code leaseUntil} del documento, que no forman parte de la entidad.
+ */
+@RequiredArgsConstructor
+public class DebitCardRepositoryCustomImpl implements DebitCardRepositoryCustom {
+
+    private static final String PENDING_EVENTS = "pendingEvents";
+
+    private static final String PENDING_EVENTS_OCCURRED_AT = PENDING_EVENTS + ".occurredAt";
+
+    private static final String RELAY_OWNER = "relayOwner";
+
+    private static final String LEASE_UNTIL = "leaseUntil";
+
+    private static final Sort OLDEST_EVENT_FIRST =
+            Sort.by(Sort.Direction.ASC, PENDING_EVENTS_OCCURRED_AT);
+
+    private static final FindAndModifyOptions RETURN_NEW =
+            FindAndModifyOptions.options().returnNew(true);
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<DebitCard> insertAll(Collection<DebitCard> debitCards) {
+        return mongoTemplate.insert(debitCards, DebitCard.class);
+    }
+
+    @Override
+    public Flux<DebitCard> findPageByCustomerId(
+            String customerId, CardStatusEnum status, String afterId,
+            int limit, int cursorBatchSize) {
+        Criteria criteria = Criteria.where("customerId").is(customerId);
+        if (status != null) {
+            criteria = criteria.and("active").is(status);
+        }
+        if (afterId != null) {
+            criteria = criteria.and("id").gt(new ObjectId(afterId));
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(limit)
+                .cursorBatchSize(cursorBatchSize);
+        query.fields().exclude("cardPin", "ccvCode", PENDING_EVENTS);
+        return mongoTemplate.find(query, DebitCard.class);
+    }
+
+    @Override
+    public Mono<DebitCard> addAssociatedAccount(
+            String cardId, String accountId, CardOutboxEvent event) {
+        Query query = Query.query(Criteria.where("id").is(cardId)
+                .and("associatedAccountIds").ne(accountId));
+        return mongoTemplate.findAndModify(query,
+                modification(event).addToSet("associatedAccountIds", accountId),
+                RETURN_NEW, DebitCard.class);
+    }
+
+    @Override
+    public Mono<DebitCard> updatePrimaryAccount(
+            String cardId, Long expectedVersion, String accountId, CardOutboxEvent event) {
+        Query query = Query.query(Criteria.where("id").is(cardId)
+                .and("version").is(expectedVersion));
+        return mongoTemplate.findAndModify(query,
+                modification(event).set("primaryAccountId", accountId),
+                RETURN_NEW, DebitCard.class);
+    }
+
+    /**
+     * Reserva las tarjetas en tres pasos: selecciona las candidatas, las marca con el relé
+     * y el vencimiento de la reserva con una actualización que vuelve a comprobar en cada
+     * documento que sigue disponible, y carga las que quedaron reservadas con esa misma
+     * marca. Las tarjetas que otro relé reserva entre el primer y el segundo paso no se
+     * marcan y, por tanto, no se devuelven.
+     */
+    @Override
+    public Flux<DebitCard> claimPendingEvents(
+            String relayOwner, Duration leaseDuration, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plus(leaseDuration);
+        String collectionName = mongoTemplate.getCollectionName(DebitCard.class);
+        Query candidates = Query.query(claimable(relayOwner, now))
+                .with(OLDEST_EVENT_FIRST)
+                .limit(limit);
+        candidates.fields().include("_id");
+        return mongoTemplate.find(candidates, Document.class, collectionName)
+                .map(candidate -> candidate.get("_id"))
+                .collectList()
+                .filter(ids -> !ids.isEmpty())
+                .flatMapMany(ids -> mongoTemplate.updateMulti(
+                                Query.query(new Criteria().andOperator(
+                                        Criteria.where("_id").in(ids),
+                                        claimable(relayOwner, now))),
+                                new Update()
+                                        .set(RELAY_OWNER, relayOwner)
+                                        .set(LEASE_UNTIL, leaseUntil),
+                                collectionName)
+                        .thenMany(Flux.defer(() -> {
+                            Query claimed = Query.query(Criteria.where("_id").in(ids)
+                                            .and(RELAY_OWNER).is(relayOwner)
+                                            .and(LEASE_UNTIL).is(leaseUntil))
+                                    .with(OLDEST_EVENT_FIRST);
+                            claimed.fields().include("customerId", PENDING_EVENTS);
+                            return mongoTemplate.find(claimed, DebitCard.class);
+                        })));
+    }
+
+    /**
+     * Los eventos publicados se retiran siempre, pero la reserva solo se libera en las
+     * tarjetas que siguen reservadas por el relé indicado: si su reserva venció y otro relé
+     * las reservó entretanto, la reserva vigente se conserva.
+     */
+    @Override
+    public Mono<Void> removePendingEvents(
+            String relayOwner, Collection<String> cardIds, Collection<String> eventIds) {
+        // Se actualiza por nombre de colección y no por entidad para que Spring Data no
+        // incremente la versión: retirar eventos publicados no modifica la tarjeta
+        String collectionName = mongoTemplate.getCollectionName(DebitCard.class);
+        Query published = Query.query(Criteria.where("_id").in(cardIds));
+        Query leased = Query.query(Criteria.where("_id").in(cardIds)
+                .and(RELAY_OWNER).is(relayOwner));
+        return mongoTemplate.updateMulti(published,
+                        new Update().pull(PENDING_EVENTS,
+                                Query.query(Criteria.where("eventId").in(eventIds))),
+                        collectionName)
+                .then(mongoTemplate.updateMulti(leased,
+                        new Update().unset(RELAY_OWNER).unset(LEASE_UNTIL), collectionName))
+                .then();
+    }
+
+    private static Criteria claimable(String relayOwner, LocalDateTime now) {
+        return Criteria.where(PENDING_EVENTS_OCCURRED_AT).exists(true).orOperator(
+                Criteria.where(LEASE_UNTIL).exists(false),
+                Criteria.where(LEASE_UNTIL).lt(now),
+                Criteria.where(RELAY_OWNER).is(relayOwner));
+    }
+
+    private static Update modification(CardOutboxEvent event) {
+        Update update = new Update()
+                .inc("version", 1)
+                .set("lastModifiedDate", LocalDateTime.now());
+        return event == null ? update : update.push(PENDING_EVENTS, event);
+    }
+}
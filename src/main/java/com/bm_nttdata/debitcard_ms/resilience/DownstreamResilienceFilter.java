@@ -0,0 +1,173 @@
+package com.bm_nttdata.debitcard_ms.resilience;
+
+import com.bm_nttdata.debitcard_ms.config.DownstreamResilienceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.timelimiter.TimeLimiterOperator;
+import io.github.resilience4j.timelimiter.TimeLimiter;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.concurrent.TimeoutException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Aplica las políticas de resiliencia de cada servicio destino en su WebClient.
+ * Cada intento, incluida la lectura del cuerpo de la respuesta, pasa por un bulkhead de
+ * semáforo y un TimeLimiter del servicio; las solicitudes GET se reintentan ante errores
+ * transitorios con espera exponencial y aleatoria, siempre que quede saldo en el
+ * presupuesto global de reintentos. Las respuestas 5xx se convierten en
+ * WebClientResponseException para que cuenten como fallos en las métricas del TimeLimiter
+ * y puedan reintentarse. Los rechazos, tiempos agotados y reintentos se registran en el
+ * contador {@code debitcard.downstream.resilience.events}.
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(DownstreamResilienceProperties.class)
+public class DownstreamResilienceFilter {
+
+    public static final String EVENTS_METRIC_NAME = "debitcard.downstream.resilience.events";
+
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final TimeLimiterRegistry timeLimiterRegistry;
+
+    private final DownstreamResilienceProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final RetryBudget retryBudget;
+
+    /**
+     * Construye el filtro de resiliencia y el presupuesto global de reintentos.
+     *
+     * @param bulkheadRegistry Registro de bulkheads de Resilience4j
+     * @param timeLimiterRegistry Registro de TimeLimiters de Resilience4j
+     * @param properties Propiedades de reintentos
+     * @param meterRegistry Registro de métricas
+     */
+    public DownstreamResilienceFilter(
+            BulkheadRegistry bulkheadRegistry,
+            TimeLimiterRegistry timeLimiterRegistry,
+            DownstreamResilienceProperties properties,
+            MeterRegistry meterRegistry) {
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.timeLimiterRegistry = timeLimiterRegistry;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        DownstreamResilienceProperties.RetryBudget budget = properties.getRetryBudget();
+        this.retryBudget = new RetryBudget(budget.getRatio(), budget.getMaxBalance());
+        Gauge.builder("debitcard.downstream.retry.budget.available",
+                        retryBudget, RetryBudget::getAvailableRetries)
+                .description("Retries currently available in the global retry budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Crea el filtro de resiliencia para un servicio destino.
+     *
+     * @param target Nombre del servicio destino y de sus instancias de Resilience4j
+     * @return Filtro a registrar en el WebClient del servicio
+     */
+    public ExchangeFilterFunction forTarget(String target) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(target);
+        TimeLimiter timeLimiter = timeLimiterRegistry.timeLimiter(target);
+        bulkhead.getEventPublisher()
+                .onCallRejected(event -> count(target, "bulkhead_rejected"));
+        timeLimiter.getEventPublisher()
+                .onTimeout(event -> count(target, "timeout"));
+        DownstreamResilienceProperties.Retry retry = properties.getRetry(target);
+
+        return (request, next) -> {
+            Mono<ClientResponse> attempt = Mono.defer(() -> next.exchange(request))
+                    .flatMap(DownstreamResilienceFilter::bufferBody)
+                    .flatMap(DownstreamResilienceFilter::failOnServerError)
+                    .transformDeferred(BulkheadOperator.of(bulkhead))
+                    .transformDeferred(TimeLimiterOperator.of(timeLimiter));
+            if (!isIdempotent(request) || retry.getMaxAttempts() <= 1) {
+                return attempt;
+            }
+            return Mono.defer(() -> {
+                retryBudget.deposit();
+                return attempt.retryWhen(retrySpec(target, retry));
+            });
+        };
+    }
+
+    private Retry retrySpec(String target, DownstreamResilienceProperties.Retry retry) {
+        return Retry.backoff(retry.getMaxAttempts() - 1L, retry.getBackoff())
+                .maxBackoff(retry.getMaxBackoff())
+                .jitter(retry.getJitter())
+                .filter(error -> isRetryable(error, retry) && withdrawRetry(target))
+                .doBeforeRetry(signal -> {
+                    count(target, "retry");
+                    log.debug("Retrying call to {} after: {}",
+                            target, signal.failure().getMessage());
+                })
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+    }
+
+    private boolean withdrawRetry(String target) {
+        if (retryBudget.tryWithdraw()) {
+            return true;
+        }
+        count(target, "retry_budget_exhausted");
+        return false;
+    }
+
+    private void count(String target, String event) {
+        Counter.builder(EVENTS_METRIC_NAME)
+                .description("Resilience events on calls to downstream microservices")
+                .tag("target", target)
+                .tag("event", event)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Lee el cuerpo completo de la respuesta dentro del intento. El intercambio termina al
+     * recibir las cabeceras, de modo que sin esta lectura un servicio que envía el cuerpo
+     * lentamente retendría la conexión fuera del bulkhead y del TimeLimiter.
+     */
+    private static Mono<ClientResponse> bufferBody(ClientResponse response) {
+        return response.bodyToMono(byte[].class)
+                .map(body -> response.mutate()
+                        .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body)))
+                        .build())
+                .switchIfEmpty(Mono.fromSupplier(() -> response.mutate()
+                        .body(Flux.empty())
+                        .build()));
+    }
+
+    private static Mono<ClientResponse> failOnServerError(ClientResponse response) {
+        return response.statusCode().is5xxServerError()
+                ? response.createException().flatMap(Mono::error)
+                : Mono.just(response);
+    }
+
+    private static boolean isIdempotent(ClientRequest request) {
+        return HttpMethod.GET.equals(request.method()) || HttpMethod.HEAD.equals(request.method());
+    }
+
+    private static boolean isRetryable(
+            Throwable error, DownstreamResilienceProperties.Retry retry) {
+        if (error instanceof WebClientResponseException responseException) {
+            return retry.getRetryableStatuses().contains(responseException.getStatusCode().value());
+        }
+        return error instanceof TimeoutException || error instanceof WebClientRequestException;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bm_nttdata.debitcard_ms.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Presupuesto de reintentos compartido por todas las llamadas a servicios externos.
+ * Cada solicitud original deposita una fracción de reintento y cada reintento consume
+ * uno completo, de modo que durante una degradación los reintentos no superan esa
+ * fracción del tráfico y no amplifican la carga sobre el servicio afectado.
+ */
+public class RetryBudget {
+
+    private static final long SCALE = 1_000;
+
+    private final long depositPerRequest;
+
+    private final long maxBalance;
+
+    private final AtomicLong balance;
+
+    /**
+     * Construye el presupuesto con el saldo completo.
+     *
+     * @param ratio Reintentos que aporta cada solicitud original
+     * @param maxRetries Saldo máximo de reintentos acumulables
+     */
+    public RetryBudget(double ratio, int maxRetries) {
+        this.depositPerRequest = Math.round(ratio * SCALE);
+        this.maxBalance = maxRetries * SCALE;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    /**
+     * Registra una solicitud original, aumentando el saldo disponible.
+     */
+    public void deposit() {
+        balance.accumulateAndGet(depositPerRequest,
+                (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    /**
+     * Consume un reintento del saldo si hay alguno disponible.
+     *
+     * @return true si el reintento está permitido, false si el presupuesto está agotado
+     */
+    public boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+
+    /**
+     * Obtiene el número de reintentos disponibles.
+     *
+     * @return Reintentos disponibles en el presupuesto
+     */
+    public double getAvailableRetries() {
+        return (double) balance.get() / SCALE;
+    }
+}
@@ -0,0 +1,102 @@
+package com.bm_nttdata.debitcard_ms.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Optional;
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * Codificador de datos secretos que los cifra con AES-GCM. El número de la tarjeta se
+ * autentica como dato asociado y cada cifrado utiliza un vector de inicialización
+ * aleatorio de 96 bits, por lo que la clave actual debe rotarse antes de alcanzar
+ * 2^32 cifrados.
+ */
+public class AesGcmCardSecretCodec implements CardSecretCodec {
+
+    static final String ENGINE = "g1";
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final int IV_LENGTH = 12;
+
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final CardSecretKeyProvider keyProvider;
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES-GCM is not available", e);
+        }
+    });
+
+    /**
+     * Construye el codificador AES-GCM.
+     *
+     * @param keyProvider Proveedor de las claves de cifrado
+     */
+    public AesGcmCardSecretCodec(CardSecretKeyProvider keyProvider) {
+        this.keyProvider = keyProvider;
+    }
+
+    @Override
+    public String encode(String secret, String cardNumber) {
+        String keyId = keyProvider.currentKeyId();
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.ENCRYPT_MODE, keyProvider.key(keyId),
+                    new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            cipher.updateAAD(cardNumber.getBytes(StandardCharsets.UTF_8));
+            byte[] plaintext = secret.getBytes(StandardCharsets.UTF_8);
+            byte[] payload = Arrays.copyOf(iv, IV_LENGTH + cipher.getOutputSize(plaintext.length));
+            cipher.doFinal(plaintext, 0, plaintext.length, payload, IV_LENGTH);
+            return new EncodedSecret(ENGINE, keyId, payload).format();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to encrypt card secret", e);
+        }
+    }
+
+    @Override
+    public boolean matches(String candidate, String encoded, String cardNumber) {
+        byte[] candidateBytes = candidate.getBytes(StandardCharsets.UTF_8);
+        if (EncodedSecret.isPlaintext(encoded)) {
+            return EncodedSecret.constantTimeEquals(
+                    encoded.getBytes(StandardCharsets.UTF_8), candidateBytes);
+        }
+        return EncodedSecret.parse(encoded, ENGINE)
+                .filter(secret -> secret.payload().length > IV_LENGTH)
+                .flatMap(secret -> decrypt(secret, cardNumber))
+                .map(plaintext -> EncodedSecret.constantTimeEquals(plaintext, candidateBytes))
+                .orElse(false);
+    }
+
+    /**
+     * Descifra un dato secreto.
+     *
+     * @return El texto descifrado, o vacío si la etiqueta de autenticación no es válida
+     *         porque el dato se alteró, pertenece a otra tarjeta o se cifró con otra clave
+     */
+    private Optional<byte[]> decrypt(EncodedSecret secret, String cardNumber) {
+        byte[] payload = secret.payload();
+        try {
+            Cipher cipher = ciphers.get();
+            cipher.init(Cipher.DECRYPT_MODE, keyProvider.key(secret.keyId()),
+                    new GCMParameterSpec(TAG_LENGTH_BITS, payload, 0, IV_LENGTH));
+            cipher.updateAAD(cardNumber.getBytes(StandardCharsets.UTF_8));
+            return Optional.of(cipher.doFinal(payload, IV_LENGTH, payload.length - IV_LENGTH));
+        } catch (AEADBadTagException e) {
+            return Optional.empty();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to decrypt card secret", e);
+        }
+    }
+}
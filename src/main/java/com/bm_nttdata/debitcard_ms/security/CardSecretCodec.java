@@ -0,0 +1,31 @@
+package com.bm_nttdata.debitcard_ms.security;
+
+/**
+ * Codificador de los datos secretos de una tarjeta de débito (PIN y código CCV) para su
+ * almacenamiento. Cada valor codificado queda ligado al número de la tarjeta, de modo que
+ * no puede copiarse a otra tarjeta, e identifica la clave con la que se generó para
+ * permitir su rotación. Los valores se codifican al emitir la tarjeta y solo se procesan
+ * de nuevo al verificar un valor recibido; las lecturas de tarjetas nunca los decodifican.
+ */
+public interface CardSecretCodec {
+
+    /**
+     * Codifica un dato secreto para su almacenamiento.
+     *
+     * @param secret Dato secreto en claro
+     * @param cardNumber Número de la tarjeta a la que pertenece el dato
+     * @return El dato secreto codificado
+     */
+    String encode(String secret, String cardNumber);
+
+    /**
+     * Verifica en tiempo constante si un valor coincide con un dato secreto almacenado.
+     * Los datos almacenados en claro antes de la codificación también se verifican.
+     *
+     * @param candidate Valor a verificar
+     * @param encoded Dato secreto almacenado
+     * @param cardNumber Número de la tarjeta a la que pertenece el dato
+     * @return true si el valor coincide con el dato almacenado, false en caso contrario
+     */
+    boolean matches(String candidate, String encoded, String cardNumber);
+}
@@ -0,0 +1,27 @@
+package com.bm_nttdata.debitcard_ms.security;
+
+import javax.crypto.SecretKey;
+
+/**
+ * Proveedor de las claves utilizadas para proteger los datos secretos de las tarjetas.
+ * Los nuevos valores se codifican con la clave actual; las claves anteriores se mantienen
+ * disponibles por su identificador para verificar los valores ya almacenados.
+ */
+public interface CardSecretKeyProvider {
+
+    /**
+     * Obtiene el identificador de la clave con la que se codifican los nuevos valores.
+     *
+     * @return Identificador de la clave actual
+     */
+    String currentKeyId();
+
+    /**
+     * Obtiene una clave por su identificador.
+     *
+     * @param keyId Identificador de la clave
+     * @return La clave correspondiente
+     * @throws IllegalArgumentException si no existe ninguna clave con ese identificador
+     */
+    SecretKey key(String keyId);
+}
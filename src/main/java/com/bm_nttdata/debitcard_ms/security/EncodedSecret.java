@@ -0,0 +1,65 @@
+package com.bm_nttdata.debitcard_ms.security;
+
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Representación almacenada de un dato secreto: {@code motor$clave$contenido}, con el
+ * contenido codificado en Base64 sin relleno.
+ */
+record EncodedSecret(String engine, String keyId, byte[] payload) {
+
+    private static final char SEPARATOR = '$';
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * Interpreta un dato secreto almacenado.
+     *
+     * @param encoded Dato secreto almacenado
+     * @param engine Motor de codificación esperado
+     * @return El dato secreto, o vacío si no fue codificado con el motor indicado
+     */
+    static Optional<EncodedSecret> parse(String encoded, String engine) {
+        int engineEnd = encoded.indexOf(SEPARATOR);
+        int keyEnd = encoded.indexOf(SEPARATOR, engineEnd + 1);
+        if (engineEnd < 0 || keyEnd < 0 || !encoded.startsWith(engine + SEPARATOR)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new EncodedSecret(engine,
+                    encoded.substring(engineEnd + 1, keyEnd),
+                    DECODER.decode(encoded.substring(keyEnd + 1))));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Indica si un dato almacenado se guardó en claro, antes de codificar los secretos.
+     *
+     * @param stored Dato almacenado
+     * @return true si el dato no tiene el formato de un secreto codificado
+     */
+    static boolean isPlaintext(String stored) {
+        return stored.indexOf(SEPARATOR) < 0;
+    }
+
+    /**
+     * Compara en tiempo constante dos valores.
+     *
+     * @param expected Valor esperado
+     * @param actual Valor a comparar
+     * @return true si ambos valores son iguales
+     */
+    static boolean constantTimeEquals(byte[] expected, byte[] actual) {
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+    String format() {
+        return engine + SEPARATOR + keyId + SEPARATOR + ENCODER.encodeToString(payload);
+    }
+}
@@ -0,0 +1,70 @@
+package com.bm_nttdata.debitcard_ms.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import javax.crypto.Mac;
+
+/**
+ * Codificador de datos secretos que almacena un HMAC-SHA256 con clave del número de la
+ * tarjeta y el dato. El valor original no puede recuperarse, solo verificarse; al ser una
+ * función con clave secreta no requiere un algoritmo de derivación costoso para resistir
+ * la búsqueda exhaustiva de PINs de pocos dígitos.
+ */
+public class HmacCardSecretCodec implements CardSecretCodec {
+
+    static final String ENGINE = "h1";
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final byte CONTEXT_SEPARATOR = 0;
+
+    private final CardSecretKeyProvider keyProvider;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    });
+
+    /**
+     * Construye el codificador HMAC-SHA256.
+     *
+     * @param keyProvider Proveedor de las claves del HMAC
+     */
+    public HmacCardSecretCodec(CardSecretKeyProvider keyProvider) {
+        this.keyProvider = keyProvider;
+    }
+
+    @Override
+    public String encode(String secret, String cardNumber) {
+        String keyId = keyProvider.currentKeyId();
+        return new EncodedSecret(ENGINE, keyId, mac(keyId, secret, cardNumber)).format();
+    }
+
+    @Override
+    public boolean matches(String candidate, String encoded, String cardNumber) {
+        if (EncodedSecret.isPlaintext(encoded)) {
+            return EncodedSecret.constantTimeEquals(
+                    encoded.getBytes(StandardCharsets.UTF_8),
+                    candidate.getBytes(StandardCharsets.UTF_8));
+        }
+        return EncodedSecret.parse(encoded, ENGINE)
+                .map(secret -> EncodedSecret.constantTimeEquals(
+                        secret.payload(), mac(secret.keyId(), candidate, cardNumber)))
+                .orElse(false);
+    }
+
+    private byte[] mac(String keyId, String secret, String cardNumber) {
+        try {
+            Mac mac = macs.get();
+            mac.init(keyProvider.key(keyId));
+            mac.update(cardNumber.getBytes(StandardCharsets.UTF_8));
+            mac.update(CONTEXT_SEPARATOR);
+            return mac.doFinal(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to compute card secret HMAC", e);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.bm_nttdata.debitcard_ms.security;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Proveedor de claves respaldado por un almacén de claves local (PKCS12 por defecto).
+ * Cada entrada de clave secreta del almacén es una clave disponible, identificada por su
+ * alias; la clave actual se indica por configuración. Si el almacén no existe el arranque
+ * falla, ya que una clave nueva no permitiría verificar los valores cifrados con la
+ * anterior ni coincidiría con la de las demás instancias. Solo en local y en pruebas puede
+ * permitirse generarlo con una clave AES de 256 bits.
+ */
+@Slf4j
+public class KeyStoreCardSecretKeyProvider implements CardSecretKeyProvider {
+
+    private static final String KEY_ALGORITHM = "AES";
+
+    private static final int KEY_SIZE_BITS = 256;
+
+    private final String currentKeyId;
+
+    private final Map<String, SecretKey> keys;
+
+    /**
+     * Carga las claves del almacén indicado, generándolo si no existe y se permite.
+     * Sin permiso de generación, un almacén inexistente produce una IllegalStateException.
+     *
+     * @param path Ruta del almacén de claves
+     * @param type Tipo del almacén de claves
+     * @param password Contraseña del almacén y de sus entradas
+     * @param currentKeyId Alias de la clave con la que se codifican los nuevos valores
+     * @param generateIfMissing Si debe generarse el almacén cuando no existe
+     */
+    public KeyStoreCardSecretKeyProvider(
+            Path path, String type, char[] password, String currentKeyId,
+            boolean generateIfMissing) {
+        if (currentKeyId.indexOf('$') >= 0) {
+            throw new IllegalArgumentException("Key alias must not contain '$': " + currentKeyId);
+        }
+        try {
+            if (Files.notExists(path)) {
+                if (!generateIfMissing) {
+                    throw new IllegalStateException("Card secret keystore not found: " + path);
+                }
+                generate(path, type, password, currentKeyId);
+            }
+            this.keys = load(path, type, password);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to load card secret keystore " + path, e);
+        }
+        if (!keys.containsKey(currentKeyId)) {
+            throw new IllegalStateException(
+                    "Card secret key '" + currentKeyId + "' not found in " + path);
+        }
+        this.currentKeyId = currentKeyId;
+        log.info("Loaded {} card secret keys from {} (current: {})",
+                keys.size(), path, currentKeyId);
+    }
+
+    @Override
+    public String currentKeyId() {
+        return currentKeyId;
+    }
+
+    @Override
+    public SecretKey key(String keyId) {
+        SecretKey key = keys.get(keyId);
+        if (key == null) {
+            throw new IllegalArgumentException("Unknown card secret key: " + keyId);
+        }
+        return key;
+    }
+
+    private static Map<String, SecretKey> load(Path path, String type, char[] password)
+            throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(type);
+        try (InputStream in = Files.newInputStream(path)) {
+            keyStore.load(in, password);
+        }
+        KeyStore.PasswordProtection protection = new KeyStore.PasswordProtection(password);
+        Map<String, SecretKey> loaded = new HashMap<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            if (keyStore.entryInstanceOf(alias, KeyStore.SecretKeyEntry.class)) {
+                KeyStore.SecretKeyEntry entry =
+                        (KeyStore.SecretKeyEntry) keyStore.getEntry(alias, protection);
+                loaded.put(alias, entry.getSecretKey());
+            }
+        }
+        return Map.copyOf(loaded);
+    }
+
+    private static void generate(Path path, String type, char[] password, String alias)
+            throws IOException, GeneralSecurityException {
+        KeyGenerator generator = KeyGenerator.getInstance(KEY_ALGORITHM);
+        generator.init(KEY_SIZE_BITS);
+        KeyStore keyStore = KeyStore.getInstance(type);
+        keyStore.load(null, password);
+        keyStore.setEntry(alias, new KeyStore.SecretKeyEntry(generator.generateKey()),
+                new KeyStore.PasswordProtection(password));
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (OutputStream out = Files.newOutputStream(path)) {
+            keyStore.store(out, password);
+        }
+        if (Files.getFileStore(path).supportsFileAttributeView("posix")) {
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-------"));
+        }
+        log.warn("Generated new card secret keystore {} with key '{}'", path, alias);
+    }
+}
@@ -1,10 +1,18 @@
 package com.bm_nttdata.debitcard_ms.service;
 
+import com.bm_nttdata.debitcard_ms.cache.LastKnownGoodStore;
 import com.bm_nttdata.debitcard_ms.model.AccountAssociationRequestDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationRequestDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationResponseDto;
 import com.bm_nttdata.debitcard_ms.model.BalanceResponseDto;
+import com.bm_nttdata.debitcard_ms.model.BatchGetDebitCardResultDto;
+import com.bm_nttdata.debitcard_ms.model.BatchGetDebitCardsRequestDto;
+import com.bm_nttdata.debitcard_ms.model.BulkDebitCardResultDto;
+import com.bm_nttdata.debitcard_ms.model.CardBalancesResponseDto;
 import com.bm_nttdata.debitcard_ms.model.DebitCardRequestDto;
 import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
 import com.bm_nttdata.debitcard_ms.model.PrimaryAccountRequestDto;
+import java.util.List;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -24,12 +32,58 @@ public interface DebitCardService {
     Mono<DebitCardResponseDto> getDebitCard(String cardId);
 
     /**
-     * Recupera todas las tarjetas de débito asociadas a un cliente específico.
+     * Recupera una página de las tarjetas de débito asociadas a un cliente específico,
+     * ordenadas por identificador.
      *
      * @param customerId Identificador único de cliente
+     * @param afterId Identificador de la última tarjeta recibida, o null para la primera página
+     * @param limit Número máximo de tarjetas a recuperar, o null para el valor por defecto
+     * @param status Estado de las tarjetas a recuperar, o null para todos los estados
      * @return Un Flux que emite la secuencia de tarjetas de débito pertenecientes al cliente
      */
-    Flux<DebitCardResponseDto> getDebitCardsByCustomer(String customerId);
+    Flux<DebitCardResponseDto> getDebitCardsByCustomer(
+            String customerId, String afterId, Integer limit, String status);
+
+    /**
+     * Obtiene la última página de tarjetas de débito devuelta correctamente para la misma
+     * consulta de un cliente, sin acceder a MongoDB.
+     *
+     * @param customerId Identificador único de cliente
+     * @param afterId Identificador de la última tarjeta recibida, o null para la primera página
+     * @param limit Número máximo de tarjetas a recuperar, o null para el valor por defecto
+     * @param status Estado de las tarjetas a recuperar, o null para todos los estados
+     * @return Un Mono con la última página conocida y su antigüedad, o vacío si no existe
+     */
+    Mono<LastKnownGoodStore.Snapshot<List<DebitCardResponseDto>>> getLastKnownDebitCardsByCustomer(
+            String customerId, String afterId, Integer limit, String status);
+
+    /**
+     * Recupera las tarjetas de débito que referencian una cuenta bancaria como cuenta
+     * principal o asociada.
+     *
+     * @param accountId Identificador de la cuenta bancaria
+     * @return Un Flux que emite las tarjetas de débito que referencian la cuenta
+     */
+    Flux<DebitCardResponseDto> getDebitCardsByAccount(String accountId);
+
+    /**
+     * Obtiene las últimas tarjetas de débito devueltas correctamente para una cuenta
+     * bancaria, sin acceder a MongoDB.
+     *
+     * @param accountId Identificador de la cuenta bancaria
+     * @return Un Mono con las últimas tarjetas conocidas y su antigüedad, o vacío si no existen
+     */
+    Mono<LastKnownGoodStore.Snapshot<List<DebitCardResponseDto>>> getLastKnownDebitCardsByAccount(
+            String accountId);
+
+    /**
+     * Obtiene varias tarjetas de débito por sus identificadores con una única consulta.
+     *
+     * @param batchGetRequest DTO con los identificadores de las tarjetas a consultar
+     * @return Un Flux con el resultado de cada identificador, en el orden solicitado
+     */
+    Flux<BatchGetDebitCardResultDto> batchGetDebitCards(
+            Mono<BatchGetDebitCardsRequestDto> batchGetRequest);
 
     /**
      * Crea una nueva tarjeta de débito basada en la información proporcionada.
@@ -39,6 +93,14 @@ public interface DebitCardService {
      */
     Mono<DebitCardResponseDto> createDebitCard(Mono<DebitCardRequestDto> debitCardRequest);
 
+    /**
+     * Crea tarjetas de débito de forma masiva, informando el resultado de cada elemento.
+     *
+     * @param debitCardRequests Flujo de solicitudes de tarjetas de débito
+     * @return Un Flux con el resultado de la emisión de cada elemento
+     */
+    Flux<BulkDebitCardResultDto> createDebitCardsBulk(Flux<DebitCardRequestDto> debitCardRequests);
+
     /**
      * Asocia una cuenta bancaria a una tarjeta de débito existente.
      *
@@ -57,6 +119,25 @@ public interface DebitCardService {
      */
     Mono<BalanceResponseDto> getPrimaryAccountBalance(String cardId);
 
+    /**
+     * Consulta los saldos de la cuenta principal y de las cuentas asociadas de una tarjeta
+     * de débito, junto con el total disponible.
+     *
+     * @param cardId El identificador único de la tarjeta de débito
+     * @return Un Mono con los saldos de las cuentas en orden de prioridad
+     */
+    Mono<CardBalancesResponseDto> getDebitCardBalances(String cardId);
+
+    /**
+     * Obtiene el último saldo conocido de la cuenta principal de una tarjeta de débito,
+     * sin consultar account-ms.
+     *
+     * @param cardId El identificador único de la tarjeta de débito
+     * @return Un Mono con el último saldo conocido y su antigüedad, o vacío si no existe
+     */
+    Mono<LastKnownGoodStore.Snapshot<BalanceResponseDto>> getLastKnownPrimaryAccountBalance(
+            String cardId);
+
     /**
      * Actualiza la cuenta principal de una tarjeta de débito basada en la información
      * proporcionada.
@@ -67,4 +148,16 @@ public interface DebitCardService {
      */
     Mono<DebitCardResponseDto> updatePrimaryAccount(
             String cardId, Mono<PrimaryAccountRequestDto> primaryAccountRequestDto);
+
+    /**
+     * Autoriza un pago con una tarjeta de débito. Si la tarjeta está activa, el importe se
+     * autoriza contra la primera cuenta con saldo suficiente, recorriendo la cuenta
+     * principal y después las cuentas asociadas en orden de prioridad.
+     *
+     * @param cardId El identificador único de la tarjeta de débito
+     * @param authorizationRequestDto DTO con el importe a autorizar
+     * @return Un Mono con la decisión de la autorización, aprobada o rechazada
+     */
+    Mono<AuthorizationResponseDto> authorizeDebitCard(
+            String cardId, Mono<AuthorizationRequestDto> authorizationRequestDto);
 }
@@ -1,35 +1,70 @@
 package com.bm_nttdata.debitcard_ms.service.impl;
 
+import com.bm_nttdata.debitcard_ms.cache.AccountCardIndex;
+import com.bm_nttdata.debitcard_ms.cache.BalanceCache;
+import com.bm_nttdata.debitcard_ms.cache.DebitCardCache;
+import com.bm_nttdata.debitcard_ms.cache.LastKnownGoodStore;
+import com.bm_nttdata.debitcard_ms.cache.ValidationCache;
+import com.bm_nttdata.debitcard_ms.client.AccountBalanceClient;
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties;
 import com.bm_nttdata.debitcard_ms.dto.AccountDto;
 import com.bm_nttdata.debitcard_ms.dto.CustomerDto;
 import com.bm_nttdata.debitcard_ms.entity.DebitCard;
 import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import com.bm_nttdata.debitcard_ms.event.CardOutbox;
 import com.bm_nttdata.debitcard_ms.exception.AccountNotFoundException;
 import com.bm_nttdata.debitcard_ms.exception.ApiInvalidRequestException;
 import com.bm_nttdata.debitcard_ms.exception.BusinessRuleException;
+import com.bm_nttdata.debitcard_ms.exception.ConcurrentUpdateException;
 import com.bm_nttdata.debitcard_ms.exception.DebitCardNotFoundException;
 import com.bm_nttdata.debitcard_ms.exception.ResourceNotFoundException;
+import com.bm_nttdata.debitcard_ms.generator.CardNumberGenerator;
 import com.bm_nttdata.debitcard_ms.mapper.DebitCardMapper;
 import com.bm_nttdata.debitcard_ms.model.AccountAssociationRequestDto;
+import com.bm_nttdata.debitcard_ms.model.AccountBalanceDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationRequestDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationResponseDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationResponseDto.DeclineReasonEnum;
 import com.bm_nttdata.debitcard_ms.model.BalanceResponseDto;
+import com.bm_nttdata.debitcard_ms.model.BatchGetDebitCardResultDto;
+import com.bm_nttdata.debitcard_ms.model.BatchGetDebitCardsRequestDto;
+import com.bm_nttdata.debitcard_ms.model.BulkDebitCardResultDto;
+import com.bm_nttdata.debitcard_ms.model.CardBalancesResponseDto;
 import com.bm_nttdata.debitcard_ms.model.DebitCardRequestDto;
 import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
 import com.bm_nttdata.debitcard_ms.model.PrimaryAccountRequestDto;
 import com.bm_nttdata.debitcard_ms.repository.DebitCardRepository;
+import com.bm_nttdata.debitcard_ms.security.CardSecretCodec;
 import com.bm_nttdata.debitcard_ms.service.DebitCardService;
+import io.micrometer.observation.ObservationRegistry;
+import java.security.SecureRandom;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.observability.micrometer.Micrometer;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetrySpec;
 
 /**
  * Servicio que gestiona las operaciones de negocio relacionadas con
@@ -41,11 +76,46 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class DebitCardServiceImpl implements DebitCardService {
 
+    private static final int PIN_DIGITS = 4;
+
+    private static final int CCV_DIGITS = 3;
+
     private final DebitCardRepository debitCardRepository;
 
+    private final DebitCardCache debitCardCache;
+
+    private final AccountCardIndex accountCardIndex;
+
+    private final BalanceCache balanceCache;
+
+    private final ValidationCache validationCache;
+
+    private final LastKnownGoodStore lastKnownGoodStore;
+
+    private final DebitCardServiceProperties serviceProperties;
+
+    private final CardNumberGenerator cardNumberGenerator;
+
+    private final CardSecretCodec cardSecretCodec;
+
+    private final CardOutbox cardOutbox;
+
+    private final AccountBalanceClient accountBalanceClient;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
     private final DebitCardMapper debitCardMapper;
 
-    private final WebClient.Builder webClient;
+    private final ObservationRegistry observationRegistry;
+
+    @Qualifier("accountWebClient")
+    private final WebClient accountWebClient;
+
+    @Qualifier("customerWebClient")
+    private final WebClient customerWebClient;
+
+    @Qualifier("creditWebClient")
+    private final WebClient creditWebClient;
 
     /**
      * Obtiene los datos de una tarjeta de débito por su Identificador único.
@@ -56,28 +126,131 @@ public class DebitCardServiceImpl implements DebitCardService {
      */
     @Override
     public Mono<DebitCardResponseDto> getDebitCard(String cardId) {
-        Mono<DebitCardResponseDto> debitCard = debitCardRepository.findById(cardId)
-                .switchIfEmpty(Mono.error(
+        return debitCardCache.findById(cardId)
+                .switchIfEmpty(Mono.error(() ->
                         new DebitCardNotFoundException(
                                 "Debit card not found with id: " + cardId)))
-                .map(debitCardMapper::debitCardEntityToDebitCardDto)
-                .doOnSuccess(card -> log.info("Retrieved debit card: {}", cardId));
-        return debitCard;
+                .map(debitCardMapper::debitCardEntityToDebitCardDto);
     }
 
     /**
-     * Recupera todas las tarjetas de débito asociadas a un cliente específico.
+     * Recupera una página de las tarjetas de débito asociadas a un cliente específico,
+     * ordenadas por identificador.
      *
      * @param customerId Identificador único de cliente
+     * @param afterId Identificador de la última tarjeta recibida, o null para la primera página
+     * @param limit Número máximo de tarjetas a recuperar, o null para el valor por defecto
+     * @param status Estado de las tarjetas a recuperar, o null para todos los estados
      * @return Un Flux que emite la secuencia de tarjetas de débito pertenecientes al cliente
      */
     @Override
-    public Flux<DebitCardResponseDto> getDebitCardsByCustomer(String customerId) {
-        Flux<DebitCardResponseDto> debitCard = debitCardRepository.findAllByCustomerId(customerId)
-                .switchIfEmpty(Flux.empty())
-                .map(debitCardMapper::debitCardEntityToDebitCardDto)
-                ;
-        return debitCard;
+    public Flux<DebitCardResponseDto> getDebitCardsByCustomer(
+            String customerId, String afterId, Integer limit, String status) {
+        DebitCardServiceProperties.Pagination pagination = serviceProperties.getPagination();
+        int pageSize = pageSize(limit);
+
+        CardStatusEnum cardStatus;
+        try {
+            cardStatus = status == null ? null : CardStatusEnum.fromValue(status);
+        } catch (IllegalArgumentException e) {
+            return Flux.error(new ApiInvalidRequestException("Invalid card status: " + status));
+        }
+        if (afterId != null && !ObjectId.isValid(afterId)) {
+            return Flux.error(new ApiInvalidRequestException("Invalid afterId cursor: " + afterId));
+        }
+
+        return lastKnownGoodStore.recordCardList(
+                new LastKnownGoodStore.CardListKey(customerId, afterId, pageSize, status),
+                debitCardRepository.findPageByCustomerId(
+                                customerId, cardStatus, afterId, pageSize,
+                                Math.min(pageSize, pagination.getCursorBatchSize()))
+                        .map(debitCardMapper::debitCardEntityToDebitCardDto));
+    }
+
+    /**
+     * Obtiene la última página de tarjetas de débito devuelta correctamente para la misma
+     * consulta de un cliente, sin acceder a MongoDB.
+     *
+     * @param customerId Identificador único de cliente
+     * @param afterId Identificador de la última tarjeta recibida, o null para la primera página
+     * @param limit Número máximo de tarjetas a recuperar, o null para el valor por defecto
+     * @param status Estado de las tarjetas a recuperar, o null para todos los estados
+     * @return Un Mono con la última página conocida y su antigüedad, o vacío si no existe
+     */
+    @Override
+    public Mono<LastKnownGoodStore.Snapshot<List<DebitCardResponseDto>>>
+            getLastKnownDebitCardsByCustomer(
+                    String customerId, String afterId, Integer limit, String status) {
+        return Mono.fromSupplier(() -> lastKnownGoodStore.getCardList(
+                        new LastKnownGoodStore.CardListKey(
+                                customerId, afterId, pageSize(limit), status)))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Recupera las tarjetas de débito que referencian una cuenta bancaria como cuenta
+     * principal o asociada. Si la cuenta se encuentra en el índice en memoria, las
+     * tarjetas se resuelven por identificador sin consultar la colección completa.
+     * El resultado completo se registra como última respuesta correcta para la cuenta.
+     *
+     * @param accountId Identificador de la cuenta bancaria
+     * @return Un Flux que emite las tarjetas de débito que referencian la cuenta
+     */
+    @Override
+    public Flux<DebitCardResponseDto> getDebitCardsByAccount(String accountId) {
+        return lastKnownGoodStore.recordAccountCardList(accountId,
+                Flux.defer(() -> accountCardIndex.getCardIds(accountId)
+                                .map(cardIds -> Flux.fromIterable(cardIds)
+                                        .flatMapSequential(debitCardCache::findById)
+                                        .filter(card -> referencesAccount(card, accountId)))
+                                .orElseGet(() -> {
+                                    Set<String> cardIds = ConcurrentHashMap.newKeySet();
+                                    return debitCardRepository.findAllByAccountId(accountId)
+                                            .doOnNext(card -> cardIds.add(card.getId()))
+                                            .doOnComplete(() -> accountCardIndex.putCardIds(
+                                                    accountId, cardIds));
+                                }))
+                        .map(debitCardMapper::debitCardEntityToDebitCardDto));
+    }
+
+    /**
+     * Obtiene las últimas tarjetas de débito devueltas correctamente para una cuenta
+     * bancaria, sin acceder a MongoDB.
+     *
+     * @param accountId Identificador de la cuenta bancaria
+     * @return Un Mono con las últimas tarjetas conocidas y su antigüedad, o vacío si no existen
+     */
+    @Override
+    public Mono<LastKnownGoodStore.Snapshot<List<DebitCardResponseDto>>>
+            getLastKnownDebitCardsByAccount(String accountId) {
+        return Mono.fromSupplier(() -> lastKnownGoodStore.getAccountCardList(accountId))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Obtiene varias tarjetas de débito por sus identificadores con una única consulta.
+     *
+     * @param batchGetRequest DTO con los identificadores de las tarjetas a consultar
+     * @return Un Flux con el resultado de cada identificador, en el orden solicitado
+     */
+    @Override
+    public Flux<BatchGetDebitCardResultDto> batchGetDebitCards(
+            Mono<BatchGetDebitCardsRequestDto> batchGetRequest) {
+        int maxIds = serviceProperties.getBatchGet().getMaxIds();
+        return batchGetRequest
+                .filter(request -> request.getIds() != null && !request.getIds().isEmpty())
+                .switchIfEmpty(Mono.error(() ->
+                        new ApiInvalidRequestException("At least one card id is required")))
+                .flatMap(request -> request.getIds().size() > maxIds
+                        ? Mono.error(new ApiInvalidRequestException(
+                                "A maximum of " + maxIds + " card ids can be requested"))
+                        : Mono.just(request.getIds()))
+                .flatMapMany(ids -> debitCardRepository
+                        .findSummariesByIdIn(new LinkedHashSet<>(ids))
+                        .collectMap(DebitCard::getId)
+                        .flatMapIterable(found -> ids.stream()
+                                .map(id -> toBatchGetResult(id, found.get(id)))
+                                .toList()));
     }
 
     /**
@@ -91,35 +264,42 @@ public class DebitCardServiceImpl implements DebitCardService {
 
         return debitCardRequest
                 .switchIfEmpty(
-                        Mono.error(new ApiInvalidRequestException("Customer ID is required")))
+                        Mono.error(() ->
+                                new ApiInvalidRequestException("Customer ID is required")))
                 .flatMap(request ->
-                        validateCustomerAndAccount(request)
-                                .then(checkCustomerDebts(request.getCustomerId()))
-                                .flatMap(hasDebts -> {
-                                    if (hasDebts) {
-                                        return Mono.error(
-                                            new BusinessRuleException(
-                                                "Customer has overdue debts"));
-                                    }
-
-                                    LocalDate expDate = LocalDate.now().plusMonths(36);
-                                    YearMonth month = YearMonth.from(expDate);
-                                    Random random = new Random();
-
-                                    DebitCard debitCard =
-                                            debitCardMapper
-                                                    .debitCardRequestToDebitCardEntity(request);
-                                    debitCard.setCardNumber(generateCardNumber());
-                                    debitCard.setCardPin(String.valueOf(random.nextInt(10000)));
-                                    debitCard.setCcvCode(String.valueOf(random.nextInt(1000)));
-                                    debitCard.setCreationDate(LocalDateTime.now());
-                                    debitCard.setExpirationDate(String.valueOf(month));
-                                    debitCard.setActive(CardStatusEnum.ACTIVE);
-                                    return debitCardRepository.save(debitCard);
-                                }))
+                        validateIssuance(request)
+                                .then(observe("debitcard.persistence.save",
+                                        Mono.defer(() ->
+                                                debitCardCache.save(newDebitCard(request)))
+                                        .retryWhen(onCardNumberCollision()))))
+                .doOnNext(card ->
+                        accountCardIndex.link(card.getPrimaryAccountId(), card.getId()))
                 .map(debitCardMapper::debitCardEntityToDebitCardDto);
     }
 
+    /**
+     * Crea tarjetas de débito de forma masiva. Cada cliente distinto se valida una sola vez,
+     * las validaciones se ejecutan con concurrencia acotada y las tarjetas se insertan por
+     * bloques. Los errores se informan por elemento sin interrumpir el lote.
+     *
+     * @param debitCardRequests Flujo de solicitudes de tarjetas de débito
+     * @return Un Flux con el resultado de la emisión de cada elemento
+     */
+    @Override
+    public Flux<BulkDebitCardResultDto> createDebitCardsBulk(
+            Flux<DebitCardRequestDto> debitCardRequests) {
+        DebitCardServiceProperties.Bulk config = serviceProperties.getBulk();
+        Map<String, Mono<Void>> customerChecks = new ConcurrentHashMap<>();
+
+        return debitCardRequests
+                .index()
+                .flatMap(item -> prepareBulkItem(
+                                item.getT1().intValue(), item.getT2(), customerChecks),
+                        config.getMaxConcurrency())
+                .bufferTimeout(config.getChunkSize(), config.getChunkMaxWait())
+                .concatMap(this::persistBulkChunk);
+    }
+
     /**
      * Asocia una cuenta bancaria a una tarjeta de débito existente.
      *
@@ -131,36 +311,30 @@ public class DebitCardServiceImpl implements DebitCardService {
     public Mono<DebitCardResponseDto> associateAccount(
             String cardId, Mono<AccountAssociationRequestDto> accountAssociationRequestDto) {
 
-        return debitCardRepository.findById(cardId)
-                .switchIfEmpty(Mono.error(new DebitCardNotFoundException("Debit card not found")))
+        return debitCardCache.findById(cardId)
+                .switchIfEmpty(Mono.error(() ->
+                        new DebitCardNotFoundException("Debit card not found")))
                 .flatMap(card ->
                         accountAssociationRequestDto
-                                .switchIfEmpty(Mono.error(
+                                .switchIfEmpty(Mono.error(() ->
                                     new BusinessRuleException(
                                             "Account Association Request is required")))
                                 .flatMap(requestDto ->
-                                    webClient.build()
+                                    accountWebClient
                                         .get()
-                                        .uri("http://account-ms/api/v1/accounts/"
-                                                + requestDto.getAccountId())
+                                        .uri("/api/v1/accounts/{accountId}",
+                                                requestDto.getAccountId())
                                         .retrieve()
                                         .bodyToMono(AccountDto.class)
                                         .switchIfEmpty(
-                                                Mono.error(
+                                                Mono.error(() ->
                                                         new AccountNotFoundException(
                                                                 "Account to associate not found")))
-                                        .flatMap(account -> {
-                                            if (card.getAssociatedAccountIds() == null) {
-                                                card.setAssociatedAccountIds(new ArrayList<>());
-                                            }
-                                            if (!card.getAssociatedAccountIds()
-                                                    .contains(requestDto.getAccountId())) {
-                                                card.getAssociatedAccountIds()
-                                                        .add(requestDto.getAccountId());
-                                                return debitCardRepository.save(card);
-                                            }
-                                            return Mono.just(card);
-                                        }))
+                                        .flatMap(account -> isAssociated(
+                                                card, requestDto.getAccountId())
+                                                ? Mono.just(card)
+                                                : addAssociatedAccount(
+                                                        cardId, requestDto.getAccountId())))
                 )
                 .map(debitCardMapper::debitCardEntityToDebitCardDto)
                 ;
@@ -175,15 +349,48 @@ public class DebitCardServiceImpl implements DebitCardService {
      */
     @Override
     public Mono<BalanceResponseDto> getPrimaryAccountBalance(String cardId) {
-        return debitCardRepository.findById(cardId)
-                .switchIfEmpty(Mono.error(new DebitCardNotFoundException("Debit card not found")))
+        return debitCardCache.findById(cardId)
+                .switchIfEmpty(Mono.error(() ->
+                        new DebitCardNotFoundException("Debit card not found")))
                 .flatMap(card ->
-                        webClient.build()
-                                .get()
-                                .uri("http://account-ms/api/v1/accounts/"
-                                        + card.getPrimaryAccountId() + "/balance")
-                                .retrieve()
-                                .bodyToMono(BalanceResponseDto.class));
+                        balanceCache.get(card.getPrimaryAccountId(), this::fetchAccountBalance));
+    }
+
+    /**
+     * Consulta los saldos de la cuenta principal y de las cuentas asociadas de una tarjeta
+     * de débito, junto con el total disponible. Las cuentas cuyo saldo no se obtiene a
+     * tiempo se marcan como no disponibles y la respuesta se indica como parcial.
+     *
+     * @param cardId El identificador único de la tarjeta de débito
+     * @return Un Mono con los saldos de las cuentas en orden de prioridad
+     */
+    @Override
+    public Mono<CardBalancesResponseDto> getDebitCardBalances(String cardId) {
+        return debitCardCache.findById(cardId)
+                .switchIfEmpty(Mono.error(() ->
+                        new DebitCardNotFoundException("Debit card not found")))
+                .flatMap(card -> {
+                    List<String> accountIds = List.copyOf(accountsByPriority(card));
+                    return observe("debitcard.balances",
+                            accountBalanceClient.fetchBalances(accountIds))
+                            .doOnNext(balances -> balances.forEach(lastKnownGoodStore::putBalance))
+                            .map(balances -> toCardBalances(card, accountIds, balances));
+                });
+    }
+
+    /**
+     * Obtiene el último saldo conocido de la cuenta principal de una tarjeta de débito,
+     * sin consultar account-ms.
+     *
+     * @param cardId El identificador único de la tarjeta de débito
+     * @return Un Mono con el último saldo conocido y su antigüedad, o vacío si no existe
+     */
+    @Override
+    public Mono<LastKnownGoodStore.Snapshot<BalanceResponseDto>> getLastKnownPrimaryAccountBalance(
+            String cardId) {
+        return debitCardCache.findById(cardId)
+                .flatMap(card -> Mono.justOrEmpty(
+                        lastKnownGoodStore.getBalance(card.getPrimaryAccountId())));
     }
 
     /**
@@ -197,100 +404,490 @@ public class DebitCardServiceImpl implements DebitCardService {
     @Override
     public Mono<DebitCardResponseDto> updatePrimaryAccount(
             String cardId, Mono<PrimaryAccountRequestDto> primaryAccountRequestDto) {
-        return debitCardRepository.findById(cardId)
-                .switchIfEmpty(Mono.error(new DebitCardNotFoundException("Debit card not found")))
+        return debitCardCache.findById(cardId)
+                .switchIfEmpty(Mono.error(() ->
+                        new DebitCardNotFoundException("Debit card not found")))
                 .flatMap(card ->
                         primaryAccountRequestDto
-                            .switchIfEmpty(Mono.error(
+                            .switchIfEmpty(Mono.error(() ->
                                 new BusinessRuleException(
                                         "Account Association Request is required")))
                             .flatMap(requestDto ->
-                                webClient.build()
+                                accountWebClient
                                     .get()
-                                    .uri("http://account-ms/api/v1/accounts/"
-                                            + requestDto.getAccountId())
+                                    .uri("/api/v1/accounts/{accountId}",
+                                            requestDto.getAccountId())
                                     .retrieve()
                                     .bodyToMono(AccountDto.class)
                                     .switchIfEmpty(
-                                            Mono.error(
+                                            Mono.error(() ->
                                                     new AccountNotFoundException(
                                                             "Account to associate not found")))
-                                    .flatMap(account -> {
-                                        card.setPrimaryAccountId(account.getId());
-
-                                        return debitCardRepository.save(card);
-                                    }))
+                                    .flatMap(account ->
+                                            changePrimaryAccount(card, account.getId())))
                 )
                 .map(debitCardMapper::debitCardEntityToDebitCardDto);
     }
 
-    private String generateCardNumber() {
-        Random random = new Random();
-        String cardNumber = String.format("%04d-%04d-%04d-%04d",
-                random.nextInt(10000),
-                random.nextInt(10000),
-                random.nextInt(10000),
-                random.nextInt(10000));
-        return cardNumber;
+    /**
+     * Autoriza un pago con una tarjeta de débito. Si la tarjeta está activa, el importe se
+     * autoriza contra la primera cuenta con saldo suficiente, recorriendo la cuenta
+     * principal y después las cuentas asociadas en orden de prioridad.
+     *
+     * @param cardId El identificador único de la tarjeta de débito
+     * @param authorizationRequestDto DTO con el importe a autorizar
+     * @return Un Mono con la decisión de la autorización, aprobada o rechazada
+     */
+    @Override
+    public Mono<AuthorizationResponseDto> authorizeDebitCard(
+            String cardId, Mono<AuthorizationRequestDto> authorizationRequestDto) {
+        return observe("debitcard.authorization", authorizationRequestDto
+                .switchIfEmpty(Mono.error(() ->
+                        new ApiInvalidRequestException("Authorization Request is required")))
+                .filter(request -> request.getAmount() != null && request.getAmount() > 0)
+                .switchIfEmpty(Mono.error(() ->
+                        new ApiInvalidRequestException("Amount must be greater than zero")))
+                .flatMap(request -> debitCardCache.findById(cardId)
+                        .switchIfEmpty(Mono.error(() ->
+                                new DebitCardNotFoundException("Debit card not found")))
+                        .flatMap(card -> authorize(card, request.getAmount()))));
+    }
+
+    /**
+     * Busca la primera cuenta de la tarjeta, en orden de prioridad, cuyo saldo cubre el
+     * importe. Los saldos se consultan de forma especulativa: se lanzan hasta
+     * {@code speculativeLookups} consultas a la vez, los resultados se evalúan en orden de
+     * prioridad y, en cuanto una cuenta cubre el importe, se cancelan las consultas
+     * pendientes. Una cuenta cuyo saldo no se obtiene a tiempo se omite.
+     */
+    private Mono<AuthorizationResponseDto> authorize(DebitCard card, double amount) {
+        AuthorizationResponseDto response = new AuthorizationResponseDto()
+                .cardId(card.getId())
+                .amount(amount);
+        if (card.getActive() != CardStatusEnum.ACTIVE) {
+            return Mono.just(decline(response, DeclineReasonEnum.CARD_NOT_ACTIVE));
+        }
+        DebitCardServiceProperties.Authorization config = serviceProperties.getAuthorization();
+        return Flux.fromIterable(accountsByPriority(card))
+                .flatMapSequential(accountId ->
+                                lookupBalance(accountId, config.getBalanceTimeout()),
+                        config.getSpeculativeLookups())
+                .takeUntil(lookup -> lookup.covers(amount))
+                .collectList()
+                .map(lookups -> {
+                    if (!lookups.isEmpty() && lookups.get(lookups.size() - 1).covers(amount)) {
+                        return response
+                                .status(AuthorizationResponseDto.StatusEnum.APPROVED)
+                                .accountId(lookups.get(lookups.size() - 1).accountId())
+                                .authorizationDate(OffsetDateTime.now());
+                    }
+                    boolean unavailable = lookups.stream()
+                            .anyMatch(lookup -> lookup.balance() == null);
+                    return decline(response, unavailable
+                            ? DeclineReasonEnum.BALANCE_UNAVAILABLE
+                            : DeclineReasonEnum.INSUFFICIENT_FUNDS);
+                });
+    }
+
+    private Mono<BalanceLookup> lookupBalance(String accountId, Duration timeout) {
+        return fetchAccountBalance(accountId)
+                .timeout(timeout)
+                .map(balance -> new BalanceLookup(accountId, balance.getBalance()))
+                .onErrorResume(e -> {
+                    log.warn("Balance of account {} unavailable for authorization: {}",
+                            accountId, e.getMessage());
+                    return Mono.empty();
+                })
+                .defaultIfEmpty(new BalanceLookup(accountId, null));
+    }
+
+    /**
+     * Asocia la cuenta con una actualización atómica $addToSet. Si no se modifica ningún
+     * documento, la cuenta ya había sido asociada por otra operación o la tarjeta ya no
+     * existe, y se devuelve el estado actual de la tarjeta.
+     */
+    private Mono<DebitCard> addAssociatedAccount(String cardId, String accountId) {
+        return debitCardCache.addAssociatedAccount(
+                        cardId, accountId, cardOutbox.accountAssociated(accountId))
+                .doOnNext(saved -> accountCardIndex.link(accountId, saved.getId()))
+                .switchIfEmpty(Mono.defer(() -> debitCardCache.findById(cardId)))
+                .switchIfEmpty(Mono.error(() ->
+                        new DebitCardNotFoundException("Debit card not found")));
+    }
+
+    /**
+     * Cambia la cuenta principal condicionando la escritura a la versión leída, de modo
+     * que la cuenta principal anterior que se desvincula del índice es exactamente la
+     * sustituida. Si otra operación ha modificado la tarjeta entretanto, se relee desde
+     * MongoDB y se reintenta; agotados los reintentos se informa el conflicto.
+     */
+    private Mono<DebitCard> changePrimaryAccount(DebitCard card, String accountId) {
+        AtomicReference<DebitCard> read = new AtomicReference<>(card);
+        return Mono.defer(() -> {
+            DebitCard current = read.get();
+            return debitCardCache.updatePrimaryAccount(
+                            current.getId(), current.getVersion(), accountId,
+                            cardOutbox.primaryAccountChanged(
+                                    current.getPrimaryAccountId(), accountId))
+                    .doOnNext(saved -> {
+                        accountCardIndex.link(accountId, saved.getId());
+                        String previousAccountId = current.getPrimaryAccountId();
+                        if (!referencesAccount(saved, previousAccountId)) {
+                            accountCardIndex.unlink(previousAccountId, saved.getId());
+                        }
+                    })
+                    .switchIfEmpty(Mono.defer(() -> debitCardCache.findById(current.getId())
+                            .switchIfEmpty(Mono.error(() ->
+                                    new DebitCardNotFoundException("Debit card not found")))
+                            .flatMap(reloaded -> {
+                                read.set(reloaded);
+                                return Mono.error(new ConcurrentUpdateException(
+                                        "Debit card was modified concurrently, try again"));
+                            })));
+        }).retryWhen(Retry.max(serviceProperties.getUpdates().getMaxConflictRetries())
+                .filter(ConcurrentUpdateException.class::isInstance)
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+    }
+
+    private static boolean isAssociated(DebitCard debitCard, String accountId) {
+        return debitCard.getAssociatedAccountIds() != null
+                && debitCard.getAssociatedAccountIds().contains(accountId);
+    }
+
+    private static Set<String> accountsByPriority(DebitCard debitCard) {
+        Set<String> accountIds = new LinkedHashSet<>();
+        if (debitCard.getPrimaryAccountId() != null) {
+            accountIds.add(debitCard.getPrimaryAccountId());
+        }
+        if (debitCard.getAssociatedAccountIds() != null) {
+            debitCard.getAssociatedAccountIds().stream()
+                    .filter(Objects::nonNull)
+                    .forEach(accountIds::add);
+        }
+        return accountIds;
+    }
+
+    private static CardBalancesResponseDto toCardBalances(
+            DebitCard debitCard, List<String> accountIds,
+            Map<String, BalanceResponseDto> balances) {
+        CardBalancesResponseDto response = new CardBalancesResponseDto()
+                .cardId(debitCard.getId())
+                .totalAvailable(0.0)
+                .partial(false)
+                .accounts(new ArrayList<>(accountIds.size()));
+        for (String accountId : accountIds) {
+            AccountBalanceDto account = new AccountBalanceDto()
+                    .accountId(accountId)
+                    .primary(accountId.equals(debitCard.getPrimaryAccountId()));
+            BalanceResponseDto balance = balances.get(accountId);
+            if (balance == null || balance.getBalance() == null) {
+                response.partial(true);
+                account.status(AccountBalanceDto.StatusEnum.UNAVAILABLE);
+            } else {
+                response.totalAvailable(response.getTotalAvailable() + balance.getBalance());
+                account.status(AccountBalanceDto.StatusEnum.AVAILABLE)
+                        .balance(balance.getBalance())
+                        .lastUpdateDate(balance.getLastUpdateDate());
+            }
+            response.addAccountsItem(account);
+        }
+        return response;
     }
 
-    private Mono<Void> validateCustomerAndAccount(DebitCardRequestDto request) {
-        Mono<CustomerDto> customerValidation = webClient.build()
+    private static AuthorizationResponseDto decline(
+            AuthorizationResponseDto response, DeclineReasonEnum reason) {
+        return response
+                .status(AuthorizationResponseDto.StatusEnum.DECLINED)
+                .declineReason(reason)
+                .authorizationDate(OffsetDateTime.now());
+    }
+
+    private Mono<BalanceResponseDto> fetchAccountBalance(String accountId) {
+        return accountWebClient
                 .get()
-                .uri("http://customer-ms/api/v1/customers/" + request.getCustomerId())
+                .uri("/api/v1/accounts/{accountId}/balance", accountId)
                 .retrieve()
-                .bodyToMono(CustomerDto.class)
-                .onErrorResume(WebClientResponseException.NotFound.class, e ->
-                        Mono.error(
-                                new ResourceNotFoundException(
-                                        "Customer not found with ID: " + request.getCustomerId())))
-                .onErrorResume(e -> {
-                    log.error("Error calling customer service: {}", e.getMessage());
-                    return Mono.error(new RuntimeException("Customer Service Unavailable"));
-                });
+                .bodyToMono(BalanceResponseDto.class)
+                .doOnNext(balance -> lastKnownGoodStore.putBalance(accountId, balance));
+    }
+
+    private int pageSize(Integer limit) {
+        DebitCardServiceProperties.Pagination pagination = serviceProperties.getPagination();
+        return limit == null
+                ? pagination.getDefaultLimit()
+                : Math.min(limit, pagination.getMaxLimit());
+    }
+
+    private DebitCard newDebitCard(DebitCardRequestDto request) {
+        LocalDate expDate = LocalDate.now().plusMonths(36);
+        YearMonth month = YearMonth.from(expDate);
+
+        DebitCard debitCard = debitCardMapper.debitCardRequestToDebitCardEntity(request);
+        assignCardNumber(debitCard);
+        debitCard.setCreationDate(LocalDateTime.now());
+        debitCard.setExpirationDate(String.valueOf(month));
+        debitCard.setActive(CardStatusEnum.ACTIVE);
+        cardOutbox.recordCreation(debitCard);
+        return debitCard;
+    }
+
+    /**
+     * Asigna un nuevo número a la tarjeta junto con su PIN y código CCV, codificados y
+     * ligados a ese número. Se invoca también al regenerar el número tras una colisión,
+     * ya que los valores codificados para el número anterior dejan de ser verificables.
+     */
+    private void assignCardNumber(DebitCard debitCard) {
+        String cardNumber = cardNumberGenerator.generate();
+        debitCard.setCardNumber(cardNumber);
+        debitCard.setCardPin(
+                cardSecretCodec.encode(randomDigits(PIN_DIGITS), cardNumber));
+        debitCard.setCcvCode(
+                cardSecretCodec.encode(randomDigits(CCV_DIGITS), cardNumber));
+    }
+
+    private String randomDigits(int digits) {
+        StringBuilder value = new StringBuilder(digits);
+        for (int i = 0; i < digits; i++) {
+            value.append((char) ('0' + secureRandom.nextInt(10)));
+        }
+        return value.toString();
+    }
+
+    private Mono<BulkItem> prepareBulkItem(
+            int index, DebitCardRequestDto request, Map<String, Mono<Void>> customerChecks) {
+        if (request.getCustomerId() == null || request.getPrimaryAccountId() == null) {
+            return Mono.just(new BulkItem(index, request, null,
+                    new ApiInvalidRequestException(
+                            "Customer ID and primary account ID are required")));
+        }
+        Mono<Void> customerCheck = customerChecks.computeIfAbsent(
+                request.getCustomerId(), customerId -> verifyCustomer(customerId).cache());
+
+        return Mono.when(customerCheck, fetchAccount(request.getPrimaryAccountId()))
+                .then(Mono.fromCallable(() -> {
+                    // Identificador asignado antes del insertMany para poder reintentar
+                    // elemento a elemento sin duplicar las tarjetas ya insertadas
+                    DebitCard debitCard = newDebitCard(request);
+                    debitCard.setId(new ObjectId().toHexString());
+                    return new BulkItem(index, request, debitCard, null);
+                }))
+                .onErrorResume(e -> Mono.just(new BulkItem(index, request, null, e)));
+    }
+
+    /**
+     * Valida en paralelo la existencia del cliente y la ausencia de deudas vencidas.
+     * El primer error cancela la consulta pendiente.
+     */
+    private Mono<Void> verifyCustomer(String customerId) {
+        Mono<CustomerDto> customerValidation = observe("debitcard.validation.customer",
+                validationCache.getCustomer(customerId, this::fetchCustomer));
+
+        Mono<Boolean> debtsValidation = checkCustomerDebts(customerId)
+                .filter(hasDebts -> !hasDebts)
+                .switchIfEmpty(Mono.error(() ->
+                        new BusinessRuleException("Customer has overdue debts")));
+
+        return Mono.when(customerValidation, debtsValidation);
+    }
+
+    private Flux<BulkDebitCardResultDto> persistBulkChunk(List<BulkItem> chunk) {
+        List<DebitCard> cards = chunk.stream()
+                .filter(BulkItem::isPrepared)
+                .map(BulkItem::card)
+                .toList();
+        Mono<List<BulkItem>> persisted = cards.isEmpty()
+                ? Mono.just(chunk)
+                : debitCardRepository.insertAll(cards)
+                        .then(Mono.just(chunk))
+                        .onErrorResume(e -> {
+                            log.warn("Bulk insert of {} cards failed, retrying one by one: {}",
+                                    cards.size(), e.getMessage());
+                            return Flux.fromIterable(chunk)
+                                    .concatMap(this::persistBulkItem)
+                                    .collectList();
+                        });
 
-        Mono<AccountDto> accountValidation = webClient.build()
+        return persisted
+                .flatMapIterable(items -> items)
+                .doOnNext(item -> {
+                    if (item.isPrepared()) {
+                        debitCardCache.put(item.card());
+                        accountCardIndex.link(
+                                item.card().getPrimaryAccountId(), item.card().getId());
+                    }
+                })
+                .map(this::toBulkResult);
+    }
+
+    private Mono<BulkItem> persistBulkItem(BulkItem item) {
+        if (!item.isPrepared()) {
+            return Mono.just(item);
+        }
+        return debitCardRepository.findById(item.card().getId())
+                .switchIfEmpty(Mono.defer(() -> debitCardRepository.insert(item.card()))
+                        .retryWhen(onCardNumberCollision()
+                                .doBeforeRetry(signal -> assignCardNumber(item.card()))))
+                .thenReturn(item)
+                .onErrorResume(e ->
+                        Mono.just(new BulkItem(item.index(), item.request(), null, e)));
+    }
+
+    private BulkDebitCardResultDto toBulkResult(BulkItem item) {
+        BulkDebitCardResultDto result = new BulkDebitCardResultDto()
+                .index(item.index())
+                .customerId(item.request().getCustomerId())
+                .primaryAccountId(item.request().getPrimaryAccountId());
+        if (item.isPrepared()) {
+            return result
+                    .status(BulkDebitCardResultDto.StatusEnum.CREATED)
+                    .card(debitCardMapper.debitCardEntityToDebitCardDto(item.card()));
+        }
+        return result
+                .status(BulkDebitCardResultDto.StatusEnum.FAILED)
+                .errorCode(errorCode(item.error()))
+                .errorMessage(item.error().getMessage());
+    }
+
+    private static boolean referencesAccount(DebitCard debitCard, String accountId) {
+        return accountId != null
+                && (accountId.equals(debitCard.getPrimaryAccountId())
+                        || (debitCard.getAssociatedAccountIds() != null
+                                && debitCard.getAssociatedAccountIds().contains(accountId)));
+    }
+
+    private BatchGetDebitCardResultDto toBatchGetResult(String cardId, DebitCard debitCard) {
+        BatchGetDebitCardResultDto result = new BatchGetDebitCardResultDto()
+                .id(cardId)
+                .found(debitCard != null);
+        return debitCard == null
+                ? result
+                : result.card(debitCardMapper.debitCardEntityToDebitCardDto(debitCard));
+    }
+
+    private static String errorCode(Throwable error) {
+        if (error instanceof ResourceNotFoundException) {
+            return "RESOURCE_NOT_FOUND";
+        }
+        if (error instanceof BusinessRuleException) {
+            return "BUSINESS_RULE_VIOLATION";
+        }
+        if (error instanceof ApiInvalidRequestException) {
+            return "BAD_REQUEST";
+        }
+        return "SERVICE_EXCEPTION";
+    }
+
+    private RetrySpec onCardNumberCollision() {
+        return Retry.max(cardNumberGenerator.getMaxAttempts() - 1L)
+                .filter(DuplicateKeyException.class::isInstance)
+                .doBeforeRetry(signal ->
+                        log.warn("Card number collision, generating a new card number"));
+    }
+
+    /**
+     * Ejecuta en paralelo las validaciones de emisión de una tarjeta: cliente, cuenta
+     * principal y deudas en créditos y tarjetas de crédito. La latencia es la de la
+     * consulta más lenta y el primer error cancela las consultas pendientes.
+     */
+    private Mono<Void> validateIssuance(DebitCardRequestDto request) {
+        Mono<AccountDto> accountValidation = observe("debitcard.validation.account",
+                fetchAccount(request.getPrimaryAccountId()));
+
+        return Mono.when(verifyCustomer(request.getCustomerId()), accountValidation);
+    }
+
+    private Mono<AccountDto> fetchAccount(String accountId) {
+        return accountWebClient
                 .get()
-                .uri("http://account-ms/api/v1/accounts/" + request.getPrimaryAccountId())
+                .uri("/api/v1/accounts/{accountId}", accountId)
                 .retrieve()
                 .bodyToMono(AccountDto.class)
+                .timeout(serviceProperties.getValidation().getAccountTimeout())
                 .onErrorResume(WebClientResponseException.NotFound.class, e ->
                         Mono.error(
                                 new ResourceNotFoundException(
-                                        "Account not found with ID: "
-                                                + request.getPrimaryAccountId())))
-                .onErrorResume(e -> {
+                                        "Account not found with ID: " + accountId)))
+                .onErrorResume(e -> !(e instanceof ResourceNotFoundException), e -> {
                     log.error("Error calling account service: {}", e.getMessage());
                     return Mono.error(new RuntimeException("Account Service Unavailable"));
                 });
+    }
 
-        return Mono.zip(customerValidation, accountValidation)
-                .then();
+    private Mono<CustomerDto> fetchCustomer(String customerId) {
+        return customerWebClient
+                .get()
+                .uri("/api/v1/customers/{customerId}", customerId)
+                .retrieve()
+                .bodyToMono(CustomerDto.class)
+                .timeout(serviceProperties.getValidation().getCustomerTimeout())
+                .onErrorResume(WebClientResponseException.NotFound.class, e ->
+                        Mono.error(
+                                new ResourceNotFoundException(
+                                        "Customer not found with ID: " + customerId)))
+                .onErrorResume(e -> !(e instanceof ResourceNotFoundException), e -> {
+                    log.error("Error calling customer service: {}", e.getMessage());
+                    return Mono.error(new RuntimeException("Customer Service Unavailable"));
+                });
     }
 
     private Mono<Boolean> checkCustomerDebts(String customerId) {
-        Mono<Boolean> creditDebts = webClient.build()
+        return observe("debitcard.validation.debts",
+                validationCache.getDebtVerdict(customerId, this::fetchCustomerDebts));
+    }
+
+    /**
+     * Registra un tramo de la operación como observación, que genera un span hijo de la
+     * traza en curso y un temporizador con el mismo nombre.
+     */
+    private <T> Mono<T> observe(String name, Mono<T> leg) {
+        return leg.name(name).tap(Micrometer.observation(observationRegistry));
+    }
+
+    /**
+     * Consulta en paralelo las deudas de créditos y de tarjetas de crédito. El veredicto
+     * positivo se emite con la primera respuesta que indique deudas, cancelando la otra.
+     */
+    private Mono<Boolean> fetchCustomerDebts(String customerId) {
+        Duration timeout = serviceProperties.getValidation().getCreditTimeout();
+        Mono<Boolean> creditDebts = creditWebClient
                 .get()
-                .uri("http://credit-ms/api/v1/credits/customer/" + customerId + "/debts")
+                .uri("/api/v1/credits/customer/{customerId}/debts", customerId)
                 .retrieve()
                 .bodyToMono(Boolean.class)
+                .timeout(timeout)
                 .onErrorResume(e -> {
                     log.error("Error calling credit-ms service for credits: {}", e.getMessage());
                     return Mono.error(new RuntimeException("Credit Service Unavailable"));
                 });
 
-        Mono<Boolean> creditCardDebts = webClient.build()
+        Mono<Boolean> creditCardDebts = creditWebClient
                 .get()
-                .uri("http://credit-ms/api/v1/credit-cards/customer/" + customerId + "/debts")
+                .uri("/api/v1/credit-cards/customer/{customerId}/debts", customerId)
                 .retrieve()
                 .bodyToMono(Boolean.class)
+                .timeout(timeout)
                 .onErrorResume(e -> {
                     log.error(
                             "Error calling credit-ms service for credit cards: {}", e.getMessage());
                     return Mono.error(new RuntimeException("Credit Card Service Unavailable"));
                 });
 
-        return Mono.zip(creditDebts, creditCardDebts)
-                .map(tuple -> tuple.getT1() || tuple.getT2());
+        return Flux.merge(creditDebts, creditCardDebts)
+                .any(Boolean::booleanValue);
+    }
+
+    private record BalanceLookup(String accountId, Double balance) {
+
+        boolean covers(double amount) {
+            return balance != null && balance >= amount;
+        }
+    }
+
+    private record BulkItem(
+            int index, DebitCardRequestDto request, DebitCard card, Throwable error) {
+
+        boolean isPrepared() {
+            return error == null;
+        }
     }
 }
@@ -0,0 +1,79 @@
+package com.bm_nttdata.debitcard_ms.storage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import org.bson.Document;
+
+/**
+ * Tamaños de una colección de MongoDB obtenidos con el comando {@code collStats}.
+ *
+ * @param collection Nombre de la colección
+ * @param count Número de documentos
+ * @param avgObjSize Tamaño medio de documento en bytes
+ * @param size Tamaño total de los documentos sin comprimir en bytes
+ * @param storageSize Espacio reservado en disco para los documentos en bytes
+ * @param totalIndexSize Tamaño total de los índices en bytes
+ * @param indexSizes Tamaño de cada índice en bytes
+ */
+public record CollectionSizeReport(
+        String collection, long count, double avgObjSize, long size, long storageSize,
+        long totalIndexSize, Map<String, Long> indexSizes) {
+
+    /**
+     * Construye el informe a partir de la respuesta del comando {@code collStats}.
+     *
+     * @param collection Nombre de la colección
+     * @param stats Respuesta del comando {@code collStats}
+     * @return El informe de tamaños de la colección
+     */
+    public static CollectionSizeReport of(String collection, Document stats) {
+        Map<String, Long> indexSizes = new LinkedHashMap<>();
+        Object sizes = stats.get("indexSizes");
+        if (sizes instanceof Document indexes) {
+            indexes.forEach((name, value) -> indexSizes.put(name, longValue(value)));
+        }
+        return new CollectionSizeReport(
+                collection,
+                longValue(stats.get("count")),
+                stats.get("avgObjSize") instanceof Number avg ? avg.doubleValue() : 0,
+                longValue(stats.get("size")),
+                longValue(stats.get("storageSize")),
+                longValue(stats.get("totalIndexSize")),
+                indexSizes);
+    }
+
+    /**
+     * Compara los tamaños de esta colección con los de otra.
+     *
+     * @param after Tamaños de la colección con la que comparar
+     * @return Tabla con los tamaños antes y después y la variación porcentual
+     */
+    public String compareWith(CollectionSizeReport after) {
+        StringBuilder table = new StringBuilder(String.format("%-28s %16s %16s %9s%n",
+                "metric", collection, after.collection, "change"));
+        row(table, "documents", count, after.count);
+        row(table, "avgObjSize (bytes)", avgObjSize, after.avgObjSize);
+        row(table, "size (bytes)", size, after.size);
+        row(table, "storageSize (bytes)", storageSize, after.storageSize);
+        row(table, "totalIndexSize (bytes)", totalIndexSize, after.totalIndexSize);
+        TreeSet<String> indexes = new TreeSet<>(indexSizes.keySet());
+        indexes.addAll(after.indexSizes.keySet());
+        for (String index : indexes) {
+            row(table, "index " + index + " (bytes)",
+                    indexSizes.getOrDefault(index, 0L), after.indexSizes.getOrDefault(index, 0L));
+        }
+        return table.toString();
+    }
+
+    private static void row(StringBuilder table, String metric, double before, double after) {
+        String change = before > 0
+                ? String.format("%+.1f%%", (after - before) * 100 / before)
+                : "-";
+        table.append(String.format("%-28s %16.0f %16.0f %9s%n", metric, before, after, change));
+    }
+
+    private static long longValue(Object value) {
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+}
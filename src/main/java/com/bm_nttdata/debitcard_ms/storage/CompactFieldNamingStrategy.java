@@ -0,0 +1,17 @@
+package com.bm_nttdata.debitcard_ms.storage;
+
+import org.springframework.data.mapping.PersistentProperty;
+import org.springframework.data.mapping.model.FieldNamingStrategy;
+
+/**
+ * Estrategia de nombres de campo que persiste las propiedades de DebitCard con los
+ * nombres cortos del esquema compacto. Las consultas derivadas, las proyecciones y los
+ * índices declarados con {@code @Indexed} se traducen con la misma estrategia.
+ */
+public class CompactFieldNamingStrategy implements FieldNamingStrategy {
+
+    @Override
+    public String getFieldName(PersistentProperty<?> property) {
+        return CompactSchema.fieldName(property.getName());
+    }
+}
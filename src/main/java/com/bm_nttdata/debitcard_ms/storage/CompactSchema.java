@@ -0,0 +1,168 @@
+package com.bm_nttdata.debitcard_ms.storage;
+
+import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+
+/**
+ * Esquema compacto de persistencia de los documentos de tarjetas de débito.
+ * Define los nombres cortos de cada campo y las codificaciones numéricas de la fecha de
+ * expiración (AAAAMM) y del estado de la tarjeta. El PIN y el código CCV se almacenan
+ * codificados por CardSecretCodec y se conservan como texto. Las funciones de lectura
+ * aceptan también los valores del esquema original, de modo que un documento parcialmente
+ * migrado se sigue leyendo correctamente.
+ */
+public final class CompactSchema {
+
+    private static final String ID_FIELD = "_id";
+
+    private static final String TYPE_FIELD = "_class";
+
+    private static final Map<String, String> FIELD_NAMES = Map.ofEntries(
+            Map.entry("cardNumber", "n"),
+            Map.entry("customerId", "c"),
+            Map.entry("primaryAccountId", "pa"),
+            Map.entry("associatedAccountIds", "aa"),
+            Map.entry("expirationDate", "e"),
+            Map.entry("ccvCode", "v"),
+            Map.entry("cardPin", "p"),
+            Map.entry("creationDate", "t"),
+            Map.entry("active", "s"),
+            Map.entry("lastModifiedDate", "m"),
+            Map.entry("version", "r"));
+
+    private CompactSchema() {
+    }
+
+    /**
+     * Obtiene el nombre compacto de un campo.
+     *
+     * @param property Nombre de la propiedad en la entidad
+     * @return El nombre compacto del campo, o el nombre de la propiedad si no tiene uno
+     */
+    public static String fieldName(String property) {
+        return FIELD_NAMES.getOrDefault(property, property);
+    }
+
+    /**
+     * Codifica una fecha de expiración con formato AAAA-MM como el entero AAAAMM.
+     *
+     * @param expirationDate Fecha de expiración en formato AAAA-MM
+     * @return El entero AAAAMM, o el texto original si no tiene el formato esperado
+     */
+    public static Object encodeExpirationDate(String expirationDate) {
+        try {
+            YearMonth month = YearMonth.parse(expirationDate);
+            return month.getYear() * 100 + month.getMonthValue();
+        } catch (DateTimeParseException e) {
+            return expirationDate;
+        }
+    }
+
+    /**
+     * Decodifica una fecha de expiración almacenada como entero AAAAMM o como texto.
+     *
+     * @param value Valor almacenado
+     * @return La fecha de expiración en formato AAAA-MM
+     */
+    public static String decodeExpirationDate(Object value) {
+        if (value instanceof Number packed) {
+            int yearMonth = packed.intValue();
+            return YearMonth.of(yearMonth / 100, yearMonth % 100).toString();
+        }
+        return (String) value;
+    }
+
+    /**
+     * Codifica el estado de una tarjeta como un código numérico estable.
+     *
+     * @param status Estado de la tarjeta
+     * @return El código numérico del estado
+     */
+    public static int encodeStatus(CardStatusEnum status) {
+        return switch (status) {
+            case ACTIVE -> 1;
+            case BLOCKED -> 2;
+            case CANCELLED -> 3;
+        };
+    }
+
+    /**
+     * Decodifica el estado de una tarjeta almacenado como código numérico o como nombre.
+     *
+     * @param value Valor almacenado
+     * @return El estado de la tarjeta
+     */
+    public static CardStatusEnum decodeStatus(Object value) {
+        if (value instanceof Number code) {
+            return switch (code.intValue()) {
+                case 1 -> CardStatusEnum.ACTIVE;
+                case 2 -> CardStatusEnum.BLOCKED;
+                case 3 -> CardStatusEnum.CANCELLED;
+                default -> throw new IllegalArgumentException("Unexpected status code " + code);
+            };
+        }
+        return CardStatusEnum.valueOf((String) value);
+    }
+
+    /**
+     * Convierte un documento del esquema original al esquema compacto. Se descarta la
+     * clave de tipo {@code _class} y se conservan sin cambios los campos desconocidos.
+     *
+     * @param legacy Documento con el esquema original
+     * @return Documento equivalente con el esquema compacto
+     */
+    public static Document toCompact(Document legacy) {
+        Document compact = new Document();
+        legacy.forEach((key, value) -> {
+            if (!TYPE_FIELD.equals(key)) {
+                compact.put(
+                        ID_FIELD.equals(key) ? key : fieldName(key), encodeValue(key, value));
+            }
+        });
+        return compact;
+    }
+
+    /**
+     * Traduce las claves de un índice a los nombres de campo compactos.
+     *
+     * @param index Definición del índice con nombres de propiedad o de campo
+     * @return Definición del índice con las mismas opciones y los nombres compactos
+     */
+    public static IndexDefinition compactIndex(IndexDefinition index) {
+        Document keys = new Document();
+        index.getIndexKeys().forEach((key, direction) -> keys.put(fieldName(key), direction));
+        return new KeyedIndexDefinition(keys, index.getIndexOptions());
+    }
+
+    private static Object encodeValue(String key, Object value) {
+        if (!(value instanceof String text)) {
+            return value;
+        }
+        return switch (key) {
+            case "expirationDate" -> encodeExpirationDate(text);
+            case "active" -> encodeStatus(CardStatusEnum.valueOf(text));
+            default -> value;
+        };
+    }
+
+    /**
+     * Definición de índice con claves explícitas.
+     */
+    record KeyedIndexDefinition(Document indexKeys, Document indexOptions)
+            implements IndexDefinition {
+
+        @Override
+        public Document getIndexKeys() {
+            return indexKeys;
+        }
+
+        @Override
+        public Document getIndexOptions() {
+            return indexOptions;
+        }
+    }
+}
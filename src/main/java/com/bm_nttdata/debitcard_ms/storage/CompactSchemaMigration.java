@@ -0,0 +1,150 @@
+package com.bm_nttdata.debitcard_ms.storage;
+
+import com.bm_nttdata.debitcard_ms.config.MongoStorageProperties;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.StreamSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Migra al arrancar la aplicación los documentos de tarjetas de débito al esquema
+ * compacto. Los documentos se leen en orden de identificador con un único cursor y se
+ * escriben en lotes en la colección destino, cuyos índices se crean antes de la copia.
+ * Si la colección destino ya contiene documentos, la migración continúa a partir del
+ * último identificador copiado. Al terminar se registra un informe con los tamaños de
+ * documento e índices de ambas colecciones y, opcionalmente, se renombra la colección
+ * original como copia de seguridad y la compacta ocupa su lugar.
+ * Las escrituras sobre la colección original deben detenerse durante la migración, y las
+ * instancias deben arrancar con {@code debitcard.mongo.storage.schema=COMPACT} tras el
+ * intercambio de colecciones.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "debitcard.mongo.storage.migration.enabled", havingValue = "true")
+public class CompactSchemaMigration implements ApplicationRunner {
+
+    private static final String ID_FIELD = "_id";
+
+    private static final int PROGRESS_LOG_INTERVAL = 100;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    private final MongoMappingContext mappingContext;
+
+    private final MongoStorageProperties properties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        MongoStorageProperties.Migration config = properties.getMigration();
+        String source = config.getSourceCollection();
+        String target = config.getTargetCollection();
+        log.info("Migrating {} to compact schema in {}", source, target);
+
+        CollectionSizeReport before = collectionSize(source).block();
+        createIndexes(target).block();
+        Long migrated = copy(source, target, config.getBatchSize()).block();
+        CollectionSizeReport after = collectionSize(target).block();
+        log.info("Migrated {} documents to {}:{}{}",
+                migrated, target, System.lineSeparator(), before.compareWith(after));
+
+        if (config.isSwap()) {
+            swap(source, target, config.getBackupCollection()).block();
+            log.info("Collection {} renamed to {} and {} renamed to {}; "
+                            + "restart instances with debitcard.mongo.storage.schema=COMPACT",
+                    source, config.getBackupCollection(), target, source);
+        }
+    }
+
+    private Mono<Void> createIndexes(String target) {
+        List<IndexDefinition> indexes = StreamSupport.stream(
+                        new MongoPersistentEntityIndexResolver(mappingContext)
+                                .resolveIndexFor(DebitCard.class).spliterator(), false)
+                .map(IndexDefinition.class::cast)
+                .map(CompactSchema::compactIndex)
+                .toList();
+        return Flux.fromIterable(indexes)
+                .concatMap(mongoTemplate.indexOps(target)::ensureIndex)
+                .then();
+    }
+
+    private Mono<Long> copy(String source, String target, int batchSize) {
+        AtomicLong copied = new AtomicLong();
+        return Mono.zip(mongoTemplate.getCollection(source), mongoTemplate.getCollection(target))
+                .flatMap(collections -> lastCopiedId(collections.getT2())
+                        .map(lastId -> Filters.gt(ID_FIELD, lastId))
+                        .defaultIfEmpty(Filters.empty())
+                        .flatMapMany(filter -> Flux.from(collections.getT1()
+                                .find(filter)
+                                .sort(Sorts.ascending(ID_FIELD))
+                                .batchSize(batchSize)))
+                        .map(CompactSchema::toCompact)
+                        .buffer(batchSize)
+                        .concatMap(batch -> write(collections.getT2(), batch))
+                        .index()
+                        .doOnNext(written -> {
+                            long total = copied.addAndGet(written.getT2());
+                            if ((written.getT1() + 1) % PROGRESS_LOG_INTERVAL == 0) {
+                                log.info("Copied {} documents to {}", total, target);
+                            }
+                        })
+                        .then(Mono.fromSupplier(copied::get)));
+    }
+
+    private static Mono<Object> lastCopiedId(MongoCollection<Document> target) {
+        return Mono.from(target.find()
+                        .sort(Sorts.descending(ID_FIELD))
+                        .limit(1)
+                        .first())
+                .map(document -> document.get(ID_FIELD));
+    }
+
+    private static Mono<Integer> write(MongoCollection<Document> target, List<Document> batch) {
+        List<ReplaceOneModel<Document>> replacements = batch.stream()
+                .map(document -> {
+                    Bson byId = Filters.eq(ID_FIELD, document.get(ID_FIELD));
+                    return new ReplaceOneModel<>(byId, document, new ReplaceOptions().upsert(true));
+                })
+                .toList();
+        return Mono.from(target.bulkWrite(replacements, new BulkWriteOptions().ordered(false)))
+                .thenReturn(batch.size());
+    }
+
+    private Mono<CollectionSizeReport> collectionSize(String collection) {
+        return mongoTemplate.executeCommand(new Document("collStats", collection))
+                .map(stats -> CollectionSizeReport.of(collection, stats));
+    }
+
+    private Mono<Void> swap(String source, String target, String backup) {
+        return mongoTemplate.getMongoDatabase()
+                .flatMap(database -> Mono.zip(
+                                mongoTemplate.getCollection(source),
+                                mongoTemplate.getCollection(target))
+                        .flatMap(collections -> Mono.from(collections.getT1().renameCollection(
+                                        new MongoNamespace(database.getName(), backup)))
+                                .then(Mono.from(collections.getT2().renameCollection(
+                                        new MongoNamespace(database.getName(), source))))))
+                .then();
+    }
+}
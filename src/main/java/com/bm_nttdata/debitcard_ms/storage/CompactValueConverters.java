@@ -0,0 +1,62 @@
+package com.bm_nttdata.debitcard_ms.storage;
+
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import org.springframework.data.convert.PropertyValueConverterRegistrar;
+import org.springframework.data.mongodb.core.convert.MongoConversionContext;
+import org.springframework.data.mongodb.core.convert.MongoValueConverter;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+
+/**
+ * Conversores por propiedad de DebitCard para el esquema compacto. Se aplican tanto al
+ * leer y escribir documentos como a los valores de las consultas sobre esas propiedades.
+ */
+public final class CompactValueConverters {
+
+    private CompactValueConverters() {
+    }
+
+    /**
+     * Registra los conversores del esquema compacto.
+     *
+     * @param registrar Registro de conversores por propiedad
+     */
+    public static void register(
+            PropertyValueConverterRegistrar<MongoPersistentProperty> registrar) {
+        registrar
+                .registerConverter(DebitCard.class, "expirationDate", new ExpirationDateConverter())
+                .registerConverter(DebitCard.class, "active", new StatusConverter());
+    }
+
+    /**
+     * Conversor de la fecha de expiración AAAA-MM al entero AAAAMM.
+     */
+    static final class ExpirationDateConverter implements MongoValueConverter<String, Object> {
+
+        @Override
+        public Object write(String value, MongoConversionContext context) {
+            return CompactSchema.encodeExpirationDate(value);
+        }
+
+        @Override
+        public String read(Object value, MongoConversionContext context) {
+            return CompactSchema.decodeExpirationDate(value);
+        }
+    }
+
+    /**
+     * Conversor del estado de la tarjeta a su código numérico.
+     */
+    static final class StatusConverter implements MongoValueConverter<CardStatusEnum, Object> {
+
+        @Override
+        public Object write(CardStatusEnum value, MongoConversionContext context) {
+            return CompactSchema.encodeStatus(value);
+        }
+
+        @Override
+        public CardStatusEnum read(Object value, MongoConversionContext context) {
+            return CompactSchema.decodeStatus(value);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.bm_nttdata.debitcard_ms.tracing;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardTracingProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exportador de trazas con muestreo en cola. Los spans de cada traza se retienen hasta
+ * que llega su span raíz local; en ese momento la traza completa se exporta si ha
+ * superado el umbral de latencia, si ha terminado en error o si entra en la fracción
+ * base de muestreo, y se descarta en caso contrario. Los spans que terminan después de la
+ * decisión siguen la decisión ya tomada para su traza.
+ */
+public class TailSamplingSpanExporter implements SpanExporter {
+
+    private static final String METRIC_NAME = "debitcard.tracing.tail.sampling";
+
+    private final SpanExporter delegate;
+
+    private final long latencyThresholdNanos;
+
+    private final long baselineBound;
+
+    private final Cache<String, List<SpanData>> pending;
+
+    private final Cache<String, Boolean> decisions;
+
+    private final Counter keptSlow;
+
+    private final Counter keptError;
+
+    private final Counter keptBaseline;
+
+    private final Counter dropped;
+
+    /**
+     * Construye el exportador con muestreo en cola.
+     *
+     * @param delegate Exportador que recibe las trazas retenidas
+     * @param properties Propiedades del muestreo en cola
+     * @param meterRegistry Registro de métricas del muestreo
+     */
+    public TailSamplingSpanExporter(SpanExporter delegate,
+            DebitCardTracingProperties.TailSampling properties, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.latencyThresholdNanos = properties.getLatencyThreshold().toNanos();
+        this.baselineBound = (long) (properties.getBaselineProbability() * Long.MAX_VALUE);
+        this.pending = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBufferedTraces())
+                .expireAfterWrite(properties.getDecisionWait())
+                .build();
+        this.decisions = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxBufferedTraces())
+                .expireAfterWrite(properties.getDecisionWait())
+                .build();
+        this.keptSlow = decisionCounter(meterRegistry, "kept", "slow");
+        this.keptError = decisionCounter(meterRegistry, "kept", "error");
+        this.keptBaseline = decisionCounter(meterRegistry, "kept", "baseline");
+        this.dropped = decisionCounter(meterRegistry, "dropped", "none");
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        Map<String, List<SpanData>> buffered = pending.asMap();
+        List<SpanData> sampled = new ArrayList<>();
+        for (SpanData span : spans) {
+            String traceId = span.getTraceId();
+            Boolean decision = decisions.getIfPresent(traceId);
+            if (decision != null) {
+                if (decision) {
+                    sampled.add(span);
+                }
+            } else if (isLocalRoot(span)) {
+                boolean keep = decide(span);
+                decisions.put(traceId, keep);
+                List<SpanData> children = buffered.remove(traceId);
+                if (keep) {
+                    if (children != null) {
+                        sampled.addAll(children);
+                    }
+                    sampled.add(span);
+                }
+            } else {
+                buffered.computeIfAbsent(traceId, id -> new ArrayList<>()).add(span);
+            }
+        }
+        return sampled.isEmpty() ? CompletableResultCode.ofSuccess() : delegate.export(sampled);
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return delegate.flush();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        pending.invalidateAll();
+        decisions.invalidateAll();
+        return delegate.shutdown();
+    }
+
+    private boolean decide(SpanData root) {
+        if (root.getStatus().getStatusCode() == StatusCode.ERROR) {
+            keptError.increment();
+            return true;
+        }
+        if (root.getEndEpochNanos() - root.getStartEpochNanos() >= latencyThresholdNanos) {
+            keptSlow.increment();
+            return true;
+        }
+        if (traceIdRandomPart(root.getTraceId()) < baselineBound) {
+            keptBaseline.increment();
+            return true;
+        }
+        dropped.increment();
+        return false;
+    }
+
+    private static boolean isLocalRoot(SpanData span) {
+        return !span.getParentSpanContext().isValid() || span.getParentSpanContext().isRemote();
+    }
+
+    private static long traceIdRandomPart(String traceId) {
+        return Long.parseUnsignedLong(traceId.substring(16), 16) & Long.MAX_VALUE;
+    }
+
+    private static Counter decisionCounter(
+            MeterRegistry meterRegistry, String decision, String reason) {
+        return Counter.builder(METRIC_NAME)
+                .description("Tail sampling decisions per trace")
+                .tag("decision", decision)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
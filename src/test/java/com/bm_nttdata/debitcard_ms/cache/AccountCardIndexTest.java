@@ -0,0 +1,101 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AccountCardIndexTest {
+
+    private DebitCardCacheProperties properties;
+
+    private AccountCardIndex accountCardIndex;
+
+    @BeforeEach
+    void setUp() {
+        properties = new DebitCardCacheProperties();
+        accountCardIndex = new AccountCardIndex(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void unlinkOthersRemovesTheCardOnlyFromAccountsItNoLongerReferences() {
+        accountCardIndex.putCardIds("acc-1", Set.of("card-1", "card-2"));
+        accountCardIndex.putCardIds("acc-2", Set.of("card-1"));
+        accountCardIndex.putCardIds("acc-3", Set.of("card-2"));
+
+        accountCardIndex.unlinkOthers("card-1", Set.of("acc-2"));
+
+        assertThat(accountCardIndex.getCardIds("acc-1")).contains(Set.of("card-2"));
+        assertThat(accountCardIndex.getCardIds("acc-2")).contains(Set.of("card-1"));
+        assertThat(accountCardIndex.getCardIds("acc-3")).contains(Set.of("card-2"));
+    }
+
+    @Test
+    void unlinkOthersWithoutAccountsRemovesTheCardFromEveryIndexedAccount() {
+        accountCardIndex.putCardIds("acc-1", Set.of("card-1"));
+        accountCardIndex.putCardIds("acc-2", Set.of("card-1", "card-2"));
+
+        accountCardIndex.unlinkOthers("card-1", Set.of());
+
+        assertThat(accountCardIndex.getCardIds("acc-1")).contains(Set.of());
+        assertThat(accountCardIndex.getCardIds("acc-2")).contains(Set.of("card-2"));
+    }
+
+    @Test
+    void linksAddedAfterIndexingAreUnlinkedToo() {
+        accountCardIndex.putCardIds("acc-1", Set.of());
+        accountCardIndex.putCardIds("acc-2", Set.of("card-1"));
+        accountCardIndex.link("acc-1", "card-1");
+
+        accountCardIndex.unlinkOthers("card-1", Set.of("acc-2"));
+
+        assertThat(accountCardIndex.getCardIds("acc-1")).contains(Set.of());
+        assertThat(accountCardIndex.getCardIds("acc-2")).contains(Set.of("card-1"));
+    }
+
+    @Test
+    void replacingAnAccountEntryKeepsTheReverseLinksInStep() {
+        accountCardIndex.putCardIds("acc-1", Set.of("card-1"));
+        accountCardIndex.putCardIds("acc-1", Set.of("card-2"));
+        accountCardIndex.putCardIds("acc-2", Set.of("card-2"));
+
+        accountCardIndex.unlinkOthers("card-2", Set.of("acc-2"));
+        accountCardIndex.unlinkOthers("card-1", Set.of());
+
+        assertThat(accountCardIndex.getCardIds("acc-1")).contains(Set.of());
+        assertThat(accountCardIndex.getCardIds("acc-2")).contains(Set.of("card-2"));
+    }
+
+    @Test
+    void linksToAccountsThatAreNotIndexedAreIgnored() {
+        accountCardIndex.link("acc-1", "card-1");
+
+        assertThat(accountCardIndex.getCardIds("acc-1")).isEmpty();
+    }
+
+    @Test
+    void invalidateAllDropsAccountsAndReverseLinks() {
+        accountCardIndex.putCardIds("acc-1", Set.of("card-1"));
+
+        accountCardIndex.invalidateAll();
+        accountCardIndex.putCardIds("acc-2", Set.of("card-1"));
+        accountCardIndex.unlinkOthers("card-1", Set.of("acc-2"));
+
+        assertThat(accountCardIndex.getCardIds("acc-1")).isEmpty();
+        assertThat(accountCardIndex.getCardIds("acc-2")).contains(Set.of("card-1"));
+    }
+
+    @Test
+    void disabledIndexKeepsNothing() {
+        properties.getAccountIndex().setEnabled(false);
+        AccountCardIndex disabled = new AccountCardIndex(properties, new SimpleMeterRegistry());
+
+        disabled.putCardIds("acc-1", Set.of("card-1"));
+        disabled.unlinkOthers("card-1", Set.of());
+
+        assertThat(disabled.getCardIds("acc-1")).isEmpty();
+    }
+}
@@ -0,0 +1,88 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.bm_nttdata.debitcard_ms.model.BalanceResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class BalanceCacheTest {
+
+    private static final Duration FRESH_FOR = Duration.ofMillis(200);
+
+    private static final OffsetDateTime NOW = OffsetDateTime.parse("2026-10-18T10:00:00Z");
+
+    private BalanceCache balanceCache;
+
+    @BeforeEach
+    void setUp() {
+        DebitCardCacheProperties properties = new DebitCardCacheProperties();
+        properties.getBalance().setFreshFor(FRESH_FOR);
+        properties.getBalance().setMaxStale(Duration.ofMinutes(1));
+        balanceCache = new BalanceCache(properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void freshBalanceIsServedWithoutCallingTheLoader() {
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, Mono<BalanceResponseDto>> loader = counting(calls, balance(100, NOW));
+
+        balanceCache.get("acc-1", loader).block();
+        BalanceResponseDto cached = balanceCache.get("acc-1", loader).block();
+
+        assertThat(cached.getBalance()).isEqualTo(100);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void olderRevalidatedBalanceKeepsCachedValueAndRenewsFreshness() throws InterruptedException {
+        balanceCache.get("acc-1", id -> Mono.just(balance(100, NOW))).block();
+        Thread.sleep(FRESH_FOR.toMillis() * 2);
+
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, Mono<BalanceResponseDto>> olderLoader =
+                counting(calls, balance(50, NOW.minusMinutes(1)));
+
+        BalanceResponseDto stale = balanceCache.get("acc-1", olderLoader).block();
+        BalanceResponseDto afterRevalidation = balanceCache.get("acc-1", olderLoader).block();
+        BalanceResponseDto again = balanceCache.get("acc-1", olderLoader).block();
+
+        assertThat(stale.getBalance()).isEqualTo(100);
+        assertThat(afterRevalidation.getBalance()).isEqualTo(100);
+        assertThat(again.getBalance()).isEqualTo(100);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void newerRevalidatedBalanceReplacesCachedValue() throws InterruptedException {
+        balanceCache.get("acc-1", id -> Mono.just(balance(100, NOW))).block();
+        Thread.sleep(FRESH_FOR.toMillis() * 2);
+
+        balanceCache.get("acc-1", id -> Mono.just(balance(70, NOW.plusMinutes(1)))).block();
+        BalanceResponseDto current = balanceCache.get("acc-1", id -> Mono.empty()).block();
+
+        assertThat(current.getBalance()).isEqualTo(70);
+    }
+
+    private static Function<String, Mono<BalanceResponseDto>> counting(
+            AtomicInteger calls, BalanceResponseDto balance) {
+        return id -> Mono.fromSupplier(() -> {
+            calls.incrementAndGet();
+            return balance;
+        });
+    }
+
+    private static BalanceResponseDto balance(double amount, OffsetDateTime lastUpdateDate) {
+        return new BalanceResponseDto()
+                .accountId("acc-1")
+                .balance(amount)
+                .lastUpdateDate(lastUpdateDate);
+    }
+}
@@ -0,0 +1,188 @@
+package com.bm_nttdata.debitcard_ms.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties.InvalidationMode;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.storage.CompactFieldNamingStrategy;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+class DebitCardChangeListenerTest {
+
+    private static final Duration VERIFY_TIMEOUT = Duration.ofSeconds(5);
+
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private DebitCardCache debitCardCache;
+
+    private AccountCardIndex accountCardIndex;
+
+    private DebitCardCacheProperties properties;
+
+    private DebitCardChangeListener listener;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(ReactiveMongoTemplate.class);
+        debitCardCache = mock(DebitCardCache.class);
+        accountCardIndex = mock(AccountCardIndex.class);
+        properties = new DebitCardCacheProperties();
+        properties.getInvalidation().setPollInterval(Duration.ofMillis(10));
+        properties.getInvalidation().setRetryBackoff(Duration.ofMillis(1));
+        properties.getInvalidation().setMaxRetryBackoff(Duration.ofMillis(1));
+        when(mongoTemplate.getCollectionName(DebitCard.class)).thenReturn("debitCards");
+        useMappingContext(mappingContext());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (listener != null) {
+            listener.stop();
+        }
+    }
+
+    @Test
+    void changeStreamOnlyMatchesChangesThatModifyTheCard() {
+        List<Document> pipeline = changeStreamPipeline();
+
+        assertThat(pipeline.get(0).toJson())
+                .contains("\"operationType\": {\"$in\": [\"insert\", \"replace\", \"delete\"]}")
+                .contains("\"updateDescription.updatedFields.lastModifiedDate\": "
+                        + "{\"$exists\": true}")
+                .doesNotContain("pendingEvents");
+    }
+
+    @Test
+    void changeStreamDocumentsLeaveOutSecretsAndPendingEvents() {
+        List<Document> pipeline = changeStreamPipeline();
+
+        assertThat(pipeline.get(1).get("$project", Document.class))
+                .containsEntry("fullDocument.cardPin", 0)
+                .containsEntry("fullDocument.ccvCode", 0)
+                .containsEntry("fullDocument.pendingEvents", 0);
+    }
+
+    @Test
+    void changeStreamUsesTheStoredFieldNamesOfTheCompactSchema() {
+        MongoMappingContext compactContext = mappingContext();
+        compactContext.setFieldNamingStrategy(new CompactFieldNamingStrategy());
+        useMappingContext(compactContext);
+
+        List<Document> pipeline = changeStreamPipeline();
+
+        assertThat(pipeline.get(0).toJson())
+                .contains("\"updateDescription.updatedFields.m\": {\"$exists\": true}");
+        assertThat(pipeline.get(1).get("$project", Document.class))
+                .containsEntry("fullDocument.p", 0)
+                .containsEntry("fullDocument.v", 0);
+    }
+
+    @Test
+    void cachesAreInvalidatedOnEveryResubscriptionAndTheStreamResumesFromTheLastToken() {
+        BsonDocument token = new BsonDocument("_data", new BsonString("token-1"));
+        ChangeStreamEvent<DebitCard> deletion = deletionEvent(token);
+        when(mongoTemplate.changeStream(eq("debitCards"), any(ChangeStreamOptions.class),
+                eq(DebitCard.class)))
+                .thenReturn(Flux.just(deletion)
+                        .concatWith(Flux.error(new IllegalStateException("stream closed"))))
+                .thenReturn(Flux.never());
+
+        listener = startListener(InvalidationMode.CHANGE_STREAM);
+
+        ArgumentCaptor<ChangeStreamOptions> options =
+                ArgumentCaptor.forClass(ChangeStreamOptions.class);
+        verify(mongoTemplate, timeout(VERIFY_TIMEOUT.toMillis()).times(2))
+                .changeStream(eq("debitCards"), options.capture(), eq(DebitCard.class));
+        verify(debitCardCache, times(2)).evictAll();
+        verify(accountCardIndex, times(2)).invalidateAll();
+        assertThat(options.getAllValues().get(0).getResumeToken()).isEmpty();
+        assertThat(options.getAllValues().get(1).getResumeToken()).contains(token);
+    }
+
+    @Test
+    void pollingLeavesOutSecretsAndPendingEvents() {
+        when(mongoTemplate.find(any(Query.class), eq(DebitCard.class))).thenReturn(Flux.empty());
+
+        listener = startListener(InvalidationMode.POLLING);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, timeout(VERIFY_TIMEOUT.toMillis()).atLeastOnce())
+                .find(query.capture(), eq(DebitCard.class));
+        assertThat(query.getValue().getFieldsObject())
+                .containsEntry("cardPin", 0)
+                .containsEntry("ccvCode", 0)
+                .containsEntry("pendingEvents", 0);
+    }
+
+    private List<Document> changeStreamPipeline() {
+        when(mongoTemplate.changeStream(eq("debitCards"), any(ChangeStreamOptions.class),
+                eq(DebitCard.class)))
+                .thenReturn(Flux.never());
+
+        listener = startListener(InvalidationMode.CHANGE_STREAM);
+
+        ArgumentCaptor<ChangeStreamOptions> options =
+                ArgumentCaptor.forClass(ChangeStreamOptions.class);
+        verify(mongoTemplate, timeout(VERIFY_TIMEOUT.toMillis()))
+                .changeStream(eq("debitCards"), options.capture(), eq(DebitCard.class));
+        Aggregation filter = (Aggregation) options.getValue().getFilter().orElseThrow();
+        return filter.toPipeline(Aggregation.DEFAULT_CONTEXT);
+    }
+
+    private DebitCardChangeListener startListener(InvalidationMode mode) {
+        properties.getInvalidation().setMode(mode);
+        DebitCardChangeListener changeListener = new DebitCardChangeListener(mongoTemplate,
+                debitCardCache, accountCardIndex, properties, new SimpleMeterRegistry());
+        changeListener.run(new DefaultApplicationArguments());
+        return changeListener;
+    }
+
+    private static MongoMappingContext mappingContext() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(
+                new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return mappingContext;
+    }
+
+    private void useMappingContext(MongoMappingContext mappingContext) {
+        when(mongoTemplate.getConverter())
+                .thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeStreamEvent<DebitCard> deletionEvent(BsonDocument token) {
+        ChangeStreamEvent<DebitCard> event = mock(ChangeStreamEvent.class);
+        when(event.getOperationType()).thenReturn(OperationType.DELETE);
+        when(event.getResumeToken()).thenReturn(token);
+        return event;
+    }
+}
@@ -0,0 +1,135 @@
+package com.bm_nttdata.debitcard_ms.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class BatchAccountBalanceClientTest {
+
+    private static final Duration VERIFY_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Duration CALL_TIMEOUT = Duration.ofMillis(500);
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void accountsAreRequestedInBatchesOfTheMaximumSize() {
+        BatchAccountBalanceClient client =
+                new BatchAccountBalanceClient(accountWebClient(), 2, CALL_TIMEOUT);
+
+        StepVerifier.create(client.fetchBalances(List.of("acc-1", "acc-2", "acc-3")))
+                .assertNext(balances -> {
+                    assertThat(balances).containsOnlyKeys("acc-1", "acc-2", "acc-3");
+                    assertThat(balances.get("acc-3").getBalance()).isEqualTo(100.0);
+                })
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+
+        assertThat(batches).containsExactlyInAnyOrder(
+                List.of("acc-1", "acc-2"), List.of("acc-3"));
+    }
+
+    @Test
+    void failedBatchOmitsEveryAccountOfTheBatch() {
+        BatchAccountBalanceClient client =
+                new BatchAccountBalanceClient(accountWebClient(), 2, CALL_TIMEOUT);
+
+        StepVerifier.create(client.fetchBalances(
+                        List.of("acc-1", "acc-failing", "acc-3", "acc-4")))
+                .assertNext(balances -> assertThat(balances).containsOnlyKeys("acc-3", "acc-4"))
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    @Test
+    void timedOutBatchOmitsEveryAccountOfTheBatch() {
+        BatchAccountBalanceClient client =
+                new BatchAccountBalanceClient(accountWebClient(), 2, CALL_TIMEOUT);
+
+        StepVerifier.withVirtualTime(() -> client.fetchBalances(
+                        List.of("acc-1", "acc-2", "acc-slow")))
+                .expectSubscription()
+                .thenAwait(CALL_TIMEOUT)
+                .assertNext(balances -> assertThat(balances).containsOnlyKeys("acc-1", "acc-2"))
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    @Test
+    void balancesOfAccountsThatWereNotRequestedAreIgnored() {
+        BatchAccountBalanceClient client =
+                new BatchAccountBalanceClient(accountWebClient(), 2, CALL_TIMEOUT);
+
+        StepVerifier.create(client.fetchBalances(List.of("acc-1", "acc-extra")))
+                .assertNext(balances -> assertThat(balances).containsOnlyKeys("acc-1"))
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    /**
+     * Cliente web simulado del endpoint de consulta por lotes de account-ms. Falla el lote
+     * que contiene la cuenta {@code acc-failing}, no responde a tiempo el que contiene
+     * {@code acc-slow} y, en lugar del saldo de {@code acc-extra}, devuelve el de una cuenta
+     * no solicitada.
+     */
+    private WebClient accountWebClient() {
+        return WebClient.builder()
+                .exchangeFunction(request -> requestedIds(request).flatMap(ids -> {
+                    batches.add(ids);
+                    if (ids.contains("acc-failing")) {
+                        return Mono.just(
+                                ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                    }
+                    Duration delay = ids.contains("acc-slow")
+                            ? Duration.ofSeconds(5)
+                            : Duration.ofMillis(10);
+                    String body = ids.stream()
+                            .map(id -> id.equals("acc-extra") ? "acc-other" : id)
+                            .map(id -> "{\"accountId\":\"" + id + "\",\"balance\":100.0}")
+                            .collect(Collectors.joining(",", "[", "]"));
+                    return Mono.delay(delay)
+                            .thenReturn(ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE,
+                                            MediaType.APPLICATION_JSON_VALUE)
+                                    .body(body)
+                                    .build());
+                }))
+                .build();
+    }
+
+    private static Mono<List<String>> requestedIds(ClientRequest request) {
+        MockClientHttpRequest httpRequest =
+                new MockClientHttpRequest(request.method(), request.url());
+        return request.writeTo(httpRequest, ExchangeStrategies.withDefaults())
+                .then(Mono.defer(httpRequest::getBodyAsString))
+                .map(json -> {
+                    List<String> ids = new ArrayList<>();
+                    try {
+                        OBJECT_MAPPER.readTree(json).get("ids").forEach(
+                                (JsonNode id) -> ids.add(id.asText()));
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    return ids;
+                });
+    }
+}
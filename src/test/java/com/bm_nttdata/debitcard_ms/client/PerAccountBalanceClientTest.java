@@ -0,0 +1,91 @@
+package com.bm_nttdata.debitcard_ms.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class PerAccountBalanceClientTest {
+
+    private static final Duration VERIFY_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Duration CALL_TIMEOUT = Duration.ofMillis(500);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Test
+    void failedAndTimedOutAccountsAreOmitted() {
+        PerAccountBalanceClient client =
+                new PerAccountBalanceClient(accountWebClient(), 8, CALL_TIMEOUT);
+
+        StepVerifier.withVirtualTime(() -> client.fetchBalances(
+                        List.of("acc-1", "acc-failing", "acc-slow", "acc-2")))
+                .expectSubscription()
+                .thenAwait(CALL_TIMEOUT)
+                .assertNext(balances -> {
+                    assertThat(balances).containsOnlyKeys("acc-1", "acc-2");
+                    assertThat(balances.get("acc-1").getBalance()).isEqualTo(100.0);
+                    assertThat(balances.get("acc-2").getAccountId()).isEqualTo("acc-2");
+                })
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    @Test
+    void callsAreLimitedToTheMaximumConcurrency() {
+        PerAccountBalanceClient client =
+                new PerAccountBalanceClient(accountWebClient(), 2, CALL_TIMEOUT);
+
+        StepVerifier.withVirtualTime(() -> client.fetchBalances(
+                        List.of("acc-1", "acc-2", "acc-3", "acc-4", "acc-5")))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(299))
+                .thenAwait(Duration.ofMillis(1))
+                .assertNext(balances -> assertThat(balances).hasSize(5))
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+
+        assertThat(maxInFlight).hasValue(2);
+    }
+
+    /**
+     * Cliente web simulado de account-ms: cada saldo se responde a los 100ms, salvo el de
+     * la cuenta {@code acc-failing}, que falla, y el de {@code acc-slow}, que no llega a
+     * tiempo.
+     */
+    private WebClient accountWebClient() {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    String accountId = request.url().getPath().split("/")[4];
+                    if (accountId.equals("acc-failing")) {
+                        return Mono.just(
+                                ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build());
+                    }
+                    Duration delay = accountId.equals("acc-slow")
+                            ? Duration.ofSeconds(5)
+                            : Duration.ofMillis(100);
+                    return Mono.delay(delay)
+                            .doOnSubscribe(subscription ->
+                                    maxInFlight.accumulateAndGet(
+                                            inFlight.incrementAndGet(), Math::max))
+                            .doOnNext(tick -> inFlight.decrementAndGet())
+                            .thenReturn(ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE,
+                                            MediaType.APPLICATION_JSON_VALUE)
+                                    .body("{\"balance\":100.0}")
+                                    .build());
+                })
+                .build();
+    }
+}
@@ -0,0 +1,46 @@
+package com.bm_nttdata.debitcard_ms.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.bm_nttdata.debitcard_ms.event.FileCardEventSink;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class CardEventConfigTest {
+
+    @Test
+    void relativeEventsFileIsRejectedWhenPublishingIsEnabled() {
+        CardEventProperties properties = new CardEventProperties();
+        properties.setEnabled(true);
+        properties.getFile().setPath("card-events.jsonl");
+
+        assertThatThrownBy(() -> new CardEventConfig()
+                .cardEventSink(properties, new ObjectMapper()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("debitcard.events.file.path");
+    }
+
+    @Test
+    void leaseNotLongerThanThePublishTimeoutIsRejected() {
+        CardEventProperties properties = new CardEventProperties();
+        properties.setEnabled(true);
+        properties.setPublishTimeout(Duration.ofSeconds(10));
+        properties.setLeaseDuration(Duration.ofSeconds(10));
+
+        assertThatThrownBy(() -> new CardEventConfig()
+                .cardEventSink(properties, new ObjectMapper()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("debitcard.events.lease-duration");
+    }
+
+    @Test
+    void defaultEventsFileIsAbsolute() {
+        CardEventProperties properties = new CardEventProperties();
+        properties.setEnabled(true);
+
+        assertThat(new CardEventConfig().cardEventSink(properties, new ObjectMapper()))
+                .isInstanceOf(FileCardEventSink.class);
+    }
+}
@@ -0,0 +1,123 @@
+package com.bm_nttdata.debitcard_ms.controller;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.debitcard_ms.cache.LastKnownGoodStore;
+import com.bm_nttdata.debitcard_ms.exception.ApiInvalidRequestException;
+import com.bm_nttdata.debitcard_ms.exception.GlobalExceptionHandler;
+import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
+import com.bm_nttdata.debitcard_ms.service.DebitCardService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class DebitCardControllerTest {
+
+    private DebitCardService debitCardService;
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        debitCardService = mock(DebitCardService.class);
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        webTestClient = WebTestClient
+                .bindToController(new DebitCardController(
+                        debitCardService, circuitBreakerRegistry))
+                .controllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void malformedAfterIdCursorReturnsBadRequest() {
+        when(debitCardService.getDebitCardsByCustomer("cus-1", "not-a-card-id", null, null))
+                .thenReturn(Flux.error(
+                        new ApiInvalidRequestException("Invalid afterId cursor: not-a-card-id")));
+
+        webTestClient.get()
+                .uri("/api/v1/debit-cards?customerId=cus-1&afterId=not-a-card-id")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("BAD_REQUEST");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "customerId=cus-1", "afterId=6720f1a2b3c4d5e6f7a8b9c0", "limit=10", "status=ACTIVE"})
+    void accountIdCombinedWithCustomerPagingOrFilterReturnsBadRequest(String parameter) {
+        webTestClient.get()
+                .uri("/api/v1/debit-cards?accountId=acc-1&" + parameter)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.code").isEqualTo("BAD_REQUEST");
+
+        verifyNoInteractions(debitCardService);
+    }
+
+    @Test
+    void accountLookupIsNotRejectedByTheCustomerListCircuit() {
+        forceOpen("getDebitCardsByCustomer");
+        when(debitCardService.getDebitCardsByAccount("acc-1"))
+                .thenReturn(Flux.just(new DebitCardResponseDto().id("card-1")));
+
+        webTestClient.get()
+                .uri("/api/v1/debit-cards?accountId=acc-1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.WARNING)
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("card-1");
+
+        verify(debitCardService).getDebitCardsByAccount("acc-1");
+    }
+
+    @Test
+    void openAccountLookupCircuitServesTheLastKnownCards() {
+        forceOpen("getDebitCardsByAccount");
+        when(debitCardService.getLastKnownDebitCardsByAccount("acc-1"))
+                .thenReturn(Mono.just(new LastKnownGoodStore.Snapshot<>(
+                        List.of(new DebitCardResponseDto().id("card-1")),
+                        Instant.now().minus(Duration.ofMinutes(2)))));
+
+        webTestClient.get()
+                .uri("/api/v1/debit-cards?accountId=acc-1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.WARNING)
+                .expectHeader().valueEquals(HttpHeaders.AGE, "120")
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("card-1");
+    }
+
+    @Test
+    void openAccountLookupCircuitWithoutKnownCardsReturnsServiceUnavailable() {
+        forceOpen("getDebitCardsByAccount");
+        when(debitCardService.getLastKnownDebitCardsByAccount("acc-1")).thenReturn(Mono.empty());
+
+        webTestClient.get()
+                .uri("/api/v1/debit-cards?accountId=acc-1")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    private void forceOpen(String circuitBreaker) {
+        circuitBreakerRegistry.circuitBreaker(circuitBreaker).transitionToForcedOpenState();
+    }
+}
@@ -0,0 +1,101 @@
+package com.bm_nttdata.debitcard_ms.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bm_nttdata.debitcard_ms.config.CardEventProperties;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.repository.DebitCardRepository;
+import com.bm_nttdata.debitcard_ms.repository.DebitCardRepositoryCustomImpl;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+class CardEventRelayTest {
+
+    private static final int CARDS = 300;
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private MongoServer server;
+
+    private MongoClient client;
+
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private DebitCardRepository debitCardRepository;
+
+    private final List<CardEventRelay> relays = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        mongoTemplate = new ReactiveMongoTemplate(client, "debitcard_test");
+        debitCardRepository = new ReactiveMongoRepositoryFactory(mongoTemplate).getRepository(
+                DebitCardRepository.class,
+                RepositoryFragments.just(new DebitCardRepositoryCustomImpl(mongoTemplate)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        relays.forEach(CardEventRelay::stop);
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void concurrentRelaysPublishEachEventOnce() throws InterruptedException {
+        CardEventProperties properties = new CardEventProperties();
+        properties.setEnabled(true);
+        properties.setPollInterval(Duration.ofMillis(10));
+        properties.setBatchSize(20);
+        CardOutbox cardOutbox = new CardOutbox(properties);
+        List<DebitCard> cards = new ArrayList<>();
+        for (int n = 0; n < CARDS; n++) {
+            DebitCard card = DebitCard.builder()
+                    .cardNumber("4000-0000-0000-" + String.format("%04d", n))
+                    .customerId("cus-1")
+                    .primaryAccountId("acc-" + n)
+                    .build();
+            cardOutbox.recordCreation(card);
+            cards.add(card);
+        }
+        mongoTemplate.insertAll(cards).blockLast(TIMEOUT);
+        InMemoryCardEventSink sink = new InMemoryCardEventSink(CARDS * 2);
+
+        for (int n = 0; n < 3; n++) {
+            CardEventRelay relay = new CardEventRelay(
+                    debitCardRepository, sink, properties, new SimpleMeterRegistry());
+            relays.add(relay);
+            relay.run(new DefaultApplicationArguments());
+        }
+        awaitEmptyOutbox();
+
+        assertThat(sink.getEvents()).hasSize(CARDS);
+        assertThat(sink.getEvents()).extracting(CardLifecycleEvent::eventId)
+                .doesNotHaveDuplicates();
+    }
+
+    private void awaitEmptyOutbox() throws InterruptedException {
+        Query pending = Query.query(Criteria.where("pendingEvents.occurredAt").exists(true));
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (mongoTemplate.count(pending, DebitCard.class).block(TIMEOUT) > 0) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.bm_nttdata.debitcard_ms.generator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class CardNumberGeneratorTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "4111111111111111",
+        "4012888888881881",
+        "5555555555554444",
+        "378282246310005",
+        "6011111111111117",
+        "4111-1111-1111-1111",
+        "79927398713"
+    })
+    void knownValidNumbersPassLuhn(String cardNumber) {
+        assertThat(CardNumberGenerator.isLuhnValid(cardNumber)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "4111111111111112",
+        "5555555555554440",
+        "79927398710",
+        "4111-1111-1111-111a",
+        "0",
+        ""
+    })
+    void invalidNumbersFailLuhn(String cardNumber) {
+        assertThat(CardNumberGenerator.isLuhnValid(cardNumber)).isFalse();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DebitCardServiceProperties.RandomStrategy.class)
+    void generatedNumbersStartWithTheBinAndPassLuhn(
+            DebitCardServiceProperties.RandomStrategy random) {
+        CardNumberGenerator generator = generator("455788", 16, random);
+
+        for (int i = 0; i < 1_000; i++) {
+            String cardNumber = generator.generate();
+
+            assertThat(cardNumber).matches("4557-88\\d{2}-\\d{4}-\\d{4}");
+            assertThat(CardNumberGenerator.isLuhnValid(cardNumber)).isTrue();
+        }
+    }
+
+    @Test
+    void numbersAreFormattedInGroupsOfFourForAnyLength() {
+        assertThat(generator("37", 15, DebitCardServiceProperties.RandomStrategy.SECURE)
+                .generate())
+                .matches("37\\d{2}-\\d{4}-\\d{4}-\\d{3}")
+                .satisfies(number -> assertThat(CardNumberGenerator.isLuhnValid(number)).isTrue());
+        assertThat(generator("5", 19, DebitCardServiceProperties.RandomStrategy.SECURE)
+                .generate())
+                .matches("5\\d{3}-\\d{4}-\\d{4}-\\d{4}-\\d{3}")
+                .satisfies(number -> assertThat(CardNumberGenerator.isLuhnValid(number)).isTrue());
+    }
+
+    @Test
+    void longBinIsKeptAsPrefix() {
+        String cardNumber = generator("123456789", 16,
+                DebitCardServiceProperties.RandomStrategy.SPLITTABLE).generate();
+
+        assertThat(cardNumber.replace("-", "")).startsWith("123456789").hasSize(16);
+    }
+
+    @Test
+    void nonNumericBinIsRejected() {
+        assertThatThrownBy(() ->
+                generator("45A788", 16, DebitCardServiceProperties.RandomStrategy.SECURE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void binAsLongAsTheCardNumberIsRejected() {
+        assertThatThrownBy(() ->
+                generator("4557881234567890", 16, DebitCardServiceProperties.RandomStrategy.SECURE))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CardNumberGenerator generator(
+            String bin, int length, DebitCardServiceProperties.RandomStrategy random) {
+        DebitCardServiceProperties properties = new DebitCardServiceProperties();
+        properties.getCardNumber().setBin(bin);
+        properties.getCardNumber().setLength(length);
+        properties.getCardNumber().setRandom(random);
+        return new CardNumberGenerator(properties);
+    }
+}
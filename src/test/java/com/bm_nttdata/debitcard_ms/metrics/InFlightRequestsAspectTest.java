@@ -0,0 +1,110 @@
+package com.bm_nttdata.debitcard_ms.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.debitcard_ms.api.DebitCardApi;
+import com.bm_nttdata.debitcard_ms.controller.DebitCardController;
+import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
+import com.bm_nttdata.debitcard_ms.service.DebitCardService;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class InFlightRequestsAspectTest {
+
+    private static final Duration VERIFY_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final String LIST_OPERATION = "getDebitCardsByCustomer";
+
+    private DebitCardService debitCardService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private DebitCardApi api;
+
+    @BeforeEach
+    void setUp() {
+        debitCardService = mock(DebitCardService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new DebitCardController(
+                debitCardService, CircuitBreakerRegistry.ofDefaults()));
+        proxyFactory.addAspect(new InFlightRequestsAspect(meterRegistry));
+        api = proxyFactory.getProxy();
+    }
+
+    @Test
+    void streamingRequestIsInFlightUntilItsBodyCompletes() {
+        Sinks.Many<DebitCardResponseDto> cards = Sinks.many().unicast().onBackpressureBuffer();
+        when(debitCardService.getDebitCardsByCustomer("cus-1", null, null, null))
+                .thenReturn(cards.asFlux());
+
+        ResponseEntity<Flux<DebitCardResponseDto>> response =
+                api._getDebitCardsByCustomer("cus-1", null, null, null, null, null)
+                        .block(VERIFY_TIMEOUT);
+
+        assertThat(inFlight(LIST_OPERATION)).isEqualTo(1);
+        StepVerifier.create(response.getBody())
+                .then(() -> cards.tryEmitNext(new DebitCardResponseDto().id("card-1")))
+                .expectNextCount(1)
+                .then(() -> assertThat(inFlight(LIST_OPERATION)).isEqualTo(1))
+                .then(cards::tryEmitComplete)
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+        assertThat(inFlight(LIST_OPERATION)).isZero();
+    }
+
+    @Test
+    void cancelledStreamingBodyEndsTheRequest() {
+        when(debitCardService.getDebitCardsByCustomer("cus-1", null, null, null))
+                .thenReturn(Flux.never());
+
+        ResponseEntity<Flux<DebitCardResponseDto>> response =
+                api._getDebitCardsByCustomer("cus-1", null, null, null, null, null)
+                        .block(VERIFY_TIMEOUT);
+        StepVerifier.create(response.getBody())
+                .thenCancel()
+                .verify(VERIFY_TIMEOUT);
+
+        assertThat(inFlight(LIST_OPERATION)).isZero();
+    }
+
+    @Test
+    void rejectedStreamingRequestEndsWithoutBody() {
+        StepVerifier.create(api._getDebitCardsByCustomer(null, null, null, null, null, null))
+                .expectError()
+                .verify(VERIFY_TIMEOUT);
+
+        assertThat(inFlight(LIST_OPERATION)).isZero();
+    }
+
+    @Test
+    void singleValueRequestIsInFlightUntilItsResponse() {
+        Sinks.One<DebitCardResponseDto> card = Sinks.one();
+        when(debitCardService.getDebitCard("card-1")).thenReturn(card.asMono());
+
+        StepVerifier.create(api._getDebitCard("card-1", null))
+                .then(() -> assertThat(inFlight("getDebitCard")).isEqualTo(1))
+                .then(() -> card.tryEmitValue(new DebitCardResponseDto().id("card-1")))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+
+        assertThat(inFlight("getDebitCard")).isZero();
+    }
+
+    private double inFlight(String operation) {
+        return meterRegistry.get(InFlightRequestsAspect.METRIC_NAME)
+                .tag("operation", operation)
+                .gauge()
+                .value();
+    }
+}
@@ -0,0 +1,202 @@
+package com.bm_nttdata.debitcard_ms.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bm_nttdata.debitcard_ms.entity.CardOutboxEvent;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardEventTypeEnum;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Comprueba contra un servidor MongoDB en memoria la reserva de la bandeja de salida de
+ * las tarjetas por parte de varios relés de eventos.
+ */
+class DebitCardOutboxClaimTest {
+
+    private static final Duration LEASE = Duration.ofSeconds(30);
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static MongoServer server;
+
+    private static MongoClient client;
+
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private DebitCardRepositoryCustomImpl repository;
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new ReactiveMongoTemplate(client, "debitcard_test");
+        mongoTemplate.dropCollection(DebitCard.class).block(TIMEOUT);
+        repository = new DebitCardRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @Test
+    void concurrentRelaysNeverClaimTheSameCard() {
+        List<String> cardIds = insertCardsWithPendingEvents(40);
+        List<String> relays = IntStream.rangeClosed(1, 4).mapToObj(n -> "relay-" + n).toList();
+
+        List<List<String>> claims = Flux.fromIterable(relays)
+                .flatMap(relay -> repository.claimPendingEvents(relay, LEASE, cardIds.size())
+                        .map(DebitCard::getId)
+                        .collectList()
+                        .subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block(TIMEOUT);
+
+        List<String> claimed = claims.stream().flatMap(List::stream).toList();
+        assertThat(claimed).doesNotHaveDuplicates();
+        assertThat(claimed).containsExactlyInAnyOrderElementsOf(cardIds);
+    }
+
+    @Test
+    void activeLeaseIsOnlyClaimedAgainByItsOwner() {
+        List<String> cardIds = insertCardsWithPendingEvents(3);
+
+        assertThat(claim("relay-1", LEASE)).containsExactlyInAnyOrderElementsOf(cardIds);
+        assertThat(claim("relay-2", LEASE)).isEmpty();
+        assertThat(claim("relay-1", LEASE)).containsExactlyInAnyOrderElementsOf(cardIds);
+    }
+
+    @Test
+    void expiredLeaseIsClaimedByAnotherRelay() throws InterruptedException {
+        List<String> cardIds = insertCardsWithPendingEvents(3);
+
+        assertThat(claim("relay-1", Duration.ofMillis(50))).hasSize(3);
+        Thread.sleep(100);
+
+        assertThat(claim("relay-2", LEASE)).containsExactlyInAnyOrderElementsOf(cardIds);
+    }
+
+    @Test
+    void claimedCardsCarryTheirPendingEventsOldestCardFirst() {
+        List<String> cardIds = insertCardsWithPendingEvents(5);
+
+        List<DebitCard> claimed = repository.claimPendingEvents("relay-1", LEASE, 2)
+                .collectList()
+                .block(TIMEOUT);
+
+        assertThat(claimed).extracting(DebitCard::getId).containsExactlyElementsOf(
+                cardIds.subList(0, 2));
+        assertThat(claimed).allSatisfy(card -> {
+            assertThat(card.getCustomerId()).isEqualTo("cus-1");
+            assertThat(card.getPendingEvents()).hasSize(1);
+        });
+    }
+
+    @Test
+    void removingPublishedEventsReleasesTheLeaseWithoutTouchingTheCard() {
+        String cardId = insertCardsWithPendingEvents(1).get(0);
+        DebitCard claimed = repository.claimPendingEvents("relay-1", LEASE, 1)
+                .blockFirst(TIMEOUT);
+        String publishedEventId = claimed.getPendingEvents().get(0).getEventId();
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(cardId)),
+                        new Update().push("pendingEvents", event(LocalDateTime.now())),
+                        mongoTemplate.getCollectionName(DebitCard.class))
+                .block(TIMEOUT);
+
+        repository.removePendingEvents("relay-1", List.of(cardId), List.of(publishedEventId))
+                .block(TIMEOUT);
+
+        DebitCard reclaimed = repository.claimPendingEvents("relay-2", LEASE, 1)
+                .blockFirst(TIMEOUT);
+        DebitCard current = mongoTemplate.findById(cardId, DebitCard.class).block(TIMEOUT);
+        assertThat(reclaimed.getId()).isEqualTo(cardId);
+        assertThat(reclaimed.getPendingEvents()).extracting(CardOutboxEvent::getEventId)
+                .doesNotContain(publishedEventId)
+                .hasSize(1);
+        assertThat(current.getVersion()).isZero();
+    }
+
+    @Test
+    void expiredOwnerRemovingEventsKeepsTheLeaseOfTheRelayThatReclaimedTheCard()
+            throws InterruptedException {
+        String cardId = insertCardsWithPendingEvents(1).get(0);
+        final DebitCard expired = repository.claimPendingEvents("relay-1", Duration.ofMillis(50), 1)
+                .blockFirst(TIMEOUT);
+        Thread.sleep(100);
+        assertThat(claim("relay-2", LEASE)).containsExactly(cardId);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(cardId)),
+                        new Update().push("pendingEvents", event(LocalDateTime.now())),
+                        mongoTemplate.getCollectionName(DebitCard.class))
+                .block(TIMEOUT);
+
+        repository.removePendingEvents("relay-1", List.of(cardId),
+                        List.of(expired.getPendingEvents().get(0).getEventId()))
+                .block(TIMEOUT);
+
+        assertThat(claim("relay-3", LEASE)).isEmpty();
+        assertThat(claim("relay-2", LEASE)).containsExactly(cardId);
+    }
+
+    private Set<String> claim(String relay, Duration lease) {
+        return new HashSet<>(repository.claimPendingEvents(relay, lease, 100)
+                .map(DebitCard::getId)
+                .collectList()
+                .block(TIMEOUT));
+    }
+
+    /**
+     * Inserta tarjetas con un evento pendiente cada una, de la más antigua a la más
+     * reciente.
+     */
+    private List<String> insertCardsWithPendingEvents(int count) {
+        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
+        List<DebitCard> cards = new ArrayList<>();
+        for (int n = 0; n < count; n++) {
+            cards.add(DebitCard.builder()
+                    .cardNumber("4000-0000-0000-" + String.format("%04d", n))
+                    .customerId("cus-1")
+                    .primaryAccountId("acc-1")
+                    .pendingEvents(new ArrayList<>(List.of(event(start.plusSeconds(n)))))
+                    .build());
+        }
+        return mongoTemplate.insertAll(cards)
+                .map(DebitCard::getId)
+                .collectList()
+                .block(TIMEOUT);
+    }
+
+    private static CardOutboxEvent event(LocalDateTime occurredAt) {
+        return CardOutboxEvent.builder()
+                .eventId(new ObjectId().toHexString())
+                .type(CardEventTypeEnum.ACCOUNT_ASSOCIATED)
+                .accountId("acc-1")
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
@@ -0,0 +1,195 @@
+package com.bm_nttdata.debitcard_ms.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bm_nttdata.debitcard_ms.config.CardEventProperties;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import com.bm_nttdata.debitcard_ms.event.CardOutbox;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Comprueba contra un servidor MongoDB en memoria que las actualizaciones atómicas de
+ * las cuentas de una tarjeta no pierden escrituras cuando varios escritores modifican la
+ * misma tarjeta a la vez.
+ */
+class DebitCardRepositoryConcurrencyTest {
+
+    private static final int WRITERS = 16;
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static MongoServer server;
+
+    private static MongoClient client;
+
+    private ReactiveMongoTemplate mongoTemplate;
+
+    private DebitCardRepositoryCustomImpl repository;
+
+    private CardOutbox cardOutbox;
+
+    @BeforeAll
+    static void startServer() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+    }
+
+    @AfterAll
+    static void stopServer() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = new ReactiveMongoTemplate(client, "debitcard_test");
+        mongoTemplate.dropCollection(DebitCard.class).block(TIMEOUT);
+        repository = new DebitCardRepositoryCustomImpl(mongoTemplate);
+        CardEventProperties eventProperties = new CardEventProperties();
+        eventProperties.setEnabled(true);
+        cardOutbox = new CardOutbox(eventProperties);
+    }
+
+    @Test
+    void concurrentAssociationsAreAllKept() {
+        DebitCard card = insertCard();
+        List<String> accountIds = accountIds("acc-", WRITERS);
+
+        List<DebitCard> results = inParallel(accountIds, accountId ->
+                repository.addAssociatedAccount(card.getId(), accountId,
+                        cardOutbox.accountAssociated(accountId)));
+
+        DebitCard current = reload(card);
+        assertThat(results).hasSize(WRITERS);
+        assertThat(current.getAssociatedAccountIds())
+                .containsExactlyInAnyOrderElementsOf(accountIds);
+        assertThat(current.getVersion()).isEqualTo(card.getVersion() + WRITERS);
+        assertThat(current.getPendingEvents()).hasSize(WRITERS);
+    }
+
+    @Test
+    void concurrentAssociationsOfTheSameAccountApplyOnce() {
+        DebitCard card = insertCard();
+        List<String> accountIds = IntStream.range(0, WRITERS).mapToObj(n -> "acc-1").toList();
+
+        List<DebitCard> results = inParallel(accountIds, accountId ->
+                repository.addAssociatedAccount(card.getId(), accountId,
+                        cardOutbox.accountAssociated(accountId)));
+
+        DebitCard current = reload(card);
+        assertThat(results).hasSize(1);
+        assertThat(current.getAssociatedAccountIds()).containsExactly("acc-1");
+        assertThat(current.getVersion()).isEqualTo(card.getVersion() + 1);
+        assertThat(current.getPendingEvents()).hasSize(1);
+    }
+
+    @Test
+    void primaryAccountUpdatesFromTheSameVersionHaveOneWinner() {
+        DebitCard card = insertCard();
+        List<String> accountIds = accountIds("primary-", WRITERS);
+
+        List<DebitCard> results = inParallel(accountIds, accountId ->
+                repository.updatePrimaryAccount(card.getId(), card.getVersion(), accountId,
+                        cardOutbox.primaryAccountChanged(card.getPrimaryAccountId(), accountId)));
+
+        DebitCard current = reload(card);
+        assertThat(results).hasSize(1);
+        assertThat(current.getPrimaryAccountId())
+                .isEqualTo(results.get(0).getPrimaryAccountId());
+        assertThat(current.getVersion()).isEqualTo(card.getVersion() + 1);
+        assertThat(current.getPendingEvents()).hasSize(1);
+    }
+
+    @Test
+    void primaryAccountUpdatesRacingAssociationsLoseNoWrites() {
+        DebitCard card = insertCard();
+        List<String> associations = accountIds("acc-", WRITERS);
+        List<String> primaries = accountIds("primary-", WRITERS / 4);
+
+        List<Mono<DebitCard>> writes = new ArrayList<>();
+        associations.forEach(accountId -> writes.add(
+                repository.addAssociatedAccount(card.getId(), accountId,
+                        cardOutbox.accountAssociated(accountId))));
+        primaries.forEach(accountId -> writes.add(retryingPrimaryUpdate(card, accountId)));
+        List<DebitCard> results = Flux.fromIterable(writes)
+                .flatMap(write -> write.subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block(TIMEOUT);
+
+        DebitCard current = reload(card);
+        DebitCard lastPrimaryUpdate = results.stream()
+                .filter(result -> primaries.contains(result.getPrimaryAccountId()))
+                .max(Comparator.comparing(DebitCard::getVersion))
+                .orElseThrow();
+        assertThat(results).hasSize(associations.size() + primaries.size());
+        assertThat(current.getAssociatedAccountIds())
+                .containsExactlyInAnyOrderElementsOf(associations);
+        assertThat(current.getPrimaryAccountId())
+                .isEqualTo(lastPrimaryUpdate.getPrimaryAccountId());
+        assertThat(current.getVersion())
+                .isEqualTo(card.getVersion() + associations.size() + primaries.size());
+        assertThat(current.getPendingEvents()).hasSize(associations.size() + primaries.size());
+    }
+
+    /**
+     * Cambia la cuenta principal sobre la última versión leída y, si otro escritor la ha
+     * modificado entretanto, vuelve a leerla y lo reintenta.
+     */
+    private Mono<DebitCard> retryingPrimaryUpdate(DebitCard card, String accountId) {
+        return Mono.defer(() -> mongoTemplate.findById(card.getId(), DebitCard.class)
+                        .flatMap(current -> repository.updatePrimaryAccount(
+                                current.getId(), current.getVersion(), accountId,
+                                cardOutbox.primaryAccountChanged(
+                                        current.getPrimaryAccountId(), accountId))))
+                .repeatWhenEmpty(Integer.MAX_VALUE, attempts -> attempts);
+    }
+
+    private List<DebitCard> inParallel(
+            List<String> accountIds, Function<String, Mono<DebitCard>> write) {
+        return Flux.fromIterable(accountIds)
+                .flatMap(accountId -> Mono.defer(() -> write.apply(accountId))
+                        .subscribeOn(Schedulers.parallel()))
+                .collectList()
+                .block(TIMEOUT);
+    }
+
+    private DebitCard insertCard() {
+        return mongoTemplate.insert(DebitCard.builder()
+                        .cardNumber("4000-0000-0000-0002")
+                        .customerId("cus-1")
+                        .primaryAccountId("primary-0")
+                        .associatedAccountIds(new ArrayList<>())
+                        .expirationDate("2030-10")
+                        .creationDate(LocalDateTime.now())
+                        .active(CardStatusEnum.ACTIVE)
+                        .build())
+                .block(TIMEOUT);
+    }
+
+    private DebitCard reload(DebitCard card) {
+        return mongoTemplate.findById(card.getId(), DebitCard.class).block(TIMEOUT);
+    }
+
+    private static List<String> accountIds(String prefix, int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(n -> prefix + n).toList();
+    }
+}
@@ -0,0 +1,164 @@
+package com.bm_nttdata.debitcard_ms.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bm_nttdata.debitcard_ms.config.DownstreamResilienceProperties;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class DownstreamResilienceFilterTest {
+
+    private static final String TARGET = "test-ms";
+
+    private static final Duration TIMEOUT = Duration.ofMillis(200);
+
+    private DownstreamResilienceProperties properties;
+
+    private DownstreamResilienceFilter filter;
+
+    private final AtomicInteger exchanges = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        properties = new DownstreamResilienceProperties();
+        properties.getRetry(TARGET).setBackoff(Duration.ofMillis(1));
+        properties.getRetry(TARGET).setMaxBackoff(Duration.ofMillis(1));
+        filter = filter(properties);
+    }
+
+    @Test
+    void slowResponseBodyIsCutByTheTimeLimiter() {
+        properties.getRetry(TARGET).setMaxAttempts(1);
+        WebClient webClient = webClient(HttpStatus.OK,
+                Flux.just(buffer("{}")).delayElements(TIMEOUT.multipliedBy(5)));
+
+        StepVerifier.create(webClient.get().uri("/slow").retrieve().bodyToMono(String.class))
+                .expectError(TimeoutException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void bulkheadPermitIsHeldWhileTheBodyIsStreaming() {
+        WebClient slowBody = webClient(HttpStatus.OK, Flux.never());
+        WebClient fastBody = webClient(HttpStatus.OK, Flux.just(buffer("{}")));
+
+        Disposable first = slowBody.post().uri("/slow").retrieve().bodyToMono(String.class)
+                .subscribe();
+        try {
+            StepVerifier.create(fastBody.post().uri("/fast").retrieve().bodyToMono(String.class))
+                    .expectError(BulkheadFullException.class)
+                    .verify(Duration.ofSeconds(5));
+        } finally {
+            first.dispose();
+        }
+
+        StepVerifier.create(fastBody.post().uri("/fast").retrieve().bodyToMono(String.class))
+                .expectNext("{}")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void bufferedBodyIsDecodedByTheCaller() {
+        WebClient webClient = webClient(HttpStatus.OK,
+                Flux.just(buffer("{\"balance\":"), buffer("1500.0}")));
+
+        StepVerifier.create(webClient.get().uri("/balance").retrieve().bodyToMono(String.class))
+                .expectNext("{\"balance\":1500.0}")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void idempotentRequestsAreRetriedOnServerErrors() {
+        WebClient webClient = webClient(HttpStatus.SERVICE_UNAVAILABLE, Flux.empty());
+
+        StepVerifier.create(webClient.get().uri("/unavailable").retrieve().toBodilessEntity())
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(exchanges).hasValue(2);
+    }
+
+    @Test
+    void nonIdempotentRequestsAreNeverRetried() {
+        WebClient webClient = webClient(HttpStatus.SERVICE_UNAVAILABLE, Flux.empty());
+
+        for (WebClient.RequestBodyUriSpec request : new WebClient.RequestBodyUriSpec[] {
+            webClient.post(), webClient.put(), webClient.patch()}) {
+            StepVerifier.create(request.uri("/unavailable").retrieve().toBodilessEntity())
+                    .expectError(WebClientResponseException.ServiceUnavailable.class)
+                    .verify(Duration.ofSeconds(5));
+        }
+        StepVerifier.create(webClient.delete().uri("/unavailable").retrieve().toBodilessEntity())
+                .expectError(WebClientResponseException.ServiceUnavailable.class)
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(exchanges).hasValue(4);
+    }
+
+    @Test
+    void retriesStopWhenTheBudgetIsExhausted() {
+        properties.getRetryBudget().setRatio(0);
+        properties.getRetryBudget().setMaxBalance(1);
+        filter = filter(properties);
+        WebClient webClient = webClient(HttpStatus.SERVICE_UNAVAILABLE, Flux.empty());
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(webClient.get().uri("/unavailable").retrieve().toBodilessEntity())
+                    .expectError(WebClientResponseException.ServiceUnavailable.class)
+                    .verify(Duration.ofSeconds(5));
+        }
+
+        // Solo la primera solicitud dispone de saldo para un reintento
+        assertThat(exchanges).hasValue(4);
+    }
+
+    private WebClient webClient(HttpStatus status, Flux<DataBuffer> body) {
+        return WebClient.builder()
+                .filter(filter.forTarget(TARGET))
+                .exchangeFunction(request -> Mono.fromSupplier(() -> {
+                    exchanges.incrementAndGet();
+                    return ClientResponse.create(status).body(body).build();
+                }))
+                .build();
+    }
+
+    private static DownstreamResilienceFilter filter(DownstreamResilienceProperties properties) {
+        return new DownstreamResilienceFilter(
+                BulkheadRegistry.of(BulkheadConfig.custom()
+                        .maxConcurrentCalls(1)
+                        .maxWaitDuration(Duration.ZERO)
+                        .build()),
+                TimeLimiterRegistry.of(TimeLimiterConfig.custom()
+                        .timeoutDuration(TIMEOUT)
+                        .build()),
+                properties,
+                new SimpleMeterRegistry());
+    }
+
+    private static DataBuffer buffer(String value) {
+        return DefaultDataBufferFactory.sharedInstance.wrap(
+                value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,58 @@
+package com.bm_nttdata.debitcard_ms.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RetryBudgetTest {
+
+    @Test
+    void startsWithTheFullBalance() {
+        RetryBudget retryBudget = new RetryBudget(0.1, 2);
+
+        assertThat(retryBudget.getAvailableRetries()).isEqualTo(2.0);
+        assertThat(retryBudget.tryWithdraw()).isTrue();
+        assertThat(retryBudget.tryWithdraw()).isTrue();
+        assertThat(retryBudget.tryWithdraw()).isFalse();
+        assertThat(retryBudget.getAvailableRetries()).isZero();
+    }
+
+    @Test
+    void eachRequestDepositsTheConfiguredRatio() {
+        RetryBudget retryBudget = new RetryBudget(0.1, 1);
+        retryBudget.tryWithdraw();
+
+        for (int i = 0; i < 9; i++) {
+            retryBudget.deposit();
+        }
+        assertThat(retryBudget.getAvailableRetries()).isEqualTo(0.9);
+        assertThat(retryBudget.tryWithdraw()).isFalse();
+
+        retryBudget.deposit();
+        assertThat(retryBudget.tryWithdraw()).isTrue();
+        assertThat(retryBudget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    void depositsAreCappedAtTheMaximumBalance() {
+        RetryBudget retryBudget = new RetryBudget(0.5, 3);
+
+        for (int i = 0; i < 100; i++) {
+            retryBudget.deposit();
+        }
+
+        assertThat(retryBudget.getAvailableRetries()).isEqualTo(3.0);
+    }
+
+    @Test
+    void zeroRatioNeverRefillsTheBudget() {
+        RetryBudget retryBudget = new RetryBudget(0, 1);
+        retryBudget.tryWithdraw();
+
+        for (int i = 0; i < 1_000; i++) {
+            retryBudget.deposit();
+        }
+
+        assertThat(retryBudget.tryWithdraw()).isFalse();
+    }
+}
@@ -0,0 +1,235 @@
+package com.bm_nttdata.debitcard_ms.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+class CardSecretCodecTest {
+
+    private static final String CARD_NUMBER = "4557-8812-3456-7890";
+
+    private static final String OTHER_CARD_NUMBER = "4557-8812-3456-7809";
+
+    private static final String PIN = "0421";
+
+    static Stream<Arguments> engines() {
+        return Stream.of(
+                Arguments.of(AesGcmCardSecretCodec.ENGINE,
+                        (Function<CardSecretKeyProvider, CardSecretCodec>)
+                                AesGcmCardSecretCodec::new),
+                Arguments.of(HmacCardSecretCodec.ENGINE,
+                        (Function<CardSecretKeyProvider, CardSecretCodec>)
+                                HmacCardSecretCodec::new));
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void encodedSecretMatchesTheOriginalValue(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        CardSecretCodec codec = factory.apply(new TestKeyProvider("k1"));
+
+        String encoded = codec.encode(PIN, CARD_NUMBER);
+
+        assertThat(encoded).startsWith(engine + "$k1$").doesNotContain(PIN);
+        assertThat(codec.matches(PIN, encoded, CARD_NUMBER)).isTrue();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void wrongValueIsRejected(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        CardSecretCodec codec = factory.apply(new TestKeyProvider("k1"));
+        String encoded = codec.encode(PIN, CARD_NUMBER);
+
+        assertThat(codec.matches("0422", encoded, CARD_NUMBER)).isFalse();
+        assertThat(codec.matches("421", encoded, CARD_NUMBER)).isFalse();
+        assertThat(codec.matches("", encoded, CARD_NUMBER)).isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void secretBoundToAnotherCardNumberIsRejected(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        CardSecretCodec codec = factory.apply(new TestKeyProvider("k1"));
+        String encoded = codec.encode(PIN, CARD_NUMBER);
+
+        assertThat(codec.matches(PIN, encoded, OTHER_CARD_NUMBER)).isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void tamperedPayloadIsRejected(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        CardSecretCodec codec = factory.apply(new TestKeyProvider("k1"));
+        EncodedSecret secret = EncodedSecret.parse(codec.encode(PIN, CARD_NUMBER), engine)
+                .orElseThrow();
+        byte[] payload = secret.payload();
+
+        // Se altera cada byte: vector de inicialización, texto cifrado y etiqueta en AES-GCM
+        for (int i = 0; i < payload.length; i++) {
+            byte[] tampered = payload.clone();
+            tampered[i] ^= 0x01;
+            String encoded = new EncodedSecret(engine, secret.keyId(), tampered).format();
+            assertThat(codec.matches(PIN, encoded, CARD_NUMBER))
+                    .as("byte %d altered", i)
+                    .isFalse();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void emptyCandidateIsRejectedWhenVerificationFails(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        TestKeyProvider keyProvider = new TestKeyProvider("k1");
+        CardSecretCodec codec = factory.apply(keyProvider);
+        EncodedSecret secret = EncodedSecret.parse(codec.encode(PIN, CARD_NUMBER), engine)
+                .orElseThrow();
+        byte[] tampered = secret.payload().clone();
+        tampered[tampered.length - 1] ^= 0x01;
+        keyProvider.rotate("k2");
+
+        assertThat(codec.matches("",
+                new EncodedSecret(engine, "k1", tampered).format(), CARD_NUMBER)).isFalse();
+        assertThat(codec.matches("", secret.format(), OTHER_CARD_NUMBER)).isFalse();
+        assertThat(codec.matches("",
+                new EncodedSecret(engine, "k2", secret.payload()).format(), CARD_NUMBER))
+                .isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void truncatedPayloadIsRejected(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        CardSecretCodec codec = factory.apply(new TestKeyProvider("k1"));
+        String encoded = codec.encode(PIN, CARD_NUMBER);
+
+        assertThat(codec.matches(PIN, encoded.substring(0, encoded.length() - 4), CARD_NUMBER))
+                .isFalse();
+        assertThat(codec.matches(PIN, engine + "$k1$", CARD_NUMBER)).isFalse();
+        assertThat(codec.matches(PIN, engine + "$k1$not*base64", CARD_NUMBER)).isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void secretEncodedWithRotatedKeyStillMatches(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        TestKeyProvider keyProvider = new TestKeyProvider("k1");
+        CardSecretCodec codec = factory.apply(keyProvider);
+        String encodedWithOldKey = codec.encode(PIN, CARD_NUMBER);
+
+        keyProvider.rotate("k2");
+        String encodedWithNewKey = codec.encode(PIN, CARD_NUMBER);
+
+        assertThat(encodedWithNewKey).startsWith(engine + "$k2$");
+        assertThat(codec.matches(PIN, encodedWithOldKey, CARD_NUMBER)).isTrue();
+        assertThat(codec.matches(PIN, encodedWithNewKey, CARD_NUMBER)).isTrue();
+        assertThat(codec.matches("0422", encodedWithOldKey, CARD_NUMBER)).isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void secretEncodedWithAnotherKeyUnderTheSameIdIsRejected(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        String encoded = factory.apply(new TestKeyProvider("k1")).encode(PIN, CARD_NUMBER);
+
+        CardSecretCodec otherInstance = factory.apply(new TestKeyProvider("k1"));
+
+        assertThat(otherInstance.matches(PIN, encoded, CARD_NUMBER)).isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void legacyPlaintextValueIsVerifiedAsIs(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        CardSecretCodec codec = factory.apply(new TestKeyProvider("k1"));
+
+        assertThat(codec.matches("4321", "4321", CARD_NUMBER)).isTrue();
+        assertThat(codec.matches("4321", "4321", OTHER_CARD_NUMBER)).isTrue();
+        assertThat(codec.matches("4322", "4321", CARD_NUMBER)).isFalse();
+        assertThat(codec.matches("04321", "4321", CARD_NUMBER)).isFalse();
+        assertThat(codec.matches("", "4321", CARD_NUMBER)).isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void encodedValueIsNeverComparedAsPlaintext(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        CardSecretCodec codec = factory.apply(new TestKeyProvider("k1"));
+        String encoded = codec.encode(PIN, CARD_NUMBER);
+
+        assertThat(codec.matches(encoded, encoded, CARD_NUMBER)).isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void secretOfTheOtherEngineIsRejected(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        TestKeyProvider keyProvider = new TestKeyProvider("k1");
+        CardSecretCodec codec = factory.apply(keyProvider);
+        CardSecretCodec other = AesGcmCardSecretCodec.ENGINE.equals(engine)
+                ? new HmacCardSecretCodec(keyProvider)
+                : new AesGcmCardSecretCodec(keyProvider);
+
+        assertThat(codec.matches(PIN, other.encode(PIN, CARD_NUMBER), CARD_NUMBER)).isFalse();
+    }
+
+    @ParameterizedTest
+    @MethodSource("engines")
+    void encodedPayloadIsUrlSafeBase64WithoutPadding(
+            String engine, Function<CardSecretKeyProvider, CardSecretCodec> factory) {
+        String encoded = factory.apply(new TestKeyProvider("k1")).encode(PIN, CARD_NUMBER);
+        String payload = encoded.substring(encoded.lastIndexOf('$') + 1);
+
+        assertThat(payload).doesNotContain("=", "+", "/");
+        assertThat(Base64.getUrlDecoder().decode(payload)).isNotEmpty();
+    }
+
+    /**
+     * Proveedor de claves en memoria que genera una clave AES de 256 bits por identificador.
+     */
+    private static final class TestKeyProvider implements CardSecretKeyProvider {
+
+        private final Map<String, SecretKey> keys = new HashMap<>();
+
+        private String currentKeyId;
+
+        TestKeyProvider(String keyId) {
+            rotate(keyId);
+        }
+
+        void rotate(String keyId) {
+            try {
+                KeyGenerator generator = KeyGenerator.getInstance("AES");
+                generator.init(256);
+                keys.put(keyId, generator.generateKey());
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+            currentKeyId = keyId;
+        }
+
+        @Override
+        public String currentKeyId() {
+            return currentKeyId;
+        }
+
+        @Override
+        public SecretKey key(String keyId) {
+            SecretKey key = keys.get(keyId);
+            if (key == null) {
+                throw new IllegalArgumentException("Unknown card secret key: " + keyId);
+            }
+            return key;
+        }
+    }
+}
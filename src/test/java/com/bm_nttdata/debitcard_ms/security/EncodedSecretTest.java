@@ -0,0 +1,37 @@
+package com.bm_nttdata.debitcard_ms.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class EncodedSecretTest {
+
+    @Test
+    void formatAndParseRoundTrip() {
+        byte[] payload = "payload".getBytes(StandardCharsets.UTF_8);
+
+        String formatted = new EncodedSecret("g1", "card-secrets-1", payload).format();
+
+        assertThat(formatted).isEqualTo("g1$card-secrets-1$cGF5bG9hZA");
+        assertThat(EncodedSecret.parse(formatted, "g1")).hasValueSatisfying(secret -> {
+            assertThat(secret.engine()).isEqualTo("g1");
+            assertThat(secret.keyId()).isEqualTo("card-secrets-1");
+            assertThat(secret.payload()).isEqualTo(payload);
+        });
+    }
+
+    @Test
+    void valuesOfAnotherEngineOrMalformedAreNotParsed() {
+        assertThat(EncodedSecret.parse("h1$k1$cGF5bG9hZA", "g1")).isEmpty();
+        assertThat(EncodedSecret.parse("g1$cGF5bG9hZA", "g1")).isEmpty();
+        assertThat(EncodedSecret.parse("g1k1cGF5bG9hZA", "g1")).isEmpty();
+        assertThat(EncodedSecret.parse("g1$k1$***", "g1")).isEmpty();
+    }
+
+    @Test
+    void onlyValuesWithoutSeparatorAreLegacyPlaintext() {
+        assertThat(EncodedSecret.isPlaintext("0421")).isTrue();
+        assertThat(EncodedSecret.isPlaintext("g1$k1$cGF5bG9hZA")).isFalse();
+    }
+}
@@ -0,0 +1,107 @@
+package com.bm_nttdata.debitcard_ms.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import javax.crypto.KeyGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KeyStoreCardSecretKeyProviderTest {
+
+    private static final char[] PASSWORD = "test-password".toCharArray();
+
+    private static final String CARD_NUMBER = "4557-8812-3456-7890";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void missingKeystoreFailsWithoutGeneratingOne() {
+        Path keystore = directory.resolve("card-secrets.p12");
+
+        assertThatThrownBy(() -> new KeyStoreCardSecretKeyProvider(
+                keystore, "PKCS12", PASSWORD, "card-secrets-1", false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not found");
+        assertThat(keystore).doesNotExist();
+    }
+
+    @Test
+    void generatedKeystoreIsReusedOnRestart() {
+        Path keystore = directory.resolve("local/card-secrets.p12");
+        CardSecretCodec codec = new AesGcmCardSecretCodec(new KeyStoreCardSecretKeyProvider(
+                keystore, "PKCS12", PASSWORD, "card-secrets-1", true));
+        String encoded = codec.encode("0421", CARD_NUMBER);
+
+        CardSecretCodec restarted = new AesGcmCardSecretCodec(new KeyStoreCardSecretKeyProvider(
+                keystore, "PKCS12", PASSWORD, "card-secrets-1", false));
+
+        assertThat(keystore).exists();
+        assertThat(restarted.matches("0421", encoded, CARD_NUMBER)).isTrue();
+    }
+
+    @Test
+    void wrongPasswordFailsStartup() {
+        Path keystore = directory.resolve("card-secrets.p12");
+        new KeyStoreCardSecretKeyProvider(keystore, "PKCS12", PASSWORD, "card-secrets-1", true);
+
+        assertThatThrownBy(() -> new KeyStoreCardSecretKeyProvider(
+                keystore, "PKCS12", "other".toCharArray(), "card-secrets-1", false))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void missingCurrentAliasFailsStartup() {
+        Path keystore = directory.resolve("card-secrets.p12");
+        new KeyStoreCardSecretKeyProvider(keystore, "PKCS12", PASSWORD, "card-secrets-1", true);
+
+        assertThatThrownBy(() -> new KeyStoreCardSecretKeyProvider(
+                keystore, "PKCS12", PASSWORD, "card-secrets-2", false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("card-secrets-2");
+    }
+
+    @Test
+    void rotatedCurrentAliasKeepsPreviousKeysVerifiable() throws Exception {
+        Path keystore = directory.resolve("card-secrets.p12");
+        CardSecretCodec before = new HmacCardSecretCodec(new KeyStoreCardSecretKeyProvider(
+                keystore, "PKCS12", PASSWORD, "card-secrets-1", true));
+        final String encodedBefore = before.encode("0421", CARD_NUMBER);
+        addKey(keystore, "card-secrets-2");
+
+        CardSecretKeyProvider rotated = new KeyStoreCardSecretKeyProvider(
+                keystore, "PKCS12", PASSWORD, "card-secrets-2", false);
+        CardSecretCodec after = new HmacCardSecretCodec(rotated);
+
+        assertThat(rotated.currentKeyId()).isEqualTo("card-secrets-2");
+        assertThat(after.encode("0421", CARD_NUMBER)).startsWith("h1$card-secrets-2$");
+        assertThat(after.matches("0421", encodedBefore, CARD_NUMBER)).isTrue();
+    }
+
+    @Test
+    void aliasWithSeparatorIsRejected() {
+        assertThatThrownBy(() -> new KeyStoreCardSecretKeyProvider(
+                directory.resolve("card-secrets.p12"), "PKCS12", PASSWORD, "a$b", true))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void addKey(Path path, String alias) throws Exception {
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = Files.newInputStream(path)) {
+            keyStore.load(in, PASSWORD);
+        }
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        keyStore.setEntry(alias, new KeyStore.SecretKeyEntry(generator.generateKey()),
+                new KeyStore.PasswordProtection(PASSWORD));
+        try (OutputStream out = Files.newOutputStream(path)) {
+            keyStore.store(out, PASSWORD);
+        }
+    }
+}
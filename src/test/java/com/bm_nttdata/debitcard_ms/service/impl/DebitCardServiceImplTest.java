@@ -0,0 +1,474 @@
+package com.bm_nttdata.debitcard_ms.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.bm_nttdata.debitcard_ms.cache.AccountCardIndex;
+import com.bm_nttdata.debitcard_ms.cache.BalanceCache;
+import com.bm_nttdata.debitcard_ms.cache.DebitCardBatchLoader;
+import com.bm_nttdata.debitcard_ms.cache.DebitCardCache;
+import com.bm_nttdata.debitcard_ms.cache.LastKnownGoodStore;
+import com.bm_nttdata.debitcard_ms.cache.ValidationCache;
+import com.bm_nttdata.debitcard_ms.config.CardEventProperties;
+import com.bm_nttdata.debitcard_ms.config.DebitCardCacheProperties;
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceConfig;
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties;
+import com.bm_nttdata.debitcard_ms.config.DebitCardServiceProperties.BalanceStrategy;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import com.bm_nttdata.debitcard_ms.event.CardOutbox;
+import com.bm_nttdata.debitcard_ms.exception.ApiInvalidRequestException;
+import com.bm_nttdata.debitcard_ms.generator.CardNumberGenerator;
+import com.bm_nttdata.debitcard_ms.mapper.DebitCardMapperImpl;
+import com.bm_nttdata.debitcard_ms.model.AccountBalanceDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationRequestDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationResponseDto;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationResponseDto.DeclineReasonEnum;
+import com.bm_nttdata.debitcard_ms.model.AuthorizationResponseDto.StatusEnum;
+import com.bm_nttdata.debitcard_ms.model.DebitCardRequestDto;
+import com.bm_nttdata.debitcard_ms.model.DebitCardResponseDto;
+import com.bm_nttdata.debitcard_ms.repository.DebitCardRepository;
+import com.bm_nttdata.debitcard_ms.security.CardSecretCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class DebitCardServiceImplTest {
+
+    private static final Duration VERIFY_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final String CUSTOMER_PATH = "/api/v1/customers/cus-1";
+
+    private static final String ACCOUNT_PATH = "/api/v1/accounts/acc-1";
+
+    private static final String CREDIT_DEBTS_PATH = "/api/v1/credits/customer/cus-1/debts";
+
+    private static final String CREDIT_CARD_DEBTS_PATH =
+            "/api/v1/credit-cards/customer/cus-1/debts";
+
+    private static final Map<String, String> RESPONSES = Map.of(
+            CUSTOMER_PATH, "{\"id\":\"cus-1\",\"customerType\":\"PERSONAL\"}",
+            ACCOUNT_PATH, "{\"id\":\"acc-1\",\"customerId\":\"cus-1\","
+                    + "\"accountType\":\"SAVINGS\",\"balance\":1500.0}",
+            CREDIT_DEBTS_PATH, "false",
+            CREDIT_CARD_DEBTS_PATH, "false");
+
+    private final Map<String, String> responses = new ConcurrentHashMap<>(RESPONSES);
+
+    private final List<String> requestedPaths = new CopyOnWriteArrayList<>();
+
+    private final Set<String> cancelledPaths = ConcurrentHashMap.newKeySet();
+
+    private DebitCardRepository debitCardRepository;
+
+    private DebitCardServiceProperties serviceProperties;
+
+    @BeforeEach
+    void setUp() {
+        debitCardRepository = mock(DebitCardRepository.class);
+        serviceProperties = new DebitCardServiceProperties();
+        serviceProperties.getBatchLoader().setEnabled(false);
+    }
+
+    @Test
+    void malformedAfterIdCursorIsRejectedAsBadRequest() {
+        DebitCardServiceImpl service = debitCardService(unusedWebClient());
+
+        StepVerifier.create(service.getDebitCardsByCustomer("cus-1", "not-a-card-id", 10, null))
+                .expectError(ApiInvalidRequestException.class)
+                .verify();
+
+        verifyNoInteractions(debitCardRepository);
+    }
+
+    @Test
+    void completeAccountLookupIsKeptAsTheLastKnownCards() {
+        when(debitCardRepository.findAllByAccountId("acc-2"))
+                .thenReturn(Flux.just(debitCard(CardStatusEnum.ACTIVE)));
+        DebitCardServiceImpl service = debitCardService(unusedWebClient());
+
+        StepVerifier.create(service.getLastKnownDebitCardsByAccount("acc-2"))
+                .verifyComplete();
+        StepVerifier.create(service.getDebitCardsByAccount("acc-2"))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(service.getLastKnownDebitCardsByAccount("acc-2"))
+                .assertNext(snapshot -> assertThat(snapshot.value())
+                        .extracting(DebitCardResponseDto::getId)
+                        .containsExactly("card-1"))
+                .verifyComplete();
+    }
+
+    @Test
+    void validAfterIdCursorIsPassedToTheRepository() {
+        String afterId = new ObjectId().toHexString();
+        when(debitCardRepository.findPageByCustomerId(
+                eq("cus-1"), isNull(), eq(afterId), anyInt(), anyInt()))
+                .thenReturn(Flux.empty());
+        DebitCardServiceImpl service = debitCardService(unusedWebClient());
+
+        StepVerifier.create(service.getDebitCardsByCustomer("cus-1", afterId, 10, null))
+                .verifyComplete();
+
+        verify(debitCardRepository).findPageByCustomerId(
+                eq("cus-1"), isNull(), eq(afterId), eq(10), eq(10));
+    }
+
+    @Test
+    void issuanceValidationsTakeTheSlowestLegInsteadOfTheSum() {
+        when(debitCardRepository.save(any(DebitCard.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        WebClient webClient = delayedWebClient(Map.of(
+                CUSTOMER_PATH, Duration.ofMillis(300),
+                ACCOUNT_PATH, Duration.ofMillis(200),
+                CREDIT_DEBTS_PATH, Duration.ofMillis(100),
+                CREDIT_CARD_DEBTS_PATH, Duration.ofMillis(250)));
+
+        // Consultas secuenciales tardarían 850ms; en paralelo, lo que tarda la más lenta
+        StepVerifier.withVirtualTime(() -> debitCardService(webClient)
+                        .createDebitCard(Mono.just(debitCardRequest())))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(299))
+                .thenAwait(Duration.ofMillis(1))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    @Test
+    void slowCustomerLegTimesOutWithTheMappedError() {
+        serviceProperties.getValidation().setCustomerTimeout(Duration.ofMillis(100));
+        WebClient webClient = delayedWebClient(Map.of(
+                CUSTOMER_PATH, Duration.ofSeconds(5),
+                ACCOUNT_PATH, Duration.ofMillis(50),
+                CREDIT_DEBTS_PATH, Duration.ofMillis(50),
+                CREDIT_CARD_DEBTS_PATH, Duration.ofMillis(50)));
+
+        StepVerifier.withVirtualTime(() -> debitCardService(webClient)
+                        .createDebitCard(Mono.just(debitCardRequest())))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(99))
+                .thenAwait(Duration.ofMillis(1))
+                .expectErrorMessage("Customer Service Unavailable")
+                .verify(VERIFY_TIMEOUT);
+
+        verifyNoInteractions(debitCardRepository);
+    }
+
+    @Test
+    void slowCreditLegTimesOutWithTheMappedError() {
+        serviceProperties.getValidation().setCreditTimeout(Duration.ofMillis(100));
+        WebClient webClient = delayedWebClient(Map.of(
+                CUSTOMER_PATH, Duration.ofMillis(50),
+                ACCOUNT_PATH, Duration.ofMillis(50),
+                CREDIT_DEBTS_PATH, Duration.ofMillis(50),
+                CREDIT_CARD_DEBTS_PATH, Duration.ofSeconds(5)));
+
+        StepVerifier.withVirtualTime(() -> debitCardService(webClient)
+                        .createDebitCard(Mono.just(debitCardRequest())))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(99))
+                .thenAwait(Duration.ofMillis(1))
+                .expectErrorMessage("Credit Card Service Unavailable")
+                .verify(VERIFY_TIMEOUT);
+
+        verifyNoInteractions(debitCardRepository);
+    }
+
+    @Test
+    void fasterLowerPriorityAccountDoesNotWinWhileThePrimaryIsPending() {
+        when(debitCardRepository.findById("card-1"))
+                .thenReturn(Mono.just(debitCard(CardStatusEnum.ACTIVE)));
+        WebClient webClient = delayedWebClient(Map.ofEntries(
+                balance("acc-1", 500.0, Duration.ofMillis(300)),
+                balance("acc-2", 500.0, Duration.ofMillis(10)),
+                balance("acc-3", 500.0, Duration.ofMillis(10))));
+
+        StepVerifier.withVirtualTime(() -> debitCardService(webClient)
+                        .authorizeDebitCard("card-1", authorizationRequest(100.0)))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(299))
+                .thenAwait(Duration.ofMillis(1))
+                .assertNext(response -> {
+                    assertThat(response.getStatus()).isEqualTo(StatusEnum.APPROVED);
+                    assertThat(response.getAccountId()).isEqualTo("acc-1");
+                })
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    @Test
+    void pendingLookupsAreCancelledOnceAnAccountCoversTheAmount() {
+        when(debitCardRepository.findById("card-1"))
+                .thenReturn(Mono.just(debitCard(CardStatusEnum.ACTIVE)));
+        WebClient webClient = delayedWebClient(Map.ofEntries(
+                balance("acc-1", 500.0, Duration.ofMillis(100)),
+                balance("acc-2", 500.0, Duration.ofSeconds(5)),
+                balance("acc-3", 500.0, Duration.ofSeconds(5))));
+
+        StepVerifier.withVirtualTime(() -> debitCardService(webClient)
+                        .authorizeDebitCard("card-1", authorizationRequest(100.0)))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(100))
+                .assertNext(response -> assertThat(response.getAccountId()).isEqualTo("acc-1"))
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+
+        assertThat(requestedPaths).containsExactlyInAnyOrder(
+                balancePath("acc-1"), balancePath("acc-2"), balancePath("acc-3"));
+        assertThat(cancelledPaths).containsExactlyInAnyOrder(
+                balancePath("acc-2"), balancePath("acc-3"));
+    }
+
+    @Test
+    void timedOutAccountIsReportedAsBalanceUnavailable() {
+        serviceProperties.getAuthorization().setBalanceTimeout(Duration.ofMillis(100));
+        when(debitCardRepository.findById("card-1"))
+                .thenReturn(Mono.just(debitCard(CardStatusEnum.ACTIVE)));
+        WebClient webClient = delayedWebClient(Map.ofEntries(
+                balance("acc-1", 500.0, Duration.ofSeconds(5)),
+                balance("acc-2", 10.0, Duration.ofMillis(10)),
+                balance("acc-3", 10.0, Duration.ofMillis(10))));
+
+        StepVerifier.withVirtualTime(() -> debitCardService(webClient)
+                        .authorizeDebitCard("card-1", authorizationRequest(100.0)))
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(99))
+                .thenAwait(Duration.ofMillis(1))
+                .assertNext(response -> {
+                    assertThat(response.getStatus()).isEqualTo(StatusEnum.DECLINED);
+                    assertThat(response.getDeclineReason())
+                            .isEqualTo(DeclineReasonEnum.BALANCE_UNAVAILABLE);
+                    assertThat(response.getAccountId()).isNull();
+                })
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+
+        assertThat(cancelledPaths).containsExactly(balancePath("acc-1"));
+    }
+
+    @Test
+    void inactiveCardIsDeclinedWithoutQueryingBalances() {
+        when(debitCardRepository.findById("card-1"))
+                .thenReturn(Mono.just(debitCard(CardStatusEnum.BLOCKED)));
+        DebitCardServiceImpl service = debitCardService(unusedWebClient());
+
+        StepVerifier.create(service.authorizeDebitCard("card-1", authorizationRequest(100.0)))
+                .assertNext(response -> {
+                    assertThat(response.getStatus()).isEqualTo(StatusEnum.DECLINED);
+                    assertThat(response.getDeclineReason())
+                            .isEqualTo(DeclineReasonEnum.CARD_NOT_ACTIVE);
+                })
+                .verifyComplete();
+
+        assertThat(requestedPaths).isEmpty();
+    }
+
+    @Test
+    void balancesOfEveryAccountAreAddedUpInPriorityOrder() {
+        when(debitCardRepository.findById("card-1"))
+                .thenReturn(Mono.just(debitCard(CardStatusEnum.ACTIVE)));
+        WebClient webClient = delayedWebClient(Map.ofEntries(
+                balance("acc-1", 200.0, Duration.ofMillis(30)),
+                balance("acc-2", 100.0, Duration.ofMillis(20)),
+                balance("acc-3", 50.0, Duration.ofMillis(10))));
+
+        StepVerifier.withVirtualTime(() -> debitCardService(webClient)
+                        .getDebitCardBalances("card-1"))
+                .expectSubscription()
+                .thenAwait(Duration.ofMillis(30))
+                .assertNext(response -> {
+                    assertThat(response.getPartial()).isFalse();
+                    assertThat(response.getTotalAvailable()).isEqualTo(350.0);
+                    assertThat(response.getAccounts())
+                            .extracting(AccountBalanceDto::getAccountId)
+                            .containsExactly("acc-1", "acc-2", "acc-3");
+                    assertThat(response.getAccounts())
+                            .extracting(AccountBalanceDto::getPrimary)
+                            .containsExactly(true, false, false);
+                })
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    @Test
+    void timedOutAccountIsMarkedUnavailableAndLeftOutOfTheTotal() {
+        when(debitCardRepository.findById("card-1"))
+                .thenReturn(Mono.just(debitCard(CardStatusEnum.ACTIVE)));
+        WebClient webClient = delayedWebClient(Map.ofEntries(
+                balance("acc-1", 200.0, Duration.ofMillis(10)),
+                balance("acc-2", 100.0, Duration.ofSeconds(5)),
+                balance("acc-3", 50.0, Duration.ofMillis(10))));
+
+        StepVerifier.withVirtualTime(() -> debitCardService(webClient)
+                        .getDebitCardBalances("card-1"))
+                .expectSubscription()
+                .thenAwait(serviceProperties.getBalances().getCallTimeout())
+                .assertNext(response -> {
+                    assertThat(response.getPartial()).isTrue();
+                    assertThat(response.getTotalAvailable()).isEqualTo(250.0);
+                    assertThat(response.getAccounts())
+                            .extracting(AccountBalanceDto::getStatus)
+                            .containsExactly(AccountBalanceDto.StatusEnum.AVAILABLE,
+                                    AccountBalanceDto.StatusEnum.UNAVAILABLE,
+                                    AccountBalanceDto.StatusEnum.AVAILABLE);
+                    assertThat(response.getAccounts().get(1).getBalance()).isNull();
+                })
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    @Test
+    void failedBatchMarksEveryAccountOfTheBatchUnavailable() {
+        serviceProperties.getBalances().setStrategy(BalanceStrategy.BATCH);
+        serviceProperties.getBalances().setMaxBatchSize(2);
+        when(debitCardRepository.findById("card-1"))
+                .thenReturn(Mono.just(debitCard(CardStatusEnum.ACTIVE)));
+        DebitCardServiceImpl service = debitCardService(failingFirstBatchWebClient());
+
+        StepVerifier.create(service.getDebitCardBalances("card-1"))
+                .assertNext(response -> {
+                    assertThat(response.getPartial()).isTrue();
+                    assertThat(response.getTotalAvailable()).isEqualTo(50.0);
+                    assertThat(response.getAccounts())
+                            .extracting(AccountBalanceDto::getStatus)
+                            .containsExactly(AccountBalanceDto.StatusEnum.UNAVAILABLE,
+                                    AccountBalanceDto.StatusEnum.UNAVAILABLE,
+                                    AccountBalanceDto.StatusEnum.AVAILABLE);
+                })
+                .expectComplete()
+                .verify(VERIFY_TIMEOUT);
+    }
+
+    private DebitCardServiceImpl debitCardService(WebClient webClient) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        DebitCardCacheProperties cacheProperties = new DebitCardCacheProperties();
+        DebitCardCache debitCardCache = new DebitCardCache(debitCardRepository,
+                new DebitCardBatchLoader(debitCardRepository, serviceProperties, meterRegistry),
+                cacheProperties, meterRegistry);
+        return new DebitCardServiceImpl(
+                debitCardRepository,
+                debitCardCache,
+                new AccountCardIndex(cacheProperties, meterRegistry),
+                new BalanceCache(cacheProperties, meterRegistry),
+                new ValidationCache(cacheProperties, meterRegistry),
+                new LastKnownGoodStore(cacheProperties, meterRegistry),
+                serviceProperties,
+                new CardNumberGenerator(serviceProperties),
+                mock(CardSecretCodec.class),
+                new CardOutbox(new CardEventProperties()),
+                new DebitCardServiceConfig().accountBalanceClient(webClient, serviceProperties),
+                new DebitCardMapperImpl(),
+                ObservationRegistry.NOOP,
+                webClient,
+                webClient,
+                webClient);
+    }
+
+    private static DebitCardRequestDto debitCardRequest() {
+        return new DebitCardRequestDto().customerId("cus-1").primaryAccountId("acc-1");
+    }
+
+    private static DebitCard debitCard(CardStatusEnum status) {
+        return DebitCard.builder()
+                .id("card-1")
+                .customerId("cus-1")
+                .primaryAccountId("acc-1")
+                .associatedAccountIds(List.of("acc-2", "acc-3"))
+                .active(status)
+                .build();
+    }
+
+    private static Mono<AuthorizationRequestDto> authorizationRequest(double amount) {
+        return Mono.just(new AuthorizationRequestDto().amount(amount));
+    }
+
+    private static String balancePath(String accountId) {
+        return "/api/v1/accounts/" + accountId + "/balance";
+    }
+
+    /**
+     * Registra el saldo que devuelve account-ms para una cuenta y el retraso de su
+     * respuesta.
+     */
+    private Map.Entry<String, Duration> balance(
+            String accountId, double balance, Duration delay) {
+        responses.put(balancePath(accountId),
+                "{\"accountId\":\"" + accountId + "\",\"balance\":" + balance + "}");
+        return Map.entry(balancePath(accountId), delay);
+    }
+
+    /**
+     * Cliente web simulado de los servicios externos: cada ruta responde con el retraso
+     * indicado, medido con el reloj de Reactor para poder usar tiempo virtual. Se anotan
+     * las rutas consultadas y las consultas canceladas antes de responder.
+     */
+    private WebClient delayedWebClient(Map<String, Duration> delays) {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    String path = request.url().getPath();
+                    requestedPaths.add(path);
+                    return Mono.delay(delays.get(path))
+                            .doOnCancel(() -> cancelledPaths.add(path))
+                            .thenReturn(ClientResponse.create(HttpStatus.OK)
+                                    .header(HttpHeaders.CONTENT_TYPE,
+                                            MediaType.APPLICATION_JSON_VALUE)
+                                    .body(responses.get(path))
+                                    .build());
+                })
+                .build();
+    }
+
+    /**
+     * Cliente web simulado de la consulta de saldos por lotes: la primera llamada falla y
+     * las siguientes devuelven el saldo de {@code acc-3}.
+     */
+    private static WebClient failingFirstBatchWebClient() {
+        AtomicInteger calls = new AtomicInteger();
+        return WebClient.builder()
+                .exchangeFunction(request -> Mono.just(calls.getAndIncrement() == 0
+                        ? ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()
+                        : ClientResponse.create(HttpStatus.OK)
+                                .header(HttpHeaders.CONTENT_TYPE,
+                                        MediaType.APPLICATION_JSON_VALUE)
+                                .body("[{\"accountId\":\"acc-3\",\"balance\":50.0}]")
+                                .build()))
+                .build();
+    }
+
+    private WebClient unusedWebClient() {
+        return WebClient.builder()
+                .exchangeFunction(request -> {
+                    requestedPaths.add(request.url().getPath());
+                    return Mono.just(
+                            ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                })
+                .build();
+    }
+}
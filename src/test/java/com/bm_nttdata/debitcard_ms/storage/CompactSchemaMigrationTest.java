@@ -0,0 +1,176 @@
+package com.bm_nttdata.debitcard_ms.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bm_nttdata.debitcard_ms.config.MongoStorageProperties;
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import de.bwaldvogel.mongo.MongoServer;
+import de.bwaldvogel.mongo.backend.memory.MemoryBackend;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * Comprueba contra un servidor MongoDB en memoria la migración de los documentos de
+ * tarjetas de débito al esquema compacto.
+ */
+class CompactSchemaMigrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static final String SOURCE = "debit-card";
+
+    private static final String TARGET = "debit-card-compact";
+
+    private static final String BACKUP = "debit-card-legacy";
+
+    private MongoServer server;
+
+    private MongoClient client;
+
+    private ReactiveMongoTemplate legacyTemplate;
+
+    private ReactiveMongoTemplate compactTemplate;
+
+    private MongoStorageProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        server = new MongoServer(new MemoryBackend());
+        client = MongoClients.create(server.bindAndGetConnectionString());
+        SimpleReactiveMongoDatabaseFactory databaseFactory =
+                new SimpleReactiveMongoDatabaseFactory(client, "debitcard_test");
+        legacyTemplate = new ReactiveMongoTemplate(
+                databaseFactory, CompactValueConvertersTest.legacyConverter());
+        compactTemplate = new ReactiveMongoTemplate(
+                databaseFactory, CompactValueConvertersTest.compactConverter());
+        properties = new MongoStorageProperties();
+        properties.getMigration().setBatchSize(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        client.close();
+        server.shutdownNow();
+    }
+
+    @Test
+    void legacyDocumentsAreCopiedToTheCompactCollection() {
+        List<DebitCard> cards = insertLegacyCards(5);
+
+        migrate();
+
+        assertThat(compactTemplate.findAll(DebitCard.class, TARGET).collectList().block(TIMEOUT))
+                .containsExactlyInAnyOrderElementsOf(cards);
+        assertThat(legacyTemplate.findAll(DebitCard.class, SOURCE).collectList().block(TIMEOUT))
+                .containsExactlyInAnyOrderElementsOf(cards);
+        Document compact = legacyTemplate.getCollection(TARGET)
+                .flatMap(collection -> Mono.from(
+                        collection.find().first()))
+                .block(TIMEOUT);
+        assertThat(compact).doesNotContainKeys("_class", "cardNumber", "active")
+                .containsKeys("n", "s", "e");
+    }
+
+    @Test
+    void compactCollectionIsIndexedWithTheCompactFieldNames() {
+        insertLegacyCards(1);
+
+        migrate();
+
+        Map<String, Document> indexes = legacyTemplate.indexOps(TARGET).getIndexInfo()
+                .collectMap(IndexInfo::getName, CompactSchemaMigrationTest::indexKeys)
+                .block(TIMEOUT);
+        assertThat(indexes)
+                .containsEntry("cardNumber", new Document("n", 1))
+                .containsEntry("customerId_active", new Document("c", 1).append("s", 1))
+                .containsEntry("customerId_id", new Document("c", 1).append("_id", 1))
+                .containsEntry("associatedAccountIds", new Document("aa", 1));
+        assertThat(legacyTemplate.indexOps(TARGET).getIndexInfo()
+                        .filter(index -> index.getName().equals("cardNumber"))
+                        .blockFirst(TIMEOUT)
+                        .isUnique())
+                .isTrue();
+    }
+
+    @Test
+    void interruptedMigrationResumesAfterTheLastCopiedDocument() {
+        List<DebitCard> cards = insertLegacyCards(5);
+        compactTemplate.insert(cards.subList(0, 2), TARGET).collectList().block(TIMEOUT);
+        // Un documento ya copiado que la migración no debe volver a escribir
+        compactTemplate.getCollection(TARGET)
+                .flatMap(collection -> Mono.from(collection.updateOne(
+                        new Document("_id", new ObjectId(cards.get(0).getId())),
+                        new Document("$set", new Document("c", "cus-resumed")))))
+                .block(TIMEOUT);
+
+        migrate();
+
+        List<DebitCard> migrated =
+                compactTemplate.findAll(DebitCard.class, TARGET).collectList().block(TIMEOUT);
+        assertThat(migrated).hasSize(5);
+        assertThat(migrated).containsAll(cards.subList(1, 5));
+        assertThat(migrated).extracting(DebitCard::getCustomerId).contains("cus-resumed");
+    }
+
+    @Test
+    void swapReplacesTheSourceCollectionAndKeepsTheLegacyOneAsBackup() {
+        List<DebitCard> cards = insertLegacyCards(3);
+        properties.getMigration().setSwap(true);
+
+        migrate();
+
+        assertThat(compactTemplate.findAll(DebitCard.class).collectList().block(TIMEOUT))
+                .containsExactlyInAnyOrderElementsOf(cards);
+        assertThat(legacyTemplate.findAll(DebitCard.class, BACKUP).collectList().block(TIMEOUT))
+                .containsExactlyInAnyOrderElementsOf(cards);
+        assertThat(legacyTemplate.collectionExists(TARGET).block(TIMEOUT)).isFalse();
+    }
+
+    private void migrate() {
+        MongoMappingContext mappingContext = (MongoMappingContext)
+                ((MappingMongoConverter) legacyTemplate.getConverter()).getMappingContext();
+        new CompactSchemaMigration(legacyTemplate, mappingContext, properties)
+                .run(new DefaultApplicationArguments());
+    }
+
+    private List<DebitCard> insertLegacyCards(int count) {
+        List<DebitCard> cards = new ArrayList<>();
+        CardStatusEnum[] statuses = CardStatusEnum.values();
+        for (int n = 0; n < count; n++) {
+            cards.add(CompactValueConvertersTest.debitCard(
+                            statuses[n % statuses.length], "2030-" + String.format("%02d", n + 1))
+                    .toBuilder()
+                    .id(null)
+                    .cardNumber("4000-0000-0000-" + String.format("%04d", n))
+                    .build());
+        }
+        return legacyTemplate.insertAll(cards).collectList().block(TIMEOUT);
+    }
+
+    private static Document indexKeys(IndexInfo index) {
+        return index.getIndexFields().stream().collect(Collectors.toMap(
+                IndexField::getKey,
+                field -> 1,
+                (first, second) -> first,
+                Document::new));
+    }
+}
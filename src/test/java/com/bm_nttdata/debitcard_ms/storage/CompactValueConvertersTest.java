@@ -0,0 +1,184 @@
+package com.bm_nttdata.debitcard_ms.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bm_nttdata.debitcard_ms.entity.DebitCard;
+import com.bm_nttdata.debitcard_ms.entity.enums.CardStatusEnum;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Comprueba la escritura y lectura de tarjetas de débito con el esquema compacto, tal como
+ * lo configura MongoStorageConfig.
+ */
+class CompactValueConvertersTest {
+
+    private final MappingMongoConverter converter = compactConverter();
+
+    @Test
+    void cardIsWrittenWithCompactFieldNamesAndReadBack() {
+        DebitCard card = debitCard(CardStatusEnum.ACTIVE, "2030-10");
+        Document document = new Document();
+
+        converter.write(card, document);
+
+        assertThat(document).containsOnlyKeys(
+                "_id", "n", "c", "pa", "aa", "e", "v", "p", "t", "s", "r");
+        assertThat(document)
+                .containsEntry("n", card.getCardNumber())
+                .containsEntry("c", "cus-1")
+                .containsEntry("pa", "acc-1")
+                .containsEntry("aa", List.of("acc-2", "acc-3"))
+                .containsEntry("e", 203010)
+                .containsEntry("s", 1)
+                .containsEntry("r", 3L);
+        assertThat(converter.read(DebitCard.class, document)).isEqualTo(card);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"2030-01, 203001", "2030-12, 203012", "1999-07, 199907"})
+    void expirationDateIsPackedAsYearAndMonth(String expirationDate, int packed) {
+        Document document = new Document();
+
+        converter.write(debitCard(CardStatusEnum.ACTIVE, expirationDate), document);
+
+        assertThat(document.get("e")).isEqualTo(packed);
+        assertThat(converter.read(DebitCard.class, document).getExpirationDate())
+                .isEqualTo(expirationDate);
+    }
+
+    @Test
+    void expirationDateWithoutTheExpectedFormatIsKeptAsText() {
+        Document document = new Document();
+
+        converter.write(debitCard(CardStatusEnum.ACTIVE, "10/30"), document);
+
+        assertThat(document.get("e")).isEqualTo("10/30");
+        assertThat(converter.read(DebitCard.class, document).getExpirationDate())
+                .isEqualTo("10/30");
+    }
+
+    @ParameterizedTest
+    @EnumSource(CardStatusEnum.class)
+    void statusIsStoredAsItsCodeAndReadBack(CardStatusEnum status) {
+        Document document = new Document();
+
+        converter.write(debitCard(status, "2030-10"), document);
+
+        assertThat(document.get("s")).isEqualTo(CompactSchema.encodeStatus(status));
+        assertThat(converter.read(DebitCard.class, document).getActive()).isEqualTo(status);
+    }
+
+    @Test
+    void statusCodesAreStable() {
+        assertThat(CompactSchema.encodeStatus(CardStatusEnum.ACTIVE)).isEqualTo(1);
+        assertThat(CompactSchema.encodeStatus(CardStatusEnum.BLOCKED)).isEqualTo(2);
+        assertThat(CompactSchema.encodeStatus(CardStatusEnum.CANCELLED)).isEqualTo(3);
+    }
+
+    @Test
+    void legacyValuesAreReadUnderTheCompactSchema() {
+        Document partiallyMigrated = new Document("_id", new ObjectId())
+                .append("n", "4000-0000-0000-0001")
+                .append("c", "cus-1")
+                .append("e", "2030-10")
+                .append("s", "BLOCKED");
+
+        DebitCard card = converter.read(DebitCard.class, partiallyMigrated);
+
+        assertThat(card.getExpirationDate()).isEqualTo("2030-10");
+        assertThat(card.getActive()).isEqualTo(CardStatusEnum.BLOCKED);
+    }
+
+    @Test
+    void legacyDocumentIsConvertedToTheCompactSchemaAndReadBack() {
+        DebitCard card = debitCard(CardStatusEnum.CANCELLED, "2028-02");
+        MappingMongoConverter legacyConverter = legacyConverter();
+        Document legacy = new Document();
+        legacyConverter.write(card, legacy);
+
+        Document compact = CompactSchema.toCompact(legacy);
+
+        assertThat(legacy).containsKeys("_class", "cardNumber", "active", "expirationDate");
+        assertThat(compact).doesNotContainKey("_class")
+                .containsEntry("e", 202802)
+                .containsEntry("s", 3);
+        assertThat(converter.read(DebitCard.class, compact)).isEqualTo(card);
+    }
+
+    @Test
+    void queriesOnConvertedPropertiesUseCompactNamesAndValues() {
+        Query query = Query.query(Criteria.where("customerId").is("cus-1")
+                .and("active").is(CardStatusEnum.ACTIVE)
+                .and("expirationDate").lt("2031-01"));
+
+        Document mapped = new QueryMapper(converter).getMappedObject(
+                query.getQueryObject(),
+                converter.getMappingContext().getPersistentEntity(DebitCard.class));
+
+        assertThat(mapped).isEqualTo(new Document("c", "cus-1")
+                .append("s", 1)
+                .append("e", new Document("$lt", 203101)));
+    }
+
+    /**
+     * Conversor con el esquema compacto: nombres de campo cortos, conversores por
+     * propiedad y sin clave de tipo.
+     */
+    static MappingMongoConverter compactConverter() {
+        MongoCustomConversions conversions = MongoCustomConversions.create(adapter ->
+                adapter.configurePropertyConversions(CompactValueConverters::register));
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.setFieldNamingStrategy(new CompactFieldNamingStrategy());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter =
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.setTypeMapper(new DefaultMongoTypeMapper(null, mappingContext));
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    static MappingMongoConverter legacyConverter() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter =
+                new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        return converter;
+    }
+
+    static DebitCard debitCard(CardStatusEnum status, String expirationDate) {
+        return DebitCard.builder()
+                .id(new ObjectId().toHexString())
+                .cardNumber("4000-0000-0000-0001")
+                .customerId("cus-1")
+                .primaryAccountId("acc-1")
+                .associatedAccountIds(List.of("acc-2", "acc-3"))
+                .expirationDate(expirationDate)
+                .ccvCode("k1:ccv")
+                .cardPin("k1:pin")
+                .creationDate(LocalDateTime.of(2026, 10, 18, 9, 30))
+                .active(status)
+                .version(3L)
+                .build();
+    }
+}